@@ -9,6 +9,7 @@ import android.app.Activity;
 import android.content.pm.ActivityInfo;
 import android.os.AsyncTask;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.Menu;
 import android.widget.GridView;
 import android.widget.ImageView;
@@ -22,6 +23,9 @@ import com.kdoherty.chess.Move;
 import com.kdoherty.chess.Piece;
 import com.kdoherty.chess.Square;
 import com.kdoherty.engine.CpuPlayer;
+import com.kdoherty.engine.SearchHandle;
+import com.kdoherty.engine.SearchInfo;
+import com.kdoherty.engine.SearchListener;
 
 /**
  * This Activity is responsible for displaying the chess board, the player's
@@ -43,6 +47,10 @@ public class ChessActivity extends Activity {
 	private boolean isCpuPlayer = true;
 	private static final Color cpuColor = Color.BLACK;
 	private CpuPlayer player = CpuPlayer.getInstance(cpuColor);
+
+	/** The computer player's search which is running, or null */
+	private GetCpuMove cpuMove;
+
 	/** The starting game time for each player in milliseconds */
 	 private long startTime = 300000; // 2 minutes //
 	//private long startTime = 900000; // 15 minutes
@@ -119,16 +127,25 @@ public class ChessActivity extends Activity {
 			this.isCpuPlayer = isCpuPlayer;
 		}
 
+		player.setThreadCount(Runtime.getRuntime().availableProcessors());
+
 		initTimers();
 		initBoard();
 		initPieceHolders();
 		// initMoveList();
 
 		if (isCpuMove()) {
-			new GetCpuMove().execute();
+			startCpuMove();
 		}
 	}
 
+	@Override
+	protected void onDestroy() {
+		// Don't keep searching for a game nobody is looking at
+		stopCpuMove();
+		super.onDestroy();
+	}
+
 	@Override
 	public boolean onCreateOptionsMenu(Menu menu) {
 		// Inflate the menu; this adds items to the action bar if it is present.
@@ -164,6 +181,7 @@ public class ChessActivity extends Activity {
 				Toast.makeText(ChessActivity.this, "OUT OF TIME. BLACK WINS!",
 						Toast.LENGTH_LONG).show();
 				isGameOver = true;
+				stopCpuMove();
 			}
 		};
 
@@ -179,6 +197,7 @@ public class ChessActivity extends Activity {
 				Toast.makeText(ChessActivity.this, "OUT OF TIME. WHITE WINS!",
 						Toast.LENGTH_LONG).show();
 				isGameOver = true;
+				stopCpuMove();
 			}
 		};
 	}
@@ -246,7 +265,10 @@ public class ChessActivity extends Activity {
 			toggleTimer();
 		}
 		if (isCpuMove()) {
-			new GetCpuMove().execute();
+			startCpuMove();
+		} else if (isCpuPlayer && !isGameOver) {
+			// Think about the computer's next move on the user's time
+			player.ponder(board.clone());
 		}
 	}
 
@@ -363,14 +385,41 @@ public class ChessActivity extends Activity {
 		return isCpuPlayer && cpuColor == activeTimer;
 	}
 
+	/**
+	 * Starts searching for the computer player's move in the background
+	 */
+	private void startCpuMove() {
+		cpuMove = new GetCpuMove();
+		cpuMove.execute();
+	}
+
+	/**
+	 * Stops the computer player's search if it is running, or its pondering
+	 * if it is the user's turn. The Move it was searching for is never
+	 * played.
+	 */
+	private void stopCpuMove() {
+		if (cpuMove != null) {
+			cpuMove.stop();
+			cpuMove = null;
+		} else {
+			player.stopPondering();
+		}
+	}
+
 	/**
 	 * Gets the computer player's move and plays it on the Board and handles
 	 * passing the turn. This is an expensive call so it is run on a background
 	 * Thread instead of the UI thread. This also allows the computer player's
-	 * timer to update while this call is executing.
+	 * timer to update while this call is executing. The progress of the search
+	 * is logged after each depth.
 	 * 
 	 */
-	private class GetCpuMove extends AsyncTask<Void, Void, Move> {
+	private class GetCpuMove extends AsyncTask<Void, SearchInfo, Move>
+			implements SearchListener {
+
+		/** Stops the search when the task is no longer wanted */
+		private final SearchHandle handle = new SearchHandle();
 
 		/**
 		 * Gets the computer player's Move
@@ -381,7 +430,35 @@ public class ChessActivity extends Activity {
 		protected Move doInBackground(Void... params) {
 			Board board = adapter.getBoard();
 			long millisRemaining = getTimer(activeTimer).getMillisRemaining();
-			return player.negaMaxMove(board.clone(), millisRemaining);
+			handle.setListener(this);
+			return player.negaMaxMove(board.clone(), millisRemaining, 0, 0,
+					handle);
+		}
+
+		/**
+		 * Called on the search thread after each depth
+		 */
+		@Override
+		public void onIteration(SearchInfo info) {
+			publishProgress(info);
+		}
+
+		/**
+		 * Shows the progress of the search
+		 */
+		@Override
+		protected void onProgressUpdate(SearchInfo... infos) {
+			for (SearchInfo info : infos) {
+				Log.d("ChessActivity", info.toString());
+			}
+		}
+
+		/**
+		 * Stops the search as soon as possible and drops its Move
+		 */
+		void stop() {
+			handle.stop();
+			cancel(false);
 		}
 
 		/**
@@ -391,6 +468,7 @@ public class ChessActivity extends Activity {
 		@Override
 		protected void onPostExecute(Move result) {
 			super.onPostExecute(result);
+			cpuMove = null;
 			if (!isGameOver) {
 				if (result == null) {
 					showGameOver();
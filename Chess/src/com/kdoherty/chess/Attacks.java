@@ -0,0 +1,352 @@
+package com.kdoherty.chess;
+
+/**
+ * Precomputed attack tables. Knight, King and Pawn attacks are looked up
+ * directly by Square. Rook and Bishop attacks are looked up using magic
+ * bitboards: the occupied Squares relevant to a slider are multiplied by a
+ * magic number so the top bits form a perfect hash into a table of attack
+ * sets for that Square. None of the lookups allocate.
+ * 
+ * The magic numbers were found offline by trying random sparse numbers until
+ * one mapped every relevant occupancy of a Square without a harmful
+ * collision. They only work with the Square numbering used by Square.toNum.
+ * 
+ * @author Kevin Doherty
+ * 
+ */
+public final class Attacks {
+
+	/** Row and column offsets a Knight can move by */
+	private static final int[][] KNIGHT_OFFSETS = { { -2, 1 }, { -2, -1 },
+			{ -1, 2 }, { -1, -2 }, { 1, 2 }, { 1, -2 }, { 2, 1 }, { 2, -1 } };
+
+	/** Row and column offsets a King can move by */
+	private static final int[][] KING_OFFSETS = { { -1, -1 }, { -1, 0 },
+			{ -1, 1 }, { 0, -1 }, { 0, 1 }, { 1, -1 }, { 1, 0 }, { 1, 1 } };
+
+	/** Directions a Rook slides in */
+	private static final int[][] ROOK_DIRECTIONS = { { -1, 0 }, { 1, 0 },
+			{ 0, -1 }, { 0, 1 } };
+
+	/** Directions a Bishop slides in */
+	private static final int[][] BISHOP_DIRECTIONS = { { -1, -1 }, { -1, 1 },
+			{ 1, -1 }, { 1, 1 } };
+
+	private static final long[] KNIGHT = new long[64];
+
+	private static final long[] KING = new long[64];
+
+	/** Pawn attacks indexed by Position Color index then Square */
+	private static final long[][] PAWN = new long[2][64];
+
+	/** The Squares strictly between two Squares on the same line */
+	private static final long[][] BETWEEN = new long[64][64];
+
+	/**
+	 * The full line (row, column or diagonal) through two Squares, including
+	 * the two Squares. Empty if they are not on the same line.
+	 */
+	private static final long[][] LINE = new long[64][64];
+
+	private static final long[] ROOK_MAGICS = {
+			0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL,
+			0x8880041000800800L, 0x1200100201200804L, 0x0200020004011008L,
+			0x2180010000800600L, 0x0200005088210204L, 0x0000800080204001L,
+			0x1000804000802001L, 0x8240801000200080L, 0x8611001004200900L,
+			0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L,
+			0x8020802300104280L, 0x0080004000402000L, 0xE010104000402000L,
+			0x0800808010002000L, 0xA280210008100100L, 0x0001818014000800L,
+			0xA002010100080400L, 0x0008040088020130L, 0x0001020004048845L,
+			0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L,
+			0x0200080080100080L, 0x8083080100100500L, 0x4406000901000400L,
+			0x0005020080800100L, 0x0090204200008114L, 0x0010400094800420L,
+			0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+			0x4540040080800800L, 0x0000800400800200L, 0x9281800100808200L,
+			0x8004048102000854L, 0x4420802040008006L, 0x0880500020004002L,
+			0x0801200241050010L, 0x8400080010008080L, 0x0008000500090010L,
+			0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+			0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L,
+			0x001B080080900080L, 0x001A002008100600L, 0x0004008004020080L,
+			0x5181000600040300L, 0x0000044401128A00L, 0x8044110480002441L,
+			0x1023012082044112L, 0x00804080200A0012L, 0x000420310A004A42L,
+			0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL,
+			0x0000019025040042L };
+
+	private static final long[] BISHOP_MAGICS = {
+			0x1010220204082A00L, 0x80E0020202002804L, 0x2008480104200020L,
+			0x000220920280002DL, 0x32040421000B0284L, 0x1002080404000400L,
+			0x0004160892080040L, 0x2203024206204201L, 0x0002404264010200L,
+			0x1120908408428124L, 0xB100424403002280L, 0x240008060440C288L,
+			0x2040040420490400L, 0x0100620210040022L, 0x0400084104202028L,
+			0x0010050080908820L, 0x0C90A04490824802L, 0x000200A008210130L,
+			0x0C08001000204010L, 0x0008000186014480L, 0x0601044820080021L,
+			0x0002000101013100L, 0x1400A08108080204L, 0x0250401104485410L,
+			0x4820240810142843L, 0x0009142A20182200L, 0x0848140048440020L,
+			0x2020120000400440L, 0x0108840200802003L, 0x0009070082009492L,
+			0x020C0C0038424245L, 0xCA44005808210410L, 0x8011212000500404L,
+			0x2028840510101008L, 0x0004042A00041400L, 0x0624020080980080L,
+			0x1820410040840040L, 0x2201004202050100L, 0x402A088A24040224L,
+			0x0242061040002400L, 0x90020202400821A0L, 0x00C9009004E01002L,
+			0x58C2060202023100L, 0x0000012214040800L, 0x0210846810100200L,
+			0x0004208081010200L, 0x01A4108404442100L, 0x8054082C80280106L,
+			0x0004144904104208L, 0x00324C0A11104000L, 0x1000020231040100L,
+			0x2080001042020004L, 0x0544021020288104L, 0x1103501408083020L,
+			0x4010451004960002L, 0x003010091C44902CL, 0x0102402884202000L,
+			0x0480804C00841086L, 0x04602C8602210400L, 0x0000004000420200L,
+			0x0040000020442C18L, 0x4483804089094100L, 0x80000B0248020400L,
+			0x0045010808008680L };
+
+	private static final long[] ROOK_MASKS = new long[64];
+	private static final int[] ROOK_SHIFTS = new int[64];
+	private static final long[][] ROOK_TABLE = new long[64][];
+
+	private static final long[] BISHOP_MASKS = new long[64];
+	private static final int[] BISHOP_SHIFTS = new int[64];
+	private static final long[][] BISHOP_TABLE = new long[64][];
+
+	static {
+		for (int sq = 0; sq < 64; sq++) {
+			KNIGHT[sq] = stepAttacks(sq, KNIGHT_OFFSETS);
+			KING[sq] = stepAttacks(sq, KING_OFFSETS);
+			PAWN[Position.WHITE][sq] = pawnAttacks(sq, -1);
+			PAWN[Position.BLACK][sq] = pawnAttacks(sq, 1);
+		}
+		for (int sq = 0; sq < 64; sq++) {
+			initMagic(sq, ROOK_DIRECTIONS, ROOK_MAGICS[sq], ROOK_MASKS,
+					ROOK_SHIFTS, ROOK_TABLE);
+			initMagic(sq, BISHOP_DIRECTIONS, BISHOP_MAGICS[sq], BISHOP_MASKS,
+					BISHOP_SHIFTS, BISHOP_TABLE);
+		}
+		initLines();
+	}
+
+	private Attacks() {
+		// Hide constructor
+	}
+
+	/**
+	 * Gets the Squares a Knight on the input Square attacks
+	 * 
+	 * @param sq
+	 *            The Square the Knight is on
+	 * @return The Squares attacked by the Knight
+	 */
+	public static long knight(int sq) {
+		return KNIGHT[sq];
+	}
+
+	/**
+	 * Gets the Squares a King on the input Square attacks
+	 * 
+	 * @param sq
+	 *            The Square the King is on
+	 * @return The Squares attacked by the King
+	 */
+	public static long king(int sq) {
+		return KING[sq];
+	}
+
+	/**
+	 * Gets the Squares a Pawn of the input Color on the input Square attacks
+	 * 
+	 * @param color
+	 *            The Position Color index of the Pawn
+	 * @param sq
+	 *            The Square the Pawn is on
+	 * @return The Squares attacked by the Pawn
+	 */
+	public static long pawn(int color, int sq) {
+		return PAWN[color][sq];
+	}
+
+	/**
+	 * Gets the Squares a Rook on the input Square attacks
+	 * 
+	 * @param sq
+	 *            The Square the Rook is on
+	 * @param occupied
+	 *            All occupied Squares on the Board
+	 * @return The Squares attacked by the Rook, including the first blocker in
+	 *         each direction
+	 */
+	public static long rook(int sq, long occupied) {
+		return ROOK_TABLE[sq][(int) (((occupied & ROOK_MASKS[sq]) * ROOK_MAGICS[sq]) >>> ROOK_SHIFTS[sq])];
+	}
+
+	/**
+	 * Gets the Squares a Bishop on the input Square attacks
+	 * 
+	 * @param sq
+	 *            The Square the Bishop is on
+	 * @param occupied
+	 *            All occupied Squares on the Board
+	 * @return The Squares attacked by the Bishop, including the first blocker
+	 *         in each direction
+	 */
+	public static long bishop(int sq, long occupied) {
+		return BISHOP_TABLE[sq][(int) (((occupied & BISHOP_MASKS[sq]) * BISHOP_MAGICS[sq]) >>> BISHOP_SHIFTS[sq])];
+	}
+
+	/**
+	 * Gets the Squares a Queen on the input Square attacks
+	 * 
+	 * @param sq
+	 *            The Square the Queen is on
+	 * @param occupied
+	 *            All occupied Squares on the Board
+	 * @return The Squares attacked by the Queen
+	 */
+	public static long queen(int sq, long occupied) {
+		return rook(sq, occupied) | bishop(sq, occupied);
+	}
+
+	/**
+	 * Gets the Squares strictly between the two input Squares if they share a
+	 * row, column or diagonal
+	 * 
+	 * @param sq1
+	 *            One Square
+	 * @param sq2
+	 *            Another Square
+	 * @return The Squares between the two input Squares, or an empty bitboard
+	 *         if they are not on the same line
+	 */
+	public static long between(int sq1, int sq2) {
+		return BETWEEN[sq1][sq2];
+	}
+
+	/**
+	 * Gets the entire row, column or diagonal going through both input Squares
+	 * 
+	 * @param sq1
+	 *            One Square
+	 * @param sq2
+	 *            Another Square
+	 * @return The line through both Squares, or an empty bitboard if they are
+	 *         not on the same line
+	 */
+	public static long line(int sq1, int sq2) {
+		return LINE[sq1][sq2];
+	}
+
+	/**
+	 * Gets the Squares reachable with a single step by any of the input
+	 * offsets
+	 */
+	private static long stepAttacks(int sq, int[][] offsets) {
+		int row = Bitboard.row(sq);
+		int col = Bitboard.col(sq);
+		long attacks = 0;
+		for (int[] offset : offsets) {
+			int r = row + offset[0];
+			int c = col + offset[1];
+			if (Board.isInbounds(r, c)) {
+				attacks |= Bitboard.bit(Square.toNum(r, c));
+			}
+		}
+		return attacks;
+	}
+
+	/**
+	 * Gets the two diagonal Squares in front of a Pawn moving in the input
+	 * direction
+	 */
+	private static long pawnAttacks(int sq, int forward) {
+		int[][] offsets = { { forward, -1 }, { forward, 1 } };
+		return stepAttacks(sq, offsets);
+	}
+
+	/**
+	 * Slides from the input Square in each of the input directions, stopping
+	 * at the first occupied Square. Used to fill the magic tables.
+	 */
+	private static long slidingAttacks(int sq, long occupied,
+			int[][] directions) {
+		int row = Bitboard.row(sq);
+		int col = Bitboard.col(sq);
+		long attacks = 0;
+		for (int[] dir : directions) {
+			int r = row + dir[0];
+			int c = col + dir[1];
+			while (Board.isInbounds(r, c)) {
+				long bit = Bitboard.bit(Square.toNum(r, c));
+				attacks |= bit;
+				if ((occupied & bit) != 0) {
+					break;
+				}
+				r += dir[0];
+				c += dir[1];
+			}
+		}
+		return attacks;
+	}
+
+	/**
+	 * Gets the Squares whose occupancy can change the attacks of a slider on
+	 * the input Square. The last Square in each direction never matters
+	 * because the slider attacks it whether or not it is occupied.
+	 */
+	private static long relevantMask(int sq, int[][] directions) {
+		int row = Bitboard.row(sq);
+		int col = Bitboard.col(sq);
+		long mask = 0;
+		for (int[] dir : directions) {
+			int r = row + dir[0];
+			int c = col + dir[1];
+			while (Board.isInbounds(r + dir[0], c + dir[1])) {
+				mask |= Bitboard.bit(Square.toNum(r, c));
+				r += dir[0];
+				c += dir[1];
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Fills the attack table of the input Square by hashing every relevant
+	 * occupancy with the Square's magic number
+	 */
+	private static void initMagic(int sq, int[][] directions, long magic,
+			long[] masks, int[] shifts, long[][] tables) {
+		long mask = relevantMask(sq, directions);
+		int bits = Bitboard.count(mask);
+		long[] table = new long[1 << bits];
+
+		// Enumerate every subset of the mask using the Carry-Rippler trick
+		long subset = 0;
+		do {
+			int index = (int) ((subset * magic) >>> (64 - bits));
+			table[index] = slidingAttacks(sq, subset, directions);
+			subset = (subset - mask) & mask;
+		} while (subset != 0);
+
+		masks[sq] = mask;
+		shifts[sq] = 64 - bits;
+		tables[sq] = table;
+	}
+
+	/**
+	 * Fills the BETWEEN and LINE tables
+	 */
+	private static void initLines() {
+		for (int sq1 = 0; sq1 < 64; sq1++) {
+			for (int sq2 = 0; sq2 < 64; sq2++) {
+				if (sq1 == sq2) {
+					continue;
+				}
+				long bit2 = Bitboard.bit(sq2);
+				if ((rook(sq1, 0) & bit2) != 0) {
+					BETWEEN[sq1][sq2] = rook(sq1, bit2)
+							& rook(sq2, Bitboard.bit(sq1));
+					LINE[sq1][sq2] = (rook(sq1, 0) & rook(sq2, 0))
+							| Bitboard.bit(sq1) | bit2;
+				} else if ((bishop(sq1, 0) & bit2) != 0) {
+					BETWEEN[sq1][sq2] = bishop(sq1, bit2)
+							& bishop(sq2, Bitboard.bit(sq1));
+					LINE[sq1][sq2] = (bishop(sq1, 0) & bishop(sq2, 0))
+							| Bitboard.bit(sq1) | bit2;
+				}
+			}
+		}
+	}
+}
@@ -1,6 +1,5 @@
 package com.kdoherty.chess;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.kdoherty.engine.BishopEval;
@@ -35,12 +34,24 @@ public class Bishop extends Piece {
 	 * @return true if the Piece can move to the input square and false
 	 *         otherwise */
 	public boolean canMove(Board b, int r, int c, boolean testCheck) {
-		return Board.isInbounds(r, c) && Board.sameDiagonal(row, col, r, c)
+		return Board.isInbounds(r, c)
+				&& Bitboard.isSet(getAttacks(b), Square.toNum(r, c))
 				&& (b.isEmpty(r, c) || isTaking(b, r, c))
-				&& !isBlocked(b, r, c)
 				&& (!testCheck || !stillInCheck(b, r, c));
 	}
 
+	/**
+	 * Gets all Squares this Bishop attacks on the input Board
+	 * 
+	 * @param b
+	 *            The Board this Bishop is on
+	 * @return The Squares this Bishop attacks
+	 */
+	private long getAttacks(Board b) {
+		return Attacks.bishop(Square.toNum(row, col), b.getPosition()
+				.getOccupied());
+	}
+
 	/**
 	 * Is this Piece defending the input square? Note it is not defending the
 	 * square if it is pinned to it's king, or if the input square contains a
@@ -82,15 +93,7 @@ public class Bishop extends Piece {
 	 * @return All moves this Piece can make on the input Board */
 	@Override
 	public List<Move> getMoves(Board b) {
-		List<Move> moves = new ArrayList<Move>();
-		for (int i = 0; i < Board.NUM_ROWS; i++) {
-			for (int j = 0; j < Board.NUM_COLS; j++) {
-				if (Board.sameDiagonal(row, col, i, j) && canMove(b, i, j)) {
-					moves.add(new Move(b, this, i, j, Move.Type.NORMAL));
-				}
-			}
-		}
-		return moves;
+		return getMoves(b, getTargets(b, getAttacks(b)));
 	}
 
 	@Override
@@ -102,6 +105,11 @@ public class Bishop extends Piece {
 	public int getStartingValue() {
 		return BishopEval.START_VALUE;
 	}
+
+	@Override
+	public int getType() {
+		return PieceType.BISHOP;
+	}
 	
 	public Piece clone() {
 		Bishop clone = new Bishop(color);
@@ -0,0 +1,147 @@
+package com.kdoherty.chess;
+
+/**
+ * Static helpers for working with bitboards. A bitboard is a long where each
+ * bit represents one Square on the Board. Bits are numbered the same way as
+ * Square.toNum so bit 0 is a8 (row 0, column 0) and bit 63 is h1 (row 7,
+ * column 7).
+ * 
+ * @author Kevin Doherty
+ * 
+ */
+public final class Bitboard {
+
+	/** A bitboard with no Squares set */
+	public static final long EMPTY = 0L;
+
+	/** A bitboard with every Square set */
+	public static final long ALL = ~0L;
+
+	/** Masks for each column on the Board, indexed by column */
+	public static final long[] COL_MASKS = new long[Board.NUM_COLS];
+
+	/** Masks for each row on the Board, indexed by row */
+	public static final long[] ROW_MASKS = new long[Board.NUM_ROWS];
+
+	static {
+		for (int i = 0; i < Board.NUM_ROWS; i++) {
+			for (int j = 0; j < Board.NUM_COLS; j++) {
+				ROW_MASKS[i] |= bit(Square.toNum(i, j));
+				COL_MASKS[j] |= bit(Square.toNum(i, j));
+			}
+		}
+	}
+
+	private Bitboard() {
+		// Hide constructor
+	}
+
+	/**
+	 * Gets a bitboard with only the input Square set
+	 * 
+	 * @param sq
+	 *            The Square number (0 - 63)
+	 * @return A bitboard with only the input Square set
+	 */
+	public static long bit(int sq) {
+		return 1L << sq;
+	}
+
+	/**
+	 * Is the input Square set on the input bitboard?
+	 * 
+	 * @param bb
+	 *            The bitboard to check
+	 * @param sq
+	 *            The Square number (0 - 63)
+	 * @return true if the input Square is set
+	 */
+	public static boolean isSet(long bb, int sq) {
+		return (bb & (1L << sq)) != 0;
+	}
+
+	/**
+	 * Gets the row of the input Square number
+	 * 
+	 * @param sq
+	 *            The Square number (0 - 63)
+	 * @return The row of the input Square number
+	 */
+	public static int row(int sq) {
+		return sq >>> 3;
+	}
+
+	/**
+	 * Gets the column of the input Square number
+	 * 
+	 * @param sq
+	 *            The Square number (0 - 63)
+	 * @return The column of the input Square number
+	 */
+	public static int col(int sq) {
+		return sq & 7;
+	}
+
+	/**
+	 * Gets the number of Squares set on the input bitboard
+	 * 
+	 * @param bb
+	 *            The bitboard to count
+	 * @return The number of Squares set
+	 */
+	public static int count(long bb) {
+		return Long.bitCount(bb);
+	}
+
+	/**
+	 * Gets the lowest Square set on the input bitboard
+	 * 
+	 * @param bb
+	 *            A non empty bitboard
+	 * @return The lowest Square number set on the input bitboard
+	 */
+	public static int first(long bb) {
+		return Long.numberOfTrailingZeros(bb);
+	}
+
+	/**
+	 * Removes the lowest Square set on the input bitboard
+	 * 
+	 * @param bb
+	 *            The bitboard to remove the lowest Square from
+	 * @return The input bitboard without its lowest Square
+	 */
+	public static long removeFirst(long bb) {
+		return bb & (bb - 1);
+	}
+
+	/**
+	 * Does the input bitboard have more than one Square set?
+	 * 
+	 * @param bb
+	 *            The bitboard to check
+	 * @return true if more than one Square is set
+	 */
+	public static boolean moreThanOne(long bb) {
+		return (bb & (bb - 1)) != 0;
+	}
+
+	/**
+	 * Forms a readable 8x8 representation of the input bitboard. Row 0 is
+	 * printed first to match Board.toString.
+	 * 
+	 * @param bb
+	 *            The bitboard to represent
+	 * @return A String representation of the input bitboard
+	 */
+	public static String toString(long bb) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < Board.NUM_ROWS; i++) {
+			for (int j = 0; j < Board.NUM_COLS; j++) {
+				sb.append(isSet(bb, Square.toNum(i, j)) ? '1' : '.');
+			}
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+}
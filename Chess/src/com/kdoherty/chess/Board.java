@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import com.kdoherty.engine.PieceSquare;
+
 /**
  * 
  * This class represents a ChessBoard using a 2D array of Pieces. An empty
@@ -11,7 +13,8 @@ import java.util.List;
  * lists containing all active Pieces for each color. This way we do not need to
  * iterate over all 64 squares to generate the Pieces of a certain color. It
  * keeps track of the side to move, the enPoissant Square if there is one, and
- * the Moves played.
+ * the Moves played. A bitboard Position is kept in sync with the Pieces so
+ * attack queries do not need to look at any Piece objects.
  * 
  * @author Kevin Doherty
  * 
@@ -43,12 +46,128 @@ public final class Board {
 	 */
 	private final List<Move> moveList;
 
+	/** Bitboard representation of the Pieces on this Board */
+	private final Position position;
+
 	/** The Color of whose turn it is */
 	private Color sideToMove = Color.WHITE;
 
 	/** Keeps track of the Square where a pawn can be captured by enPoissant */
 	private Square enPoissantSq;
 
+	/** Castling rights bit for white castling short */
+	public static final int WHITE_SHORT_CASTLE = 1;
+
+	/** Castling rights bit for white castling long */
+	public static final int WHITE_LONG_CASTLE = 2;
+
+	/** Castling rights bit for black castling short */
+	public static final int BLACK_SHORT_CASTLE = 4;
+
+	/** Castling rights bit for black castling long */
+	public static final int BLACK_LONG_CASTLE = 8;
+
+	/**
+	 * The Zobrist key of this Board. It is updated whenever a Piece is set or
+	 * removed, the enPoissant Square changes or the side to move changes.
+	 * Castling rights are derived from whether the Kings and Rooks have moved,
+	 * which the Board is not told about, so they are brought up to date when
+	 * the key is read.
+	 */
+	private long zobristKey;
+
+	/** The castling rights currently included in the Zobrist key */
+	private int keyCastlingRights;
+
+	/**
+	 * The Zobrist key of the Pawns alone. It is updated whenever a Pawn is
+	 * set or removed.
+	 */
+	private long pawnKey;
+
+	/**
+	 * The total starting value of the Pieces of each Color index. Updated
+	 * whenever a Piece is set or removed.
+	 */
+	private final int[] material = new int[2];
+
+	/**
+	 * The total middle game Square bonus of the Pieces of each Color index.
+	 * Updated whenever a Piece is set or removed.
+	 */
+	private final int[] middleGameValues = new int[2];
+
+	/**
+	 * The total end game Square bonus of the Pieces of each Color index.
+	 * Updated whenever a Piece is set or removed.
+	 */
+	private final int[] endGameValues = new int[2];
+
+	/**
+	 * The sum of the phase weights of all Pieces. Updated whenever a Piece is
+	 * set or removed.
+	 */
+	private int phase;
+
+	/** The most packed Moves which can be made on this Board at once */
+	public static final int MAX_UNDO = 256;
+
+	/** The packed Moves made by makeMove which have not been unmade */
+	private final int[] undoMoves = new int[MAX_UNDO];
+
+	/** The Piece captured by each packed Move made or null */
+	private final Piece[] undoTaken = new Piece[MAX_UNDO];
+
+	/** The Pawn removed by each promotion made */
+	private final Piece[] undoPawns = new Piece[MAX_UNDO];
+
+	/** The enPoissant Square before each packed Move made */
+	private final Square[] undoEnPoissantSqs = new Square[MAX_UNDO];
+
+	/**
+	 * Pieces created by promotions made at each undo index. They are off the
+	 * Board once the promotion is unmade so they can be reused.
+	 */
+	private final Piece[] promotedPieces = new Piece[MAX_UNDO];
+
+	/** The number of packed Moves made which have not been unmade */
+	private int undoCount;
+
+	/**
+	 * Whether a side is in check and whether it can move
+	 */
+	public enum Status {
+		/** The side to move is not in check and can move */
+		NORMAL,
+
+		/** The side to move is in check and can move */
+		CHECK,
+
+		/** The side to move is in check and can't move */
+		CHECKMATE,
+
+		/** The side to move is not in check and can't move */
+		STALEMATE;
+
+		/**
+		 * Is the game over?
+		 * 
+		 * @return true if this Status is either CHECKMATE or STALEMATE
+		 */
+		public boolean isGameOver() {
+			return this == CHECKMATE || this == STALEMATE;
+		}
+	}
+
+	/**
+	 * The Zobrist key each Status in statuses was found for, indexed by the
+	 * Color index of the side to move
+	 */
+	private final long[] statusKeys = new long[2];
+
+	/** The last Status found for each Color index, null if none was found */
+	private final Status[] statuses = new Status[2];
+
 	/**
 	 * Constructor for Board. Initially contains no Pieces.
 	 */
@@ -57,6 +176,7 @@ public final class Board {
 		whitePieces = new ArrayList<Piece>();
 		blackPieces = new ArrayList<Piece>();
 		moveList = new ArrayList<Move>();
+		position = new Position();
 	}
 
 	/**
@@ -72,6 +192,95 @@ public final class Board {
 		return board;
 	}
 
+	/**
+	 * Factory method for a Board described by a FEN String. Castling rights
+	 * are represented by marking the King's Rooks as moved when a right is
+	 * missing. The halfmove clock and fullmove number are ignored.
+	 * 
+	 * @param fen
+	 *            The Forsyth-Edwards Notation of the position
+	 * @return A Board with the Pieces, side to move, castling rights and
+	 *         enPoissant Square of the FEN
+	 */
+	public static Board fromFen(String fen) {
+		String[] fields = fen.trim().split("\\s+");
+		String[] rows = fields[0].split("/");
+		if (fields.length < 2 || rows.length != NUM_ROWS) {
+			throw new IllegalArgumentException("Invalid FEN: " + fen);
+		}
+		Board board = new Board();
+		for (int r = 0; r < NUM_ROWS; r++) {
+			int c = 0;
+			for (char ch : rows[r].toCharArray()) {
+				if (Character.isDigit(ch)) {
+					c += ch - '0';
+				} else if (c < NUM_COLS) {
+					board.setPiece(r, c++, pieceFromFen(ch, fen));
+				} else {
+					throw new IllegalArgumentException("Invalid FEN: " + fen);
+				}
+			}
+			if (c != NUM_COLS) {
+				throw new IllegalArgumentException("Invalid FEN: " + fen);
+			}
+		}
+
+		if (fields[1].equals("b")) {
+			board.toggleSideToMove();
+		} else if (!fields[1].equals("w")) {
+			throw new IllegalArgumentException("Invalid FEN: " + fen);
+		}
+
+		String castling = fields.length > 2 ? fields[2] : "-";
+		board.removeCastlingRight(castling, 'K', 7, 7);
+		board.removeCastlingRight(castling, 'Q', 7, 0);
+		board.removeCastlingRight(castling, 'k', 0, 7);
+		board.removeCastlingRight(castling, 'q', 0, 0);
+
+		if (fields.length > 3 && !fields[3].equals("-")) {
+			String ep = fields[3];
+			if (ep.length() != 2) {
+				throw new IllegalArgumentException("Invalid FEN: " + fen);
+			}
+			board.setEnPoissantSq(new Square(ep.charAt(0), ep.charAt(1) - '0'));
+		}
+		return board;
+	}
+
+	/**
+	 * Creates the Piece represented by a FEN character. Upper case is white.
+	 */
+	private static Piece pieceFromFen(char ch, String fen) {
+		Color color = Character.isUpperCase(ch) ? Color.WHITE : Color.BLACK;
+		switch (Character.toLowerCase(ch)) {
+		case 'p':
+			return new Pawn(color);
+		case 'n':
+			return new Knight(color);
+		case 'b':
+			return new Bishop(color);
+		case 'r':
+			return new Rook(color);
+		case 'q':
+			return new Queen(color);
+		case 'k':
+			return new King(color);
+		default:
+			throw new IllegalArgumentException("Invalid FEN: " + fen);
+		}
+	}
+
+	/**
+	 * Marks the Rook in the input corner as moved if the FEN castling field
+	 * does not contain the input right
+	 */
+	private void removeCastlingRight(String castling, char right, int r, int c) {
+		Piece rook = getOccupant(r, c);
+		if (castling.indexOf(right) == -1 && rook instanceof Rook) {
+			rook.incrementMoveCount();
+		}
+	}
+
 	/**
 	 * Are the input row and column on a chess board?
 	 * 
@@ -274,6 +483,12 @@ public final class Board {
 	public void setEnPoissantSq(Square enPoissantSq) {
 		if (enPoissantSq == null || enPoissantSq.row() == 2
 				|| enPoissantSq.row() == 5) {
+			if (this.enPoissantSq != null) {
+				zobristKey ^= Zobrist.enPoissant(this.enPoissantSq.col());
+			}
+			if (enPoissantSq != null) {
+				zobristKey ^= Zobrist.enPoissant(enPoissantSq.col());
+			}
 			this.enPoissantSq = enPoissantSq;
 		} else {
 			throw new RuntimeException("enPoissantSquare can't be set to "
@@ -281,6 +496,16 @@ public final class Board {
 		}
 	}
 
+	/**
+	 * Gets the bitboard Position backing this Board. It must not be modified
+	 * directly, all changes should go through setPiece and remove.
+	 * 
+	 * @return The bitboard Position of this Board
+	 */
+	public Position getPosition() {
+		return position;
+	}
+
 	/**
 	 * Gets the color of the side to move
 	 * 
@@ -296,6 +521,138 @@ public final class Board {
 	 */
 	public void toggleSideToMove() {
 		this.sideToMove = sideToMove.opp();
+		zobristKey ^= Zobrist.blackToMove();
+	}
+
+	/**
+	 * Gets the castling rights on this Board. A side has the right to castle
+	 * if its King and the Rook it would castle with are in their starting
+	 * Squares and have not moved. It does not matter whether castling is
+	 * currently possible.
+	 * 
+	 * @return A combination of the castling rights bits
+	 */
+	public int getCastlingRights() {
+		int rights = 0;
+		if (isUnmoved(7, 4, King.class, Color.WHITE)) {
+			if (isUnmoved(7, 7, Rook.class, Color.WHITE)) {
+				rights |= WHITE_SHORT_CASTLE;
+			}
+			if (isUnmoved(7, 0, Rook.class, Color.WHITE)) {
+				rights |= WHITE_LONG_CASTLE;
+			}
+		}
+		if (isUnmoved(0, 4, King.class, Color.BLACK)) {
+			if (isUnmoved(0, 7, Rook.class, Color.BLACK)) {
+				rights |= BLACK_SHORT_CASTLE;
+			}
+			if (isUnmoved(0, 0, Rook.class, Color.BLACK)) {
+				rights |= BLACK_LONG_CASTLE;
+			}
+		}
+		return rights;
+	}
+
+	/**
+	 * Is there a Piece of the input kind and Color which has not moved at
+	 * the input coordinate?
+	 */
+	private boolean isUnmoved(int r, int c, Class<? extends Piece> kind,
+			Color color) {
+		Piece piece = pieces[r][c];
+		return kind.isInstance(piece) && piece.getColor() == color
+				&& !piece.hasMoved();
+	}
+
+	/**
+	 * Gets the Zobrist key of this Board. Boards with the same Pieces on the
+	 * same Squares, castling rights, enPoissant Square and side to move have
+	 * the same key.
+	 * 
+	 * @return The 64 bit Zobrist key of this Board
+	 */
+	public long getZobristKey() {
+		int rights = getCastlingRights();
+		if (rights != keyCastlingRights) {
+			zobristKey ^= Zobrist.castling(keyCastlingRights)
+					^ Zobrist.castling(rights);
+			keyCastlingRights = rights;
+		}
+		return zobristKey;
+	}
+
+	/**
+	 * Gets the Zobrist key of the Pawns on this Board. Boards with the same
+	 * Pawns on the same Squares have the same Pawn key, whatever the other
+	 * Pieces are.
+	 * 
+	 * @return The 64 bit Zobrist key of the Pawns
+	 */
+	public long getPawnKey() {
+		return pawnKey;
+	}
+
+	/**
+	 * Gets the total starting value of the Pieces of the input Color. It is
+	 * kept up to date as Pieces are set and removed, so this is O(1).
+	 * 
+	 * @param color
+	 *            The Color of the Pieces
+	 * @return The material of the input Color
+	 */
+	public int getMaterial(Color color) {
+		return material[Position.index(color)];
+	}
+
+	/**
+	 * Gets the total middle game Square bonus of the Pieces of the input
+	 * Color. It is kept up to date as Pieces are set and removed, so this is
+	 * O(1).
+	 * 
+	 * @param color
+	 *            The Color of the Pieces
+	 * @return The middle game piece-square value of the input Color
+	 */
+	public int getMiddleGameValue(Color color) {
+		return middleGameValues[Position.index(color)];
+	}
+
+	/**
+	 * Gets the total end game Square bonus of the Pieces of the input Color.
+	 * It is kept up to date as Pieces are set and removed, so this is O(1).
+	 * 
+	 * @param color
+	 *            The Color of the Pieces
+	 * @return The end game piece-square value of the input Color
+	 */
+	public int getEndGameValue(Color color) {
+		return endGameValues[Position.index(color)];
+	}
+
+	/**
+	 * Gets the sum of the phase weights of the Pieces on this Board. It falls
+	 * as Pieces other than Pawns and Kings come off the Board. It is kept up
+	 * to date as Pieces are set and removed, so this is O(1).
+	 * 
+	 * @return The phase of the game
+	 */
+	public int getPhase() {
+		return phase;
+	}
+
+	/**
+	 * Gets the Zobrist key of this Board as if the input Color was to move.
+	 * Making a Move does not change the side to move, so the search uses this
+	 * to tell apart the same position with different sides to move.
+	 * 
+	 * @param toMove
+	 *            The Color to move
+	 * @return The 64 bit Zobrist key of this Board with the input Color to
+	 *         move
+	 */
+	public long getZobristKey(Color toMove) {
+		long key = getZobristKey();
+		return toMove == sideToMove ? key : key ^ Zobrist.blackToMove();
 	}
 
 	/**
@@ -402,6 +759,17 @@ public final class Board {
 			} else {
 				blackPieces.remove(removed);
 			}
+			int color = Position.index(removed.getColor());
+			int sq = Square.toNum(r, c);
+			int type = position.removePiece(sq);
+			zobristKey ^= Zobrist.piece(color, type, sq);
+			if (type == PieceType.PAWN) {
+				pawnKey ^= Zobrist.piece(color, type, sq);
+			}
+			material[color] -= PieceSquare.material(type);
+			middleGameValues[color] -= PieceSquare.middleGame(color, type, sq);
+			endGameValues[color] -= PieceSquare.endGame(color, type, sq);
+			phase -= PieceSquare.phase(type);
 		}
 		pieces[r][c] = null;
 		return removed;
@@ -433,6 +801,18 @@ public final class Board {
 		} else if (p.getColor() == Color.BLACK) {
 			blackPieces.add(p);
 		}
+		int color = Position.index(p.getColor());
+		int sq = Square.toNum(r, c);
+		int type = p.getType();
+		position.putPiece(color, type, sq);
+		zobristKey ^= Zobrist.piece(color, type, sq);
+		if (type == PieceType.PAWN) {
+			pawnKey ^= Zobrist.piece(color, type, sq);
+		}
+		material[color] += PieceSquare.material(type);
+		middleGameValues[color] += PieceSquare.middleGame(color, type, sq);
+		endGameValues[color] += PieceSquare.endGame(color, type, sq);
+		phase += PieceSquare.phase(type);
 		return removed;
 	}
 
@@ -507,7 +887,9 @@ public final class Board {
 	}
 
 	/**
-	 * Gets all moves of all Pieces of the input Color
+	 * Gets all legal moves of all Pieces of the input Color. The moves are
+	 * generated from the bitboard Position using pin and check masks so no
+	 * Move has to be made to test if it leaves the King in check.
 	 * 
 	 * @param color
 	 *            the Color of the Pieces whose moves we will return
@@ -515,16 +897,199 @@ public final class Board {
 	 * @return A List of all moves Pieces of the input Color can make
 	 */
 	public List<Move> getMoves(Color color) {
-		List<Move> moves = new ArrayList<>();
-		List<Move> pMoves;
-		List<Piece> pieces = getPieces(color);
-		for (Piece p : pieces) {
-			pMoves = p.getMoves(this);
-			if (!pMoves.isEmpty()) {
-				moves.addAll(pMoves);
+		return MoveGenerator.getLegalMoves(this, color);
+	}
+
+	/**
+	 * Gets all legal moves of the input Color which give check, either
+	 * directly or by discovering an attack on the opposing King. No Move is
+	 * made to find them.
+	 * 
+	 * @param color
+	 *            the Color of the Pieces whose checking moves we will return
+	 * 
+	 * @return A List of all checking moves Pieces of the input Color can make
+	 */
+	public List<Move> getChecks(Color color) {
+		return MoveGenerator.getLegalChecks(this, color);
+	}
+
+	/**
+	 * Creates a Move object from a packed Move. The Piece on the packed Move's
+	 * from Square must be the one which is moving.
+	 * 
+	 * @param move
+	 *            The packed Move
+	 * @return The Move the packed Move represents
+	 */
+	public Move toMove(int move) {
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		Piece piece = getOccupant(Bitboard.row(from), Bitboard.col(from));
+		return new Move(this, piece, Bitboard.row(to), Bitboard.col(to),
+				PackedMove.type(move));
+	}
+
+	/**
+	 * Makes a packed Move on this Board. This does the same thing as
+	 * Move.make but does not allocate, so it is used by the search. Like
+	 * Move.make it does not change the side to move.
+	 * 
+	 * @param move
+	 *            The legal packed Move to make
+	 */
+	public void makeMove(int move) {
+		if (undoCount == MAX_UNDO) {
+			throw new IllegalStateException("Too many packed Moves made");
+		}
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		int fromRow = Bitboard.row(from);
+		int fromCol = Bitboard.col(from);
+		int toRow = Bitboard.row(to);
+		int toCol = Bitboard.col(to);
+		Piece piece = getOccupant(fromRow, fromCol);
+		Piece taken = null;
+		Square nextEnPoissantSq = null;
+
+		switch (PackedMove.type(move)) {
+		case NORMAL:
+			taken = movePiece(fromRow, fromCol, toRow, toCol);
+			if (piece.getType() == PieceType.PAWN
+					&& Math.abs(toRow - fromRow) == 2) {
+				nextEnPoissantSq = Square.valueOf((from + to) / 2);
 			}
+			break;
+		case EN_POISSANT:
+			taken = remove(fromRow, toCol);
+			movePiece(fromRow, fromCol, toRow, toCol);
+			break;
+		case PROMOTION_QUEEN:
+		case PROMOTION_KNIGHT:
+			taken = remove(toRow, toCol);
+			remove(fromRow, fromCol);
+			undoPawns[undoCount] = piece;
+			setPiece(toRow, toCol, getPromotedPiece(move, piece.getColor()));
+			break;
+		default:
+			boolean shortCastle = toCol == 6;
+			int rookFrom = shortCastle ? 7 : 0;
+			int rookTo = shortCastle ? 5 : 3;
+			movePiece(fromRow, fromCol, toRow, toCol);
+			movePiece(fromRow, rookFrom, fromRow, rookTo);
+			getOccupant(fromRow, rookTo).incrementMoveCount();
+			((King) piece).setHasCastled(true);
 		}
-		return moves;
+		piece.incrementMoveCount();
+
+		undoMoves[undoCount] = move;
+		undoTaken[undoCount] = taken;
+		undoEnPoissantSqs[undoCount] = enPoissantSq;
+		undoCount++;
+		setEnPoissantSq(nextEnPoissantSq);
+	}
+
+	/**
+	 * Takes back the last packed Move made by makeMove
+	 */
+	public void unmakeMove() {
+		if (undoCount == 0) {
+			throw new IllegalStateException("No packed Move to unmake");
+		}
+		undoCount--;
+		int move = undoMoves[undoCount];
+		Piece taken = undoTaken[undoCount];
+		undoTaken[undoCount] = null;
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		int fromRow = Bitboard.row(from);
+		int fromCol = Bitboard.col(from);
+		int toRow = Bitboard.row(to);
+		int toCol = Bitboard.col(to);
+
+		switch (PackedMove.type(move)) {
+		case NORMAL:
+			movePiece(toRow, toCol, fromRow, fromCol);
+			getOccupant(fromRow, fromCol).decrementMoveCount();
+			if (taken != null) {
+				setPiece(toRow, toCol, taken);
+			}
+			break;
+		case EN_POISSANT:
+			movePiece(toRow, toCol, fromRow, fromCol);
+			getOccupant(fromRow, fromCol).decrementMoveCount();
+			setPiece(fromRow, toCol, taken);
+			break;
+		case PROMOTION_QUEEN:
+		case PROMOTION_KNIGHT:
+			remove(toRow, toCol);
+			Piece pawn = undoPawns[undoCount];
+			undoPawns[undoCount] = null;
+			pawn.decrementMoveCount();
+			setPiece(fromRow, fromCol, pawn);
+			if (taken != null) {
+				setPiece(toRow, toCol, taken);
+			}
+			break;
+		default:
+			boolean shortCastle = toCol == 6;
+			int rookFrom = shortCastle ? 7 : 0;
+			int rookTo = shortCastle ? 5 : 3;
+			movePiece(toRow, toCol, fromRow, fromCol);
+			movePiece(fromRow, rookTo, fromRow, rookFrom);
+			getOccupant(fromRow, rookFrom).decrementMoveCount();
+			King king = (King) getOccupant(fromRow, fromCol);
+			king.decrementMoveCount();
+			king.setHasCastled(false);
+		}
+		setEnPoissantSq(undoEnPoissantSqs[undoCount]);
+		undoEnPoissantSqs[undoCount] = null;
+	}
+
+	/**
+	 * Passes the turn without moving a Piece, which the search uses to test
+	 * if a position is so good the opponent could move twice in a row and
+	 * still not catch up. Only the enPoissant Square changes since a Pawn can
+	 * only be taken en poissant right after it moved.
+	 */
+	public void makeNullMove() {
+		if (undoCount == MAX_UNDO) {
+			throw new IllegalStateException("Too many packed Moves made");
+		}
+		undoMoves[undoCount] = PackedMove.NONE;
+		undoEnPoissantSqs[undoCount] = enPoissantSq;
+		undoCount++;
+		setEnPoissantSq(null);
+	}
+
+	/**
+	 * Takes back the last null Move made by makeNullMove
+	 */
+	public void unmakeNullMove() {
+		if (undoCount == 0 || undoMoves[undoCount - 1] != PackedMove.NONE) {
+			throw new IllegalStateException("No null Move to unmake");
+		}
+		undoCount--;
+		setEnPoissantSq(undoEnPoissantSqs[undoCount]);
+		undoEnPoissantSqs[undoCount] = null;
+	}
+
+	/**
+	 * Gets the Piece a Pawn promotes to for the packed Move being made,
+	 * reusing the Piece created the last time a promotion was made at the
+	 * same undo index if it is of the right kind
+	 */
+	private Piece getPromotedPiece(int move, Color color) {
+		int type = PackedMove.type(move) == Move.Type.PROMOTION_KNIGHT
+				? PieceType.KNIGHT : PieceType.QUEEN;
+		Piece promoted = promotedPieces[undoCount];
+		if (promoted == null || promoted.getType() != type
+				|| promoted.getColor() != color) {
+			promoted = type == PieceType.KNIGHT ? new Knight(color)
+					: new Queen(color);
+			promotedPieces[undoCount] = promoted;
+		}
+		return promoted;
 	}
 
 	/**
@@ -541,15 +1106,14 @@ public final class Board {
 	 *            square
 	 * 
 	 * @return true if the input square is attacked by a piece of the input
-	 *         color
+	 *         color. A square occupied by a piece of the input color is not
+	 *         considered attacked.
 	 */
 	public boolean isAttacked(int r, int c, Color color) {
-		for (Piece p : getPieces(color)) {
-			if (p.isAttacking(this, r, c)) {
-				return true;
-			}
-		}
-		return false;
+		int sq = Square.toNum(r, c);
+		int colorIndex = Position.index(color);
+		return position.getColor(sq) != colorIndex
+				&& position.isAttacked(sq, colorIndex);
 	}
 
 	/**
@@ -562,13 +1126,12 @@ public final class Board {
 	 *         not a King of the input color on this Board
 	 */
 	public King findKing(Color color) {
-		for (Piece piece : getPieces(color)) {
-			if (piece instanceof King) {
-				return (King) piece;
-			}
+		int kingSq = position.getKingSquare(Position.index(color));
+		if (kingSq == Position.NO_SQUARE) {
+			throw new IllegalStateException("The " + color
+					+ " King is not on the Board");
 		}
-		throw new IllegalStateException("The " + color
-				+ " King is not on the Board");
+		return (King) pieces[Bitboard.row(kingSq)][Bitboard.col(kingSq)];
 	}
 
 	/**
@@ -580,7 +1143,13 @@ public final class Board {
 	 * @return true if the input Color's King is in check
 	 */
 	public boolean kingInCheck(Color color) {
-		return findKing(color).isInCheck(this);
+		int colorIndex = Position.index(color);
+		int kingSq = position.getKingSquare(colorIndex);
+		if (kingSq == Position.NO_SQUARE) {
+			throw new IllegalStateException("The " + color
+					+ " King is not on the Board");
+		}
+		return position.isAttacked(kingSq, colorIndex ^ 1);
 	}
 
 	/**
@@ -592,7 +1161,7 @@ public final class Board {
 	 * @return true if the input color is in checkMate
 	 */
 	public boolean isCheckMate(Color color) {
-		return kingInCheck(color) && getMoves(color).isEmpty();
+		return getStatus(color) == Status.CHECKMATE;
 	}
 
 	/**
@@ -604,7 +1173,7 @@ public final class Board {
 	 * @return true if the input color is causing a draw
 	 */
 	public boolean isDraw(Color color) {
-		return !kingInCheck(color) && getMoves(color).isEmpty();
+		return getStatus(color) == Status.STALEMATE;
 	}
 
 	/**
@@ -615,8 +1184,34 @@ public final class Board {
 	 * @return true if the game is over
 	 */
 	public boolean isGameOver() {
-		return isCheckMate(Color.WHITE) || isCheckMate(Color.BLACK)
-				|| isDraw(Color.WHITE) || isDraw(Color.BLACK);
+		return getStatus(Color.WHITE).isGameOver()
+				|| getStatus(Color.BLACK).isGameOver();
+	}
+
+	/**
+	 * Gets whether the input color is in check and whether it can move. The
+	 * Status of the last position asked about is kept for each color, so
+	 * asking about the same position again costs only a key comparison.
+	 * Finding it stops at the first legal move, so no moves are generated.
+	 * 
+	 * @param color
+	 *            The color to get the Status of
+	 * 
+	 * @return The Status of the input color
+	 */
+	public Status getStatus(Color color) {
+		int index = Position.index(color);
+		long key = getZobristKey(color);
+		if (statuses[index] == null || statusKeys[index] != key) {
+			boolean inCheck = kingInCheck(color);
+			if (MoveGenerator.hasLegalMove(this, color)) {
+				statuses[index] = inCheck ? Status.CHECK : Status.NORMAL;
+			} else {
+				statuses[index] = inCheck ? Status.CHECKMATE : Status.STALEMATE;
+			}
+			statusKeys[index] = key;
+		}
+		return statuses[index];
 	}
 
 	/**
@@ -666,21 +1261,16 @@ public final class Board {
 
 	/**
 	 * Generates an integer representation of this Board. This will return the
-	 * same number for equal Boards.
+	 * same number for equal Boards. It is taken from the Zobrist key so
+	 * nothing has to be hashed.
 	 * 
 	 * 
 	 * @return An integer representation of this Board
 	 */
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + Arrays.deepHashCode(pieces);
-		result = prime * result + ((blackPieces == null) ? 0 : Arrays.deepHashCode(blackPieces.toArray()));
-		result = prime * result + ((whitePieces == null) ? 0 : Arrays.deepHashCode(whitePieces.toArray()));
-		result = prime * result + ((enPoissantSq == null) ? 0 : enPoissantSq.hashCode());
-		result = prime * result + ((sideToMove == null) ? 0 : sideToMove.hashCode());
-		return result;
+		long key = getZobristKey();
+		return (int) (key ^ (key >>> 32));
 	}
 
 	/**
@@ -741,8 +1331,10 @@ public final class Board {
 			}
 		}
 
-		clone.enPoissantSq = enPoissantSq;
-		clone.sideToMove = sideToMove;
+		clone.setEnPoissantSq(enPoissantSq);
+		if (clone.sideToMove != sideToMove) {
+			clone.toggleSideToMove();
+		}
 		clone.moveList.addAll(moveList);
 
 		return clone;
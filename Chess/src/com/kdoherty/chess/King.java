@@ -304,6 +304,11 @@ public final class King extends Piece {
 		return KingEval.START_VALUE;
 	}
 
+	@Override
+	public int getType() {
+		return PieceType.KING;
+	}
+
 	@Override
 	public Piece clone() {
 		King clone = new King(color);
@@ -55,7 +55,7 @@ public final class Knight extends Piece {
 	 */
 	public boolean canMove(Board b, int r, int c, boolean testCheck) {
 		return Board.isInbounds(r, c) && (b.isEmpty(r, c) || isTaking(b, r, c))
-				&& getPossibleSqs().contains(new Square(r, c))
+				&& isKnightMove(r, c)
 				&& (!testCheck || !stillInCheck(b, r, c));
 	}
 
@@ -77,8 +77,22 @@ public final class Knight extends Piece {
 	 */
 	public boolean isDefending(Board b, int r, int c) {
 		return Board.isInbounds(r, c) && !isTaking(b, r, c)
-				&& getPossibleSqs().contains(new Square(r, c))
-				&& !stillInCheck(b, r, c);
+				&& isKnightMove(r, c) && !stillInCheck(b, r, c);
+	}
+
+	/**
+	 * Is the input coordinate one Knight move away from this Knight? Does not
+	 * check if the coordinate is inbounds.
+	 * 
+	 * @param r
+	 *            The row coordinate
+	 * @param c
+	 *            The column coordinate
+	 * @return true if a Knight could jump from its Square to the coordinate
+	 */
+	private boolean isKnightMove(int r, int c) {
+		return Bitboard.isSet(Attacks.knight(Square.toNum(row, col)),
+				Square.toNum(r, c));
 	}
 
 	/**
@@ -149,6 +163,11 @@ public final class Knight extends Piece {
 		return KnightEval.START_VALUE;
 	}
 
+	@Override
+	public int getType() {
+		return PieceType.KNIGHT;
+	}
+
 	@Override
 	public Piece clone() {
 		Knight clone = new Knight(color);
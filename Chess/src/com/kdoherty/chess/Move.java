@@ -223,7 +223,6 @@ public final class Move {
 			if (taken != null) {
 				board.setPiece(row, col, taken);
 			}
-			board.setEnPoissantSq(enPoissantSq);
 			break;
 		case PROMOTION_KNIGHT:
 			// Fall though because unmake is handled in the same way for both promotion types
@@ -241,11 +240,11 @@ public final class Move {
 			board.setPiece(startingRow, startingCol, piece);
 			int direction = piece.getColor() == Color.WHITE ? 1 : -1;
 			board.setPiece(row + direction, col, taken);
-			board.setEnPoissantSq(enPoissantSq);
 			break;
 		default:
 			undoCastling();
 		}
+		board.setEnPoissantSq(enPoissantSq);
 	}
 
 	private void undoCastling() {
@@ -0,0 +1,694 @@
+package com.kdoherty.chess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates legal Moves from the bitboard Position of a Board. Instead of
+ * making every candidate Move and checking if the King is left in check, the
+ * Pieces giving check and the Pieces pinned to the King are found once per
+ * position. Each Piece's targets are then filtered with bitmasks:
+ * 
+ * 1. When in check by one Piece, only Moves capturing the checker or blocking
+ * between it and the King are allowed. When in double check only the King can
+ * move.
+ * 
+ * 2. A pinned Piece can only move along the line between its King and the
+ * pinning Piece.
+ * 
+ * 3. The King can only move to Squares which are not attacked once the King
+ * itself is removed from the Board, so it can't step backwards along the line
+ * of a checking slider.
+ * 
+ * En poissant is the only Move which can remove two Pieces from the same line,
+ * so it is checked separately by looking at the attacks on the King with the
+ * resulting occupancy.
+ * 
+ * Moves are written as packed ints (see PackedMove) into a caller supplied
+ * array so the search can reuse one array per ply without allocating.
+ * 
+ * Checking Moves are found the same way without making them. A Move gives
+ * check directly if the moved Piece attacks the enemy King from its target
+ * Square, and gives a discovered check if it moves off the line between the
+ * enemy King and one of our sliders.
+ * 
+ * @author Kevin Doherty
+ * 
+ */
+public final class MoveGenerator {
+
+	private MoveGenerator() {
+		// Hide constructor
+	}
+
+	/** More than the maximum number of legal Moves in any position */
+	public static final int MAX_MOVES = 256;
+
+	/**
+	 * Generates all legal Moves of the input Color on the input Board
+	 * 
+	 * @param board
+	 *            The Board to generate Moves on
+	 * @param color
+	 *            The Color to generate Moves for
+	 * @return All legal Moves of the input Color
+	 */
+	public static List<Move> getLegalMoves(Board board, Color color) {
+		int[] packed = new int[MAX_MOVES];
+		int count = generateMoves(board, color, packed);
+		List<Move> moves = new ArrayList<Move>(count);
+		for (int i = 0; i < count; i++) {
+			moves.add(board.toMove(packed[i]));
+		}
+		return moves;
+	}
+
+	/**
+	 * Generates all legal Moves of the input Color on the input Board as
+	 * packed Moves
+	 * 
+	 * @param board
+	 *            The Board to generate Moves on
+	 * @param color
+	 *            The Color to generate Moves for
+	 * @param moves
+	 *            The array to write the packed Moves into starting at index 0.
+	 *            Must have room for MAX_MOVES Moves.
+	 * @return The number of Moves written
+	 */
+	public static int generateMoves(Board board, Color color, int[] moves) {
+		return generate(board, color, moves, false);
+	}
+
+	/**
+	 * Generates the legal captures and promotions of the input Color on the
+	 * input Board as packed Moves. These are the Moves which change the
+	 * material balance, which is all the quiescence search looks at.
+	 * 
+	 * @param board
+	 *            The Board to generate Moves on
+	 * @param color
+	 *            The Color to generate Moves for
+	 * @param moves
+	 *            The array to write the packed Moves into starting at index 0.
+	 *            Must have room for MAX_MOVES Moves.
+	 * @return The number of Moves written
+	 */
+	public static int generateCaptures(Board board, Color color, int[] moves) {
+		return generate(board, color, moves, true);
+	}
+
+	/**
+	 * Generates all legal Moves of the input Color on the input Board which
+	 * give check
+	 * 
+	 * @param board
+	 *            The Board to generate Moves on
+	 * @param color
+	 *            The Color to generate Moves for
+	 * @return All legal checking Moves of the input Color
+	 */
+	public static List<Move> getLegalChecks(Board board, Color color) {
+		int[] packed = new int[MAX_MOVES];
+		int count = generateChecks(board, color, packed);
+		List<Move> moves = new ArrayList<Move>(count);
+		for (int i = 0; i < count; i++) {
+			moves.add(board.toMove(packed[i]));
+		}
+		return moves;
+	}
+
+	/**
+	 * Generates the legal Moves of the input Color on the input Board which
+	 * give check, either directly or by discovering an attack on the enemy
+	 * King. Only these Moves can checkmate, so a mate search can skip all
+	 * others on the last Move. No Move is made to test it.
+	 * 
+	 * @param board
+	 *            The Board to generate Moves on
+	 * @param color
+	 *            The Color to generate Moves for
+	 * @param moves
+	 *            The array to write the packed Moves into starting at index 0.
+	 *            Must have room for MAX_MOVES Moves.
+	 * @return The number of Moves written
+	 */
+	public static int generateChecks(Board board, Color color, int[] moves) {
+		int count = generate(board, color, moves, false);
+		Position pos = board.getPosition();
+		int us = Position.index(color);
+		int enemyKingSq = pos.getKingSquare(us ^ 1);
+		if (enemyKingSq == Position.NO_SQUARE) {
+			return 0;
+		}
+		long discoverers = getBlockers(pos, enemyKingSq, us, us);
+		int checks = 0;
+		for (int i = 0; i < count; i++) {
+			if (givesCheck(pos, moves[i], us, enemyKingSq, discoverers)) {
+				moves[checks++] = moves[i];
+			}
+		}
+		return checks;
+	}
+
+	/**
+	 * Does the input legal packed Move give check? The Move is not made.
+	 * 
+	 * @param board
+	 *            The Board the Move is played on
+	 * @param move
+	 *            The packed Move
+	 * @return true if the enemy King is in check after the Move
+	 */
+	public static boolean givesCheck(Board board, int move) {
+		Position pos = board.getPosition();
+		int us = pos.getColor(PackedMove.from(move));
+		int enemyKingSq = pos.getKingSquare(us ^ 1);
+		return enemyKingSq != Position.NO_SQUARE
+				&& givesCheck(pos, move, us, enemyKingSq, getBlockers(pos,
+						enemyKingSq, us, us));
+	}
+
+	/**
+	 * Does the input packed Move of the input Color index give check?
+	 * 
+	 * @param pos
+	 *            The Position before the Move
+	 * @param move
+	 *            The packed Move
+	 * @param us
+	 *            The Color index of the moving side
+	 * @param enemyKingSq
+	 *            The Square of the King which may be checked
+	 * @param discoverers
+	 *            Our Pieces which block an attack by one of our sliders on
+	 *            the enemy King
+	 * @return true if the Move gives check
+	 */
+	private static boolean givesCheck(Position pos, int move, int us,
+			int enemyKingSq, long discoverers) {
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		Move.Type type = PackedMove.type(move);
+		long occupied = pos.getOccupied();
+
+		if (type.isCastling()) {
+			// Only the Rook can give check
+			boolean kingSide = to > from;
+			int rookFrom = kingSide ? from + 3 : from - 4;
+			int rookTo = kingSide ? from + 1 : from - 1;
+			long after = occupied ^ Bitboard.bit(from) ^ Bitboard.bit(to)
+					^ Bitboard.bit(rookFrom) ^ Bitboard.bit(rookTo);
+			return Bitboard.isSet(Attacks.rook(rookTo, after), enemyKingSq);
+		}
+		if (type == Move.Type.EN_POISSANT) {
+			// Two Pieces leave their Squares, so look at the whole Position
+			int capturedSq = us == Position.WHITE ? to + Board.NUM_COLS : to
+					- Board.NUM_COLS;
+			long after = (occupied ^ Bitboard.bit(from) ^ Bitboard
+					.bit(capturedSq)) | Bitboard.bit(to);
+			return Bitboard.isSet(Attacks.pawn(us, to), enemyKingSq)
+					|| (pos.attackersTo(enemyKingSq, us, after) & ~Bitboard
+							.bit(from)) != 0;
+		}
+		if (Bitboard.isSet(discoverers, from)
+				&& !Bitboard.isSet(Attacks.line(enemyKingSq, from), to)) {
+			return true;
+		}
+
+		int piece = PackedMove.piece(move);
+		if (type == Move.Type.PROMOTION_QUEEN) {
+			piece = PieceType.QUEEN;
+		} else if (type == Move.Type.PROMOTION_KNIGHT) {
+			piece = PieceType.KNIGHT;
+		}
+		long after = (occupied ^ Bitboard.bit(from)) | Bitboard.bit(to);
+		switch (piece) {
+		case PieceType.PAWN:
+			return Bitboard.isSet(Attacks.pawn(us, to), enemyKingSq);
+		case PieceType.KNIGHT:
+			return Bitboard.isSet(Attacks.knight(to), enemyKingSq);
+		case PieceType.KING:
+			return false;
+		default:
+			return Bitboard.isSet(getSliderAttacks(piece, to, after),
+					enemyKingSq);
+		}
+	}
+
+	/**
+	 * Does the input Color have any legal Move? This stops at the first legal
+	 * Move found and writes no Moves, so it is much cheaper than generating
+	 * them all. In check only King evasions and Moves which capture or block
+	 * the single checker are looked at, King evasions first.
+	 * 
+	 * @param board
+	 *            The Board to look for Moves on
+	 * @param color
+	 *            The Color to look for Moves of
+	 * @return true if the input Color has a legal Move
+	 */
+	public static boolean hasLegalMove(Board board, Color color) {
+		Position pos = board.getPosition();
+		int us = Position.index(color);
+		int them = us ^ 1;
+		long targetMask = ~pos.getPieces(us);
+		long occupied = pos.getOccupied();
+		int kingSq = pos.getKingSquare(us);
+
+		long checkers = 0;
+		long pinned = 0;
+		long checkMask = Bitboard.ALL;
+		if (kingSq != Position.NO_SQUARE) {
+			checkers = pos.attackersTo(kingSq, them);
+			if (checkers != 0) {
+				if (hasKingMove(pos, kingSq, us, targetMask)) {
+					return true;
+				}
+				if (Bitboard.moreThanOne(checkers)) {
+					return false;
+				}
+				checkMask = checkers
+						| Attacks.between(kingSq, Bitboard.first(checkers));
+			}
+			pinned = getPinned(pos, kingSq, us);
+		}
+
+		long knights = pos.getPieces(us, PieceType.KNIGHT) & ~pinned;
+		while (knights != 0) {
+			int from = Bitboard.first(knights);
+			knights = Bitboard.removeFirst(knights);
+			if ((Attacks.knight(from) & targetMask & checkMask) != 0) {
+				return true;
+			}
+		}
+
+		for (int type = PieceType.BISHOP; type <= PieceType.QUEEN; type++) {
+			long sliders = pos.getPieces(us, type);
+			while (sliders != 0) {
+				int from = Bitboard.first(sliders);
+				sliders = Bitboard.removeFirst(sliders);
+				long targets = getSliderAttacks(type, from, occupied)
+						& targetMask & checkMask;
+				if (Bitboard.isSet(pinned, from)) {
+					targets &= Attacks.line(kingSq, from);
+				}
+				if (targets != 0) {
+					return true;
+				}
+			}
+		}
+
+		if (hasPawnMove(board, us, kingSq, checkMask, pinned)) {
+			return true;
+		}
+		// Castling is never the only legal Move, the King could step instead
+		return checkers == 0 && kingSq != Position.NO_SQUARE
+				&& hasKingMove(pos, kingSq, us, targetMask);
+	}
+
+	/**
+	 * Can the King on the input Square step to a Square which is not
+	 * attacked?
+	 */
+	private static boolean hasKingMove(Position pos, int kingSq, int us,
+			long targetMask) {
+		int them = us ^ 1;
+		long occupiedWithoutKing = pos.getOccupied() ^ Bitboard.bit(kingSq);
+		long targets = Attacks.king(kingSq) & targetMask;
+		while (targets != 0) {
+			int to = Bitboard.first(targets);
+			targets = Bitboard.removeFirst(targets);
+			if (pos.attackersTo(to, them, occupiedWithoutKing) == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Can any Pawn of the input Color index push, capture or capture en
+	 * poissant?
+	 */
+	private static boolean hasPawnMove(Board board, int us, int kingSq,
+			long checkMask, long pinned) {
+		Position pos = board.getPosition();
+		long occupied = pos.getOccupied();
+		long enemy = pos.getPieces(us ^ 1);
+		int forward = us == Position.WHITE ? -Board.NUM_COLS : Board.NUM_COLS;
+		int homeRow = us == Position.WHITE ? 6 : 1;
+
+		long pawns = pos.getPieces(us, PieceType.PAWN);
+		while (pawns != 0) {
+			int from = Bitboard.first(pawns);
+			pawns = Bitboard.removeFirst(pawns);
+			long allowed = checkMask;
+			if (Bitboard.isSet(pinned, from)) {
+				allowed &= Attacks.line(kingSq, from);
+			}
+			if ((Attacks.pawn(us, from) & enemy & allowed) != 0) {
+				return true;
+			}
+			int oneAhead = from + forward;
+			if (!Bitboard.isSet(occupied, oneAhead)) {
+				if (Bitboard.isSet(allowed, oneAhead)) {
+					return true;
+				}
+				int twoAhead = oneAhead + forward;
+				if (Bitboard.row(from) == homeRow
+						&& !Bitboard.isSet(occupied, twoAhead)
+						&& Bitboard.isSet(allowed, twoAhead)) {
+					return true;
+				}
+			}
+		}
+
+		// At most two Pawns can capture en poissant
+		return board.getEnPoissantSq() != null
+				&& generateEnPoissantMoves(board, new int[2], 0, us, kingSq) != 0;
+	}
+
+	/**
+	 * Generates either all legal Moves or only the captures and promotions
+	 */
+	private static int generate(Board board, Color color, int[] moves,
+			boolean capturesOnly) {
+		Position pos = board.getPosition();
+		int us = Position.index(color);
+		int them = us ^ 1;
+		long own = pos.getPieces(us);
+		long occupied = pos.getOccupied();
+		long targetMask = capturesOnly ? pos.getPieces(them) : ~own;
+		int kingSq = pos.getKingSquare(us);
+		int count = 0;
+
+		long checkers = 0;
+		long pinned = 0;
+		long checkMask = Bitboard.ALL;
+		if (kingSq != Position.NO_SQUARE) {
+			checkers = pos.attackersTo(kingSq, them);
+			pinned = getPinned(pos, kingSq, us);
+			count = generateKingMoves(board, moves, count, kingSq, us,
+					targetMask, checkers == 0 && !capturesOnly);
+			if (Bitboard.moreThanOne(checkers)) {
+				// Double check, only the King can move
+				return count;
+			}
+			if (checkers != 0) {
+				checkMask = checkers
+						| Attacks.between(kingSq, Bitboard.first(checkers));
+			}
+		}
+
+		count = generatePawnMoves(board, moves, count, us, kingSq, checkMask,
+				pinned, capturesOnly);
+
+		// A pinned Knight can never move
+		long knights = pos.getPieces(us, PieceType.KNIGHT) & ~pinned;
+		while (knights != 0) {
+			int from = Bitboard.first(knights);
+			knights = Bitboard.removeFirst(knights);
+			count = addMoves(pos, moves, count, from, Attacks.knight(from)
+					& targetMask & checkMask);
+		}
+
+		for (int type = PieceType.BISHOP; type <= PieceType.QUEEN; type++) {
+			long sliders = pos.getPieces(us, type);
+			while (sliders != 0) {
+				int from = Bitboard.first(sliders);
+				sliders = Bitboard.removeFirst(sliders);
+				long targets = getSliderAttacks(type, from, occupied)
+						& targetMask & checkMask;
+				if (Bitboard.isSet(pinned, from)) {
+					targets &= Attacks.line(kingSq, from);
+				}
+				count = addMoves(pos, moves, count, from, targets);
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Finds all Pieces of the input Color which are pinned to their King
+	 * 
+	 * @param pos
+	 *            The Position to look for pins on
+	 * @param kingSq
+	 *            The Square of the King of the input Color
+	 * @param us
+	 *            The Color index of the King
+	 * @return A bitboard of all Pieces pinned to the King
+	 */
+	static long getPinned(Position pos, int kingSq, int us) {
+		return getBlockers(pos, kingSq, us ^ 1, us);
+	}
+
+	/**
+	 * Finds the Pieces which are the only Piece between the King on the input
+	 * Square and a slider which would attack it on an empty Board. Moving one
+	 * off that line uncovers an attack on the King.
+	 * 
+	 * @param pos
+	 *            The Position to look on
+	 * @param kingSq
+	 *            The Square of the King
+	 * @param sliders
+	 *            The Color index of the sliders
+	 * @param blockers
+	 *            The Color index of the blocking Pieces to find
+	 * @return A bitboard of the blocking Pieces. These are pinned if the
+	 *         sliders are the King's enemies, or give a discovered check
+	 *         when they move if the sliders are on their side.
+	 */
+	private static long getBlockers(Position pos, int kingSq, int sliders,
+			int blockers) {
+		long occupied = pos.getOccupied();
+		long queens = pos.getPieces(sliders, PieceType.QUEEN);
+		// Sliders which would attack the King on an empty Board
+		long snipers = (Attacks.rook(kingSq, 0) & (pos.getPieces(sliders,
+				PieceType.ROOK) | queens))
+				| (Attacks.bishop(kingSq, 0) & (pos.getPieces(sliders,
+						PieceType.BISHOP) | queens));
+		long found = 0;
+		while (snipers != 0) {
+			int sniperSq = Bitboard.first(snipers);
+			snipers = Bitboard.removeFirst(snipers);
+			long between = Attacks.between(kingSq, sniperSq) & occupied;
+			if (between != 0 && !Bitboard.moreThanOne(between)) {
+				found |= between & pos.getPieces(blockers);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Gets the attacks of a sliding Piece of the input type
+	 */
+	private static long getSliderAttacks(int type, int sq, long occupied) {
+		switch (type) {
+		case PieceType.BISHOP:
+			return Attacks.bishop(sq, occupied);
+		case PieceType.ROOK:
+			return Attacks.rook(sq, occupied);
+		default:
+			return Attacks.queen(sq, occupied);
+		}
+	}
+
+	/**
+	 * Adds King Moves to target Squares which would not be attacked, and
+	 * castling Moves if they are allowed
+	 */
+	private static int generateKingMoves(Board board, int[] moves,
+			int count, int kingSq, int us, long targetMask, boolean canCastle) {
+		Position pos = board.getPosition();
+		int them = us ^ 1;
+		long occupiedWithoutKing = pos.getOccupied() ^ Bitboard.bit(kingSq);
+		long targets = Attacks.king(kingSq) & targetMask;
+		while (targets != 0) {
+			int to = Bitboard.first(targets);
+			targets = Bitboard.removeFirst(targets);
+			if (pos.attackersTo(to, them, occupiedWithoutKing) == 0) {
+				moves[count++] = pack(pos, kingSq, to, Move.Type.NORMAL);
+			}
+		}
+		if (canCastle) {
+			count = generateCastlingMoves(board, moves, count, kingSq, us);
+		}
+		return count;
+	}
+
+	/**
+	 * Adds the castling Moves of the King on the input Square. The King must
+	 * not be in check when this is called. A King can castle if neither it
+	 * nor the Rook have moved, the Squares between them are empty, and the
+	 * King does not pass through or land on an attacked Square.
+	 */
+	private static int generateCastlingMoves(Board board, int[] moves,
+			int count, int kingSq, int us) {
+		int homeRow = us == Position.WHITE ? 7 : 0;
+		if (kingSq != Square.toNum(homeRow, 4)
+				|| board.getOccupant(homeRow, 4).hasMoved()) {
+			return count;
+		}
+		Position pos = board.getPosition();
+		int them = us ^ 1;
+		long occupied = pos.getOccupied();
+		boolean white = us == Position.WHITE;
+
+		if (isUnmovedRook(board, homeRow, 7, us)
+				&& (occupied & Attacks.between(kingSq, kingSq + 3)) == 0
+				&& !pos.isAttacked(kingSq + 1, them)
+				&& !pos.isAttacked(kingSq + 2, them)) {
+			moves[count++] = pack(pos, kingSq, kingSq + 2,
+					white ? Move.Type.WHITE_SHORT : Move.Type.BLACK_SHORT);
+		}
+		if (isUnmovedRook(board, homeRow, 0, us)
+				&& (occupied & Attacks.between(kingSq, kingSq - 4)) == 0
+				&& !pos.isAttacked(kingSq - 1, them)
+				&& !pos.isAttacked(kingSq - 2, them)) {
+			moves[count++] = pack(pos, kingSq, kingSq - 2,
+					white ? Move.Type.WHITE_LONG : Move.Type.BLACK_LONG);
+		}
+		return count;
+	}
+
+	/**
+	 * Is there a Rook of the input Color which has not moved on the input
+	 * coordinate?
+	 */
+	private static boolean isUnmovedRook(Board board, int r, int c, int us) {
+		Piece rook = board.getOccupant(r, c);
+		return rook instanceof Rook
+				&& Position.index(rook.getColor()) == us && !rook.hasMoved();
+	}
+
+	/**
+	 * Adds all Pawn pushes, captures, promotions and en poissant captures.
+	 * When only captures are wanted the only pushes added are promotions.
+	 */
+	private static int generatePawnMoves(Board board, int[] moves,
+			int count, int us, int kingSq, long checkMask, long pinned,
+			boolean capturesOnly) {
+		Position pos = board.getPosition();
+		int them = us ^ 1;
+		long occupied = pos.getOccupied();
+		long enemy = pos.getPieces(them);
+		int forward = us == Position.WHITE ? -Board.NUM_COLS : Board.NUM_COLS;
+		int homeRow = us == Position.WHITE ? 6 : 1;
+		int finalRow = us == Position.WHITE ? 0 : 7;
+
+		long pawns = pos.getPieces(us, PieceType.PAWN);
+		while (pawns != 0) {
+			int from = Bitboard.first(pawns);
+			pawns = Bitboard.removeFirst(pawns);
+			long allowed = checkMask;
+			if (Bitboard.isSet(pinned, from)) {
+				allowed &= Attacks.line(kingSq, from);
+			}
+
+			int oneAhead = from + forward;
+			if (!Bitboard.isSet(occupied, oneAhead)) {
+				if (Bitboard.isSet(allowed, oneAhead)
+						&& (!capturesOnly || Bitboard.row(oneAhead) == finalRow)) {
+					count = addPawnMove(pos, moves, count, from, oneAhead,
+							finalRow);
+				}
+				int twoAhead = oneAhead + forward;
+				if (!capturesOnly && Bitboard.row(from) == homeRow
+						&& !Bitboard.isSet(occupied, twoAhead)
+						&& Bitboard.isSet(allowed, twoAhead)) {
+					moves[count++] = pack(pos, from, twoAhead,
+							Move.Type.NORMAL);
+				}
+			}
+
+			long captures = Attacks.pawn(us, from) & enemy & allowed;
+			while (captures != 0) {
+				int to = Bitboard.first(captures);
+				captures = Bitboard.removeFirst(captures);
+				count = addPawnMove(pos, moves, count, from, to, finalRow);
+			}
+		}
+
+		return generateEnPoissantMoves(board, moves, count, us, kingSq);
+	}
+
+	/**
+	 * Adds a Pawn Move, adding one Move for each promotion option if the Pawn
+	 * reaches its final row
+	 */
+	private static int addPawnMove(Position pos, int[] moves, int count,
+			int from, int to, int finalRow) {
+		if (Bitboard.row(to) == finalRow) {
+			moves[count++] = pack(pos, from, to, Move.Type.PROMOTION_QUEEN);
+			moves[count++] = pack(pos, from, to, Move.Type.PROMOTION_KNIGHT);
+		} else {
+			moves[count++] = pack(pos, from, to, Move.Type.NORMAL);
+		}
+		return count;
+	}
+
+	/**
+	 * Adds any legal en poissant captures. The resulting position is checked
+	 * directly because en poissant removes two Pieces which could both be
+	 * blocking an attack on the King.
+	 */
+	private static int generateEnPoissantMoves(Board board, int[] moves,
+			int count, int us, int kingSq) {
+		Square epSquare = board.getEnPoissantSq();
+		int targetRow = us == Position.WHITE ? 2 : 5;
+		if (epSquare == null || epSquare.row() != targetRow) {
+			return count;
+		}
+		Position pos = board.getPosition();
+		int them = us ^ 1;
+		int to = epSquare.toNum();
+		int capturedSq = us == Position.WHITE ? to + Board.NUM_COLS : to
+				- Board.NUM_COLS;
+		if (!Bitboard.isSet(pos.getPieces(them, PieceType.PAWN), capturedSq)) {
+			return count;
+		}
+		long capturers = Attacks.pawn(them, to)
+				& pos.getPieces(us, PieceType.PAWN);
+		while (capturers != 0) {
+			int from = Bitboard.first(capturers);
+			capturers = Bitboard.removeFirst(capturers);
+			if (kingSq != Position.NO_SQUARE) {
+				long occupied = (pos.getOccupied() ^ Bitboard.bit(from) ^ Bitboard
+						.bit(capturedSq)) | Bitboard.bit(to);
+				long attackers = pos.attackersTo(kingSq, them, occupied)
+						& ~Bitboard.bit(capturedSq);
+				if (attackers != 0) {
+					continue;
+				}
+			}
+			moves[count++] = PackedMove.encode(from, to, Move.Type.EN_POISSANT,
+					PieceType.PAWN, PieceType.PAWN);
+		}
+		return count;
+	}
+
+	/**
+	 * Adds a normal Move from the input Square to each of the target Squares
+	 */
+	private static int addMoves(Position pos, int[] moves, int count,
+			int from, long targets) {
+		while (targets != 0) {
+			int to = Bitboard.first(targets);
+			targets = Bitboard.removeFirst(targets);
+			moves[count++] = pack(pos, from, to, Move.Type.NORMAL);
+		}
+		return count;
+	}
+
+	/**
+	 * Packs a Move of the Piece on the from Square, reading the moving and
+	 * captured Pieces from the Position
+	 */
+	private static int pack(Position pos, int from, int to, Move.Type type) {
+		return PackedMove.encode(from, to, type, pos.getType(from),
+				pos.getType(to));
+	}
+}
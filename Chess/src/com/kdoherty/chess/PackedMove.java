@@ -0,0 +1,166 @@
+package com.kdoherty.chess;
+
+/**
+ * Static helpers for Moves packed into a single int. The search works with
+ * packed Moves stored in preallocated int arrays so no Move objects are
+ * created while thinking. The bits are laid out as follows:
+ * 
+ * bits 0 - 5: The Square the Piece is moving from
+ * bits 6 - 11: The Square the Piece is moving to
+ * bits 12 - 15: The ordinal of the Move.Type, which includes the promotion
+ * bits 16 - 18: The PieceType of the moving Piece
+ * bits 19 - 21: The PieceType of the captured Piece plus one, zero if nothing
+ * is captured
+ * 
+ * Squares are numbered using Square.toNum. A Move from a Square to itself is
+ * never legal so 0 is used to represent no Move.
+ * 
+ * @author Kevin Doherty
+ * 
+ */
+public final class PackedMove {
+
+	/** Represents the absence of a Move */
+	public static final int NONE = 0;
+
+	private static final int SQUARE_MASK = 0x3F;
+
+	private static final int TO_SHIFT = 6;
+
+	private static final int TYPE_SHIFT = 12;
+
+	private static final int TYPE_MASK = 0xF;
+
+	private static final int PIECE_SHIFT = 16;
+
+	private static final int CAPTURED_SHIFT = 19;
+
+	private static final int PIECE_MASK = 0x7;
+
+	/** Cached so looking up a Type does not copy the values array */
+	private static final Move.Type[] TYPES = Move.Type.values();
+
+	private PackedMove() {
+		// Hide constructor
+	}
+
+	/**
+	 * Packs a Move into an int
+	 * 
+	 * @param from
+	 *            The Square the Piece is moving from
+	 * @param to
+	 *            The Square the Piece is moving to
+	 * @param type
+	 *            The type of Move
+	 * @param piece
+	 *            The PieceType of the moving Piece
+	 * @param captured
+	 *            The PieceType of the captured Piece or PieceType.NONE
+	 * @return The packed Move
+	 */
+	public static int encode(int from, int to, Move.Type type, int piece,
+			int captured) {
+		return from | (to << TO_SHIFT) | (type.ordinal() << TYPE_SHIFT)
+				| (piece << PIECE_SHIFT) | ((captured + 1) << CAPTURED_SHIFT);
+	}
+
+	/**
+	 * Gets the Square the Piece is moving from
+	 * 
+	 * @param move
+	 *            The packed Move
+	 * @return The Square the Piece is moving from
+	 */
+	public static int from(int move) {
+		return move & SQUARE_MASK;
+	}
+
+	/**
+	 * Gets the Square the Piece is moving to
+	 * 
+	 * @param move
+	 *            The packed Move
+	 * @return The Square the Piece is moving to
+	 */
+	public static int to(int move) {
+		return (move >>> TO_SHIFT) & SQUARE_MASK;
+	}
+
+	/**
+	 * Gets the type of the packed Move
+	 * 
+	 * @param move
+	 *            The packed Move
+	 * @return The Move.Type of the packed Move
+	 */
+	public static Move.Type type(int move) {
+		return TYPES[(move >>> TYPE_SHIFT) & TYPE_MASK];
+	}
+
+	/**
+	 * Gets the type of the moving Piece
+	 * 
+	 * @param move
+	 *            The packed Move
+	 * @return The PieceType of the moving Piece
+	 */
+	public static int piece(int move) {
+		return (move >>> PIECE_SHIFT) & PIECE_MASK;
+	}
+
+	/**
+	 * Gets the type of the captured Piece
+	 * 
+	 * @param move
+	 *            The packed Move
+	 * @return The PieceType of the captured Piece or PieceType.NONE
+	 */
+	public static int captured(int move) {
+		return ((move >>> CAPTURED_SHIFT) & PIECE_MASK) - 1;
+	}
+
+	/**
+	 * Does the packed Move capture a Piece?
+	 * 
+	 * @param move
+	 *            The packed Move
+	 * @return true if the packed Move captures a Piece
+	 */
+	public static boolean isCapture(int move) {
+		return ((move >>> CAPTURED_SHIFT) & PIECE_MASK) != 0;
+	}
+
+	/**
+	 * Does the packed Move promote a Pawn?
+	 * 
+	 * @param move
+	 *            The packed Move
+	 * @return true if the packed Move is a promotion
+	 */
+	public static boolean isPromotion(int move) {
+		return type(move).isPromotion();
+	}
+
+	/**
+	 * Represents the packed Move in coordinate notation such as e2e4 or e7e8q
+	 * 
+	 * @param move
+	 *            The packed Move
+	 * @return A String representation of the packed Move
+	 */
+	public static String toString(int move) {
+		if (move == NONE) {
+			return "none";
+		}
+		String s = Square.valueOf(from(move)).toString()
+				+ Square.valueOf(to(move));
+		Move.Type type = type(move);
+		if (type == Move.Type.PROMOTION_QUEEN) {
+			s += "q";
+		} else if (type == Move.Type.PROMOTION_KNIGHT) {
+			s += "n";
+		}
+		return s;
+	}
+}
@@ -300,6 +300,11 @@ public final class Pawn extends Piece {
 		return PawnEval.START_VALUE;
 	}
 
+	@Override
+	public int getType() {
+		return PieceType.PAWN;
+	}
+
 	@Override
 	public Piece clone() {
 		Pawn clone = new Pawn(color);
@@ -0,0 +1,169 @@
+package com.kdoherty.chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth. The counts
+ * of well known positions are published, so comparing against them proves
+ * move generation, make and unmake are correct. Timing the counts also gives
+ * a nodes per second benchmark of move generation.
+ * 
+ * There are two ways of counting. The Move object path uses Board.getMoves
+ * with Move.make and unmake, the same as the rest of the app. The bulk path
+ * uses packed Moves with Board.makeMove and unmakeMove like the search. It
+ * also counts the Moves at the last ply instead of making each one.
+ * 
+ * This Board only supports promoting to a Queen or a Knight. Counts are only
+ * comparable to the published numbers at depths where no promotions happen,
+ * so the reference counts below stop there.
+ * 
+ * @author Kevin Doherty
+ * 
+ */
+public final class Perft {
+
+	/** The standard starting position */
+	public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	/** Reference positions used to validate move generation */
+	public static final String[] REFERENCE_FENS = {
+			START_FEN,
+			// "Kiwipete": castling, en poissant and pins
+			"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+			// Sparse endgame with en poissant discovered checks
+			"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+			// Checks, pins and castling rights of only one side
+			"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+			// Symmetrical middlegame
+			"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10" };
+
+	/**
+	 * The published leaf counts of each reference position, starting at depth
+	 * one
+	 */
+	public static final long[][] REFERENCE_COUNTS = {
+			{ 20, 400, 8902, 197281, 4865609 },
+			{ 48, 2039, 97862 },
+			{ 14, 191, 2812, 43238, 674624 },
+			{ 6 },
+			{ 46, 2079, 89890 } };
+
+	private Perft() {
+		// Hide constructor
+	}
+
+	/**
+	 * Counts the leaf nodes at the input depth using Move objects
+	 * 
+	 * @param board
+	 *            The Board to count on. It is unchanged when this returns.
+	 * @param color
+	 *            The Color to move
+	 * @param depth
+	 *            The number of plies to look ahead
+	 * @return The number of leaf nodes
+	 */
+	public static long perft(Board board, Color color, int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+		long nodes = 0;
+		for (Move move : board.getMoves(color)) {
+			move.make();
+			nodes += perft(board, color.opp(), depth - 1);
+			move.unmake();
+		}
+		return nodes;
+	}
+
+	/**
+	 * Counts the leaf nodes at the input depth using packed Moves. Moves at
+	 * the last ply are counted instead of made. Nothing is allocated besides
+	 * one move list per ply.
+	 * 
+	 * @param board
+	 *            The Board to count on. It is unchanged when this returns.
+	 * @param color
+	 *            The Color to move
+	 * @param depth
+	 *            The number of plies to look ahead
+	 * @return The number of leaf nodes
+	 */
+	public static long perftBulk(Board board, Color color, int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+		return perftBulk(board, color, depth,
+				new int[depth][MoveGenerator.MAX_MOVES]);
+	}
+
+	private static long perftBulk(Board board, Color color, int depth,
+			int[][] moveLists) {
+		int[] moves = moveLists[depth - 1];
+		int count = MoveGenerator.generateMoves(board, color, moves);
+		if (depth == 1) {
+			return count;
+		}
+		long nodes = 0;
+		for (int i = 0; i < count; i++) {
+			board.makeMove(moves[i]);
+			nodes += perftBulk(board, color.opp(), depth - 1, moveLists);
+			board.unmakeMove();
+		}
+		return nodes;
+	}
+
+	/**
+	 * Counts the leaf nodes under each root Move. Comparing this against
+	 * another move generator narrows down which Move is miscounted.
+	 * 
+	 * @param board
+	 *            The Board to count on. It is unchanged when this returns.
+	 * @param color
+	 *            The Color to move
+	 * @param depth
+	 *            The number of plies to look ahead, including the root Move
+	 * @return The leaf count under each root Move keyed by the Move in
+	 *         coordinate notation, in generated order
+	 */
+	public static Map<String, Long> divide(Board board, Color color, int depth) {
+		Map<String, Long> counts = new LinkedHashMap<String, Long>();
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generateMoves(board, color, moves);
+		for (int i = 0; i < count; i++) {
+			board.makeMove(moves[i]);
+			counts.put(PackedMove.toString(moves[i]),
+					perftBulk(board, color.opp(), depth - 1));
+			board.unmakeMove();
+		}
+		return counts;
+	}
+
+	/**
+	 * Runs the bulk count of every reference position at its deepest
+	 * reference depth and prints the counts and nodes per second
+	 * 
+	 * @param args
+	 *            Not used
+	 */
+	public static void main(String[] args) {
+		long totalNodes = 0;
+		long totalMillis = 0;
+		for (int i = 0; i < REFERENCE_FENS.length; i++) {
+			Board board = Board.fromFen(REFERENCE_FENS[i]);
+			int depth = REFERENCE_COUNTS[i].length;
+			long start = System.currentTimeMillis();
+			long nodes = perftBulk(board, board.getSideToMove(), depth);
+			long millis = System.currentTimeMillis() - start;
+			long expected = REFERENCE_COUNTS[i][depth - 1];
+			System.out.println(REFERENCE_FENS[i] + " depth " + depth + ": "
+					+ nodes + (nodes == expected ? "" : " expected " + expected)
+					+ " in " + millis + "ms");
+			totalNodes += nodes;
+			totalMillis += millis;
+		}
+		System.out.println(totalNodes + " nodes in " + totalMillis + "ms ("
+				+ totalNodes * 1000 / Math.max(1, totalMillis) + " nodes/sec)");
+	}
+}
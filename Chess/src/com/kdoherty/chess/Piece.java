@@ -1,5 +1,6 @@
 package com.kdoherty.chess;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -184,6 +185,13 @@ public abstract class Piece {
 	 */
 	public abstract int getStartingValue();
 
+	/**
+	 * Gets the type of this Piece as one of the constants in PieceType
+	 * 
+	 * @return The type of this Piece
+	 */
+	public abstract int getType();
+
 	/**
 	 * Moves this Piece to the input square if it can move there
 	 * 
@@ -324,12 +332,51 @@ public abstract class Piece {
 	 *         the input square
 	 */
 	public boolean isBlocked(Board b, int r, int c) {
-		for (Square square : Board.getBtwnSqs(getSq(), new Square(r, c))) {
-			if (b.isOccupied(square.row(), square.col())) {
-				return true;
+		return (Attacks.between(Square.toNum(row, col), Square.toNum(r, c)) & b
+				.getPosition().getOccupied()) != 0;
+	}
+
+	/**
+	 * Creates a Move to each of the input target Squares which does not leave
+	 * this Piece's King in check. Used by the sliding Pieces which get their
+	 * targets from the precomputed attack tables.
+	 * 
+	 * @param b
+	 *            The Board this Piece is moving on
+	 * @param targets
+	 *            A bitboard of Squares this Piece could move to ignoring check
+	 * 
+	 * @return All Moves to the target Squares which are legal
+	 */
+	protected List<Move> getMoves(Board b, long targets) {
+		List<Move> moves = new ArrayList<Move>();
+		while (targets != 0) {
+			int sq = Bitboard.first(targets);
+			targets = Bitboard.removeFirst(targets);
+			int r = Bitboard.row(sq);
+			int c = Bitboard.col(sq);
+			if (!stillInCheck(b, r, c)) {
+				moves.add(new Move(b, this, r, c, Move.Type.NORMAL));
 			}
 		}
-		return false;
+		return moves;
+	}
+
+	/**
+	 * Gets the Squares this Piece could move to on the input Board ignoring
+	 * whether its King would be left in check. Squares occupied by Pieces of
+	 * the same Color are excluded.
+	 * 
+	 * @param b
+	 *            The Board this Piece is on
+	 * @param attacks
+	 *            The Squares attacked by this Piece
+	 * 
+	 * @return The Squares attacked by this Piece which are not occupied by a
+	 *         Piece of the same Color
+	 */
+	protected long getTargets(Board b, long attacks) {
+		return attacks & ~b.getPosition().getPieces(Position.index(color));
 	}
 
 	/**
@@ -0,0 +1,34 @@
+package com.kdoherty.chess;
+
+/**
+ * Integer constants for each kind of chess Piece. These are used as indexes
+ * into the bitboard arrays of a Position, so they are kept as plain integers
+ * instead of an enum to avoid any lookups in the hot paths of move generation.
+ * 
+ * @author Kevin Doherty
+ * 
+ */
+public final class PieceType {
+
+	/** Represents the absence of a Piece */
+	public static final int NONE = -1;
+
+	public static final int PAWN = 0;
+
+	public static final int KNIGHT = 1;
+
+	public static final int BISHOP = 2;
+
+	public static final int ROOK = 3;
+
+	public static final int QUEEN = 4;
+
+	public static final int KING = 5;
+
+	/** The number of different kinds of Pieces */
+	public static final int COUNT = 6;
+
+	private PieceType() {
+		// Hide constructor
+	}
+}
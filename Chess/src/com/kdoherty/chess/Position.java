@@ -0,0 +1,221 @@
+package com.kdoherty.chess;
+
+import java.util.Arrays;
+
+/**
+ * A bitboard representation of where the Pieces are on a Board. There is one
+ * bitboard for every type of Piece of each Color as well as occupancy masks
+ * for each Color and for the whole Board. A mailbox array of Piece types is
+ * also kept so the type of Piece on a Square can be found without scanning the
+ * bitboards.
+ * 
+ * Colors are represented by their ordinal (WHITE = 0, BLACK = 1) and types of
+ * Pieces are represented by the constants in PieceType. Squares are numbered
+ * using Square.toNum.
+ * 
+ * A Board keeps its Position up to date whenever a Piece is set or removed, so
+ * attack and move generation queries can be answered from here without
+ * touching any Piece objects.
+ * 
+ * @author Kevin Doherty
+ * 
+ */
+public final class Position {
+
+	/** Index used for white in all Color indexed arrays */
+	public static final int WHITE = 0;
+
+	/** Index used for black in all Color indexed arrays */
+	public static final int BLACK = 1;
+
+	/** Used to represent that a Square does not exist */
+	public static final int NO_SQUARE = -1;
+
+	/** One bitboard for every type of Piece of each Color */
+	private final long[][] pieces = new long[2][PieceType.COUNT];
+
+	/** All Squares occupied by each Color */
+	private final long[] colors = new long[2];
+
+	/** All occupied Squares */
+	private long occupied;
+
+	/** The type of Piece on each Square or PieceType.NONE if it is empty */
+	private final int[] types = new int[64];
+
+	/**
+	 * Constructor for Position. Initially contains no Pieces.
+	 */
+	public Position() {
+		Arrays.fill(types, PieceType.NONE);
+	}
+
+	/**
+	 * Gets the index used for the input Color in Color indexed arrays
+	 * 
+	 * @param color
+	 *            The Color to get the index of
+	 * @return WHITE or BLACK
+	 */
+	public static int index(Color color) {
+		return color == Color.WHITE ? WHITE : BLACK;
+	}
+
+	/**
+	 * Places a Piece on an empty Square
+	 * 
+	 * @param color
+	 *            The Color index of the Piece
+	 * @param type
+	 *            The type of the Piece
+	 * @param sq
+	 *            The Square to place the Piece on
+	 */
+	public void putPiece(int color, int type, int sq) {
+		long bit = Bitboard.bit(sq);
+		pieces[color][type] |= bit;
+		colors[color] |= bit;
+		occupied |= bit;
+		types[sq] = type;
+	}
+
+	/**
+	 * Removes the Piece on the input Square if there is one
+	 * 
+	 * @param sq
+	 *            The Square to remove the Piece from
+	 * @return The type of Piece removed or PieceType.NONE
+	 */
+	public int removePiece(int sq) {
+		int type = types[sq];
+		if (type != PieceType.NONE) {
+			long bit = Bitboard.bit(sq);
+			int color = (colors[WHITE] & bit) != 0 ? WHITE : BLACK;
+			pieces[color][type] &= ~bit;
+			colors[color] &= ~bit;
+			occupied &= ~bit;
+			types[sq] = PieceType.NONE;
+		}
+		return type;
+	}
+
+	/**
+	 * Gets the type of Piece on the input Square
+	 * 
+	 * @param sq
+	 *            The Square to look at
+	 * @return The type of Piece on the input Square or PieceType.NONE
+	 */
+	public int getType(int sq) {
+		return types[sq];
+	}
+
+	/**
+	 * Gets the Color index of the Piece on the input Square
+	 * 
+	 * @param sq
+	 *            The Square to look at
+	 * @return WHITE, BLACK, or NO_SQUARE if the Square is empty
+	 */
+	public int getColor(int sq) {
+		long bit = Bitboard.bit(sq);
+		if ((colors[WHITE] & bit) != 0) {
+			return WHITE;
+		}
+		return (colors[BLACK] & bit) != 0 ? BLACK : NO_SQUARE;
+	}
+
+	/**
+	 * Gets the bitboard of all Pieces of the input Color and type
+	 * 
+	 * @param color
+	 *            The Color index of the Pieces
+	 * @param type
+	 *            The type of the Pieces
+	 * @return The bitboard of all Pieces of the input Color and type
+	 */
+	public long getPieces(int color, int type) {
+		return pieces[color][type];
+	}
+
+	/**
+	 * Gets all Squares occupied by the input Color
+	 * 
+	 * @param color
+	 *            The Color index
+	 * @return All Squares occupied by the input Color
+	 */
+	public long getPieces(int color) {
+		return colors[color];
+	}
+
+	/**
+	 * Gets all occupied Squares
+	 * 
+	 * @return All occupied Squares
+	 */
+	public long getOccupied() {
+		return occupied;
+	}
+
+	/**
+	 * Finds the Square of the King of the input Color
+	 * 
+	 * @param color
+	 *            The Color index of the King
+	 * @return The Square of the King or NO_SQUARE if there is not one
+	 */
+	public int getKingSquare(int color) {
+		long king = pieces[color][PieceType.KING];
+		return king == 0 ? NO_SQUARE : Bitboard.first(king);
+	}
+
+	/**
+	 * Is the input Square attacked by any Piece of the input Color? The
+	 * occupant of the Square, if any, is not considered.
+	 * 
+	 * @param sq
+	 *            The Square to check
+	 * @param color
+	 *            The Color index of the attacking Pieces
+	 * @return true if a Piece of the input Color attacks the Square
+	 */
+	public boolean isAttacked(int sq, int color) {
+		return attackersTo(sq, color) != 0;
+	}
+
+	/**
+	 * Finds all Pieces of the input Color attacking the input Square
+	 * 
+	 * @param sq
+	 *            The Square being attacked
+	 * @param color
+	 *            The Color index of the attacking Pieces
+	 * @return A bitboard of all Pieces of the input Color attacking the Square
+	 */
+	public long attackersTo(int sq, int color) {
+		return attackersTo(sq, color, occupied);
+	}
+
+	/**
+	 * Finds all Pieces of the input Color attacking the input Square as if
+	 * only the input Squares were occupied. Sliding Pieces see through any
+	 * Square not in the input occupancy.
+	 * 
+	 * @param sq
+	 *            The Square being attacked
+	 * @param color
+	 *            The Color index of the attacking Pieces
+	 * @param occupancy
+	 *            The occupied Squares to use for sliding Pieces
+	 * @return A bitboard of all Pieces of the input Color attacking the Square
+	 */
+	public long attackersTo(int sq, int color, long occupancy) {
+		long[] own = pieces[color];
+		return (Attacks.knight(sq) & own[PieceType.KNIGHT])
+				| (Attacks.king(sq) & own[PieceType.KING])
+				| (Attacks.pawn(color ^ 1, sq) & own[PieceType.PAWN])
+				| (Attacks.rook(sq, occupancy) & (own[PieceType.ROOK] | own[PieceType.QUEEN]))
+				| (Attacks.bishop(sq, occupancy) & (own[PieceType.BISHOP] | own[PieceType.QUEEN]));
+	}
+}
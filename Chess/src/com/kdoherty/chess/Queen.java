@@ -1,6 +1,5 @@
 package com.kdoherty.chess;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.kdoherty.engine.QueenEval;
@@ -55,12 +54,23 @@ public final class Queen extends Piece {
 	 */
 	public boolean canMove(Board b, int r, int c, boolean testCheck) {
 		return Board.isInbounds(r, c)
-				&& ((row == r ^ col == c) || Board.sameDiagonal(row, col, r, c))
+				&& Bitboard.isSet(getAttacks(b), Square.toNum(r, c))
 				&& (b.isEmpty(r, c) || isTaking(b, r, c))
-				&& !isBlocked(b, r, c)
 				&& (!testCheck || !stillInCheck(b, r, c));
 	}
 
+	/**
+	 * Gets all Squares this Queen attacks on the input Board
+	 * 
+	 * @param b
+	 *            The Board this Queen is on
+	 * @return The Squares this Queen attacks
+	 */
+	private long getAttacks(Board b) {
+		return Attacks.queen(Square.toNum(row, col), b.getPosition()
+				.getOccupied());
+	}
+
 	/**
 	 * Is this Piece defending the input square? Note it is not defending the
 	 * square if it is pinned to it's king, or if the input square contains a
@@ -104,16 +114,7 @@ public final class Queen extends Piece {
 	 * @return All moves this Piece can make on the input Board
 	 */
 	public List<Move> getMoves(Board b) {
-		List<Move> moves = new ArrayList<Move>();
-		for (int i = 0; i < Board.NUM_ROWS; i++) {
-			for (int j = 0; j < Board.NUM_COLS; j++) {
-				if (((row == i ^ col == j) || Board
-						.sameDiagonal(row, col, i, j)) && canMove(b, i, j)) {
-					moves.add(new Move(b, this, i, j, Move.Type.NORMAL));
-				}
-			}
-		}
-		return moves;
+		return getMoves(b, getTargets(b, getAttacks(b)));
 	}
 
 	@Override
@@ -126,6 +127,11 @@ public final class Queen extends Piece {
 		return QueenEval.START_VALUE;
 	}
 
+	@Override
+	public int getType() {
+		return PieceType.QUEEN;
+	}
+
 	@Override
 	public Piece clone() {
 		Queen clone = new Queen(color);
@@ -1,6 +1,5 @@
 package com.kdoherty.chess;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.kdoherty.engine.RookEval;
@@ -41,12 +40,24 @@ public final class Rook extends Piece {
 	 */
 	@Override
 	public boolean canMove(Board b, int r, int c, boolean testCheck) {
-		return Board.isInbounds(r, c) && row == r ^ col == c
+		return Board.isInbounds(r, c)
+				&& Bitboard.isSet(getAttacks(b), Square.toNum(r, c))
 				&& (b.isEmpty(r, c) || isTaking(b, r, c))
-				&& !isBlocked(b, r, c)
 				&& (!testCheck || !stillInCheck(b, r, c));
 	}
 
+	/**
+	 * Gets all Squares this Rook attacks on the input Board
+	 * 
+	 * @param b
+	 *            The Board this Rook is on
+	 * @return The Squares this Rook attacks
+	 */
+	private long getAttacks(Board b) {
+		return Attacks.rook(Square.toNum(row, col), b.getPosition()
+				.getOccupied());
+	}
+
 	/**
 	 * Is this Piece defending the input square? Note it is not defending the
 	 * square if it is pinned to it's king, or if the input square contains a
@@ -89,15 +100,7 @@ public final class Rook extends Piece {
 	 * @return All moves this Piece can make on the input Board
 	 */
 	public List<Move> getMoves(Board b) {
-		List<Move> moves = new ArrayList<Move>();
-		for (int i = 0; i < Board.NUM_ROWS; i++) {
-			for (int j = 0; j < Board.NUM_COLS; j++) {
-				if ((i == row || j == col) && canMove(b, i, j)) {
-					moves.add(new Move(b, this, i, j, Move.Type.NORMAL));
-				}
-			}
-		}
-		return moves;
+		return getMoves(b, getTargets(b, getAttacks(b)));
 	}
 
 	@Override
@@ -110,6 +113,11 @@ public final class Rook extends Piece {
 		return RookEval.START_VALUE;
 	}
 
+	@Override
+	public int getType() {
+		return PieceType.ROOK;
+	}
+
 	@Override
 	public Piece clone() {
 		Rook clone = new Rook(color);
@@ -12,6 +12,15 @@ public final class Square {
 	/** Column coordinate of this Square */
 	private final int col;
 
+	/** Shared instances of every Square indexed by Square number */
+	private static final Square[] SQUARES = new Square[64];
+
+	static {
+		for (int i = 0; i < SQUARES.length; i++) {
+			SQUARES[i] = new Square(i / 8, i % 8);
+		}
+	}
+
 	/**
 	 * Constructor for Square
 	 * 
@@ -73,6 +82,19 @@ public final class Square {
 		}
 	}
 
+	/**
+	 * Gets a shared instance of the Square with the input Square number. Since
+	 * Squares are immutable this can be used instead of the constructor where
+	 * allocating should be avoided.
+	 * 
+	 * @param num
+	 *            The Square number (0 - 63)
+	 * @return The Square with the input Square number
+	 */
+	public static Square valueOf(int num) {
+		return SQUARES[num];
+	}
+
 	public static int toNum(int row, int col) {
 		return row * 8 + col;
 	}
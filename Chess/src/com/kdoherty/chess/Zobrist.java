@@ -0,0 +1,103 @@
+package com.kdoherty.chess;
+
+import java.util.Random;
+
+/**
+ * Random keys used to hash a Board. The key of a Board is the XOR of the key
+ * of every Piece on its Square, the castling rights, the column of the
+ * enPoissant Square and the side to move. Since XOR is its own inverse a
+ * Board can update its key whenever one of those changes instead of hashing
+ * the whole Board again.
+ * 
+ * The keys are generated from a fixed seed so the same position always has
+ * the same key.
+ * 
+ * @author Kevin Doherty
+ * 
+ */
+public final class Zobrist {
+
+	/** Keys indexed by Color index, PieceType and Square */
+	private static final long[][][] PIECES = new long[2][PieceType.COUNT][64];
+
+	/** Keys indexed by the column of the enPoissant Square */
+	private static final long[] EN_POISSANT = new long[Board.NUM_COLS];
+
+	/**
+	 * Keys indexed by the castling rights bits of a Board. No castling rights
+	 * has a key of 0.
+	 */
+	private static final long[] CASTLING = new long[16];
+
+	/** XORed in when black is to move */
+	private static final long BLACK_TO_MOVE;
+
+	static {
+		Random random = new Random(0x5EEDL);
+		for (int color = 0; color < 2; color++) {
+			for (int type = 0; type < PieceType.COUNT; type++) {
+				for (int sq = 0; sq < 64; sq++) {
+					PIECES[color][type][sq] = random.nextLong();
+				}
+			}
+		}
+		for (int col = 0; col < EN_POISSANT.length; col++) {
+			EN_POISSANT[col] = random.nextLong();
+		}
+		for (int rights = 1; rights < CASTLING.length; rights++) {
+			CASTLING[rights] = random.nextLong();
+		}
+		BLACK_TO_MOVE = random.nextLong();
+	}
+
+	private Zobrist() {
+		// Hide constructor
+	}
+
+	/**
+	 * Gets the key of a Piece on a Square
+	 * 
+	 * @param color
+	 *            The Position Color index of the Piece
+	 * @param type
+	 *            The PieceType of the Piece
+	 * @param sq
+	 *            The Square the Piece is on
+	 * @return The key of the Piece on the Square
+	 */
+	public static long piece(int color, int type, int sq) {
+		return PIECES[color][type][sq];
+	}
+
+	/**
+	 * Gets the key of an enPoissant Square
+	 * 
+	 * @param col
+	 *            The column of the enPoissant Square
+	 * @return The key of the enPoissant column
+	 */
+	public static long enPoissant(int col) {
+		return EN_POISSANT[col];
+	}
+
+	/**
+	 * Gets the key of a set of castling rights
+	 * 
+	 * @param rights
+	 *            The castling rights bits as returned by
+	 *            Board.getCastlingRights
+	 * @return The key of the castling rights
+	 */
+	public static long castling(int rights) {
+		return CASTLING[rights];
+	}
+
+	/**
+	 * Gets the key XORed in when black is to move
+	 * 
+	 * @return The side to move key
+	 */
+	public static long blackToMove() {
+		return BLACK_TO_MOVE;
+	}
+}
@@ -2,8 +2,8 @@ package com.kdoherty.engine;
 
 import com.kdoherty.chess.Bishop;
 import com.kdoherty.chess.Board;
-import com.kdoherty.chess.Color;
-import com.kdoherty.chess.Square;
+import com.kdoherty.chess.Piece;
+import com.kdoherty.chess.Position;
 
 /**
  * This class is responsible for evaluating a Bishop. It takes into account its
@@ -23,6 +23,12 @@ public final class BishopEval extends PieceEval {
 	 */
 	private static int BLOCKING_CNTR_PAWN_PENALTY = -10;
 
+	/**
+	 * The same penalty in the end game, where there are fewer Pieces left for
+	 * the blocked Pawn to hold back
+	 */
+	private static int ENDGAME_BLOCKING_CNTR_PAWN_PENALTY = -5;
+
 	/**
 	 * Bonuses and penalties added to a Rooks value based on its position on the
 	 * Board
@@ -37,16 +43,20 @@ public final class BishopEval extends PieceEval {
 		-10,   0,   0,   0,   0,   0,   0, -10,
 		-20, -10, -10, -10, -10, -10, -10, -20
 	};
-	
-	private static int[][] BOARD_VALUES2D = { 
-		{-20, -10, -10, -10, -10, -10, -10, -20},
-		{-10,   5,   0,   0,  0,   0,    5, -10},
-		{-10,  10,  10,  10,  10,  10,  10, -10},
-		{-10,   0,  10,  10,  10,  10,   0, -10},
-		{-10,   5,   5,  10,  10,   5,   5, -10},
-		{-10,   0,   5,  10,  10,   5,   0, -10},
-		{-10,   0,   0,   0,   0,   0,   0, -10},
-		{-20, -10, -10, -10, -10, -10, -10, -20}
+
+	/**
+	 * Bonuses and penalties added to a Bishop's value based on its position in
+	 * the end game, where a central Bishop covers both wings
+	 */
+	private static int[] ENDGAME_BOARD_VALUES = {
+		-20, -10, -10, -10, -10, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,   5,   5,   5,   0, -10,
+		-10,   0,   5,  10,  10,   5,   0, -10,
+		-10,   0,   5,  10,  10,   5,   0, -10,
+		-10,   0,   5,   5,   5,   5,   0, -10,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-20, -10, -10, -10, -10, -10, -10, -20
 	};
 
 	/**
@@ -69,17 +79,49 @@ public final class BishopEval extends PieceEval {
 	 */
 	@Override
 	public int evaluate() {
-		Square s = piece.getSq();
-		int index = color == Color.WHITE ? s.toNum() : 63 - s.toNum();
-		
-		int value = START_VALUE;
-		value += BOARD_VALUES2D[piece.getRow()][piece.getCol()];
+		int sq = piece.getSq().toNum();
+		int phase = Evaluate.getPhase(board);
+		return START_VALUE
+				+ Evaluate.taper(squareValue(Position.index(color), sq, false),
+						squareValue(Position.index(color), sq, true), phase)
+				+ dynamicValue(board, piece, phase);
+	}
 
-		if (isBlockingCenterPawn()) {
-			value += BLOCKING_CNTR_PAWN_PENALTY;
-		}
+	/**
+	 * Gets the bonus or penalty of a Bishop on the input Square in the middle
+	 * game or the end game
+	 * 
+	 * @param color
+	 *            The Color index of the Bishop
+	 * @param sq
+	 *            The Square of the Bishop
+	 * @param endGame
+	 *            Whether to use the end game board values
+	 * @return The value of the Square from the board values of the phase
+	 */
+	static int squareValue(int color, int sq, boolean endGame) {
+		int index = sq;
+		return endGame ? ENDGAME_BOARD_VALUES[index] : BOARD_VALUES[index];
+	}
 
-		return value;
+	/**
+	 * Gets the part of a Bishop's value which depends on the other Pieces and
+	 * the phase of the game
+	 * 
+	 * @param board
+	 *            The Board the Bishop is on
+	 * @param bishop
+	 *            The Bishop to evaluate
+	 * @param phase
+	 *            The phase of the game
+	 * @return The bonuses and penalties of the Bishop
+	 */
+	static int dynamicValue(Board board, Piece bishop, int phase) {
+		if (isBlockingCenterPawn(board, bishop)) {
+			return Evaluate.taper(BLOCKING_CNTR_PAWN_PENALTY,
+					ENDGAME_BLOCKING_CNTR_PAWN_PENALTY, phase);
+		}
+		return 0;
 	}
 
 }
\ No newline at end of file
@@ -1,72 +1,190 @@
 package com.kdoherty.engine;
 
-import java.util.List;
-
 import com.kdoherty.chess.Board;
 import com.kdoherty.chess.Color;
 import com.kdoherty.chess.Move;
+import com.kdoherty.chess.MoveGenerator;
+import com.kdoherty.chess.PackedMove;
 
 /**
- * This class represents a Computer player and its though process.
- * Using Enum to ensure only one instance of each player is created.
+ * This class represents a Computer player and its though process. Each
+ * player has its own transposition table and search threads, so several
+ * players can think at the same time.
+ * 
+ * While the opponent thinks the player can ponder: it guesses the opponent's
+ * reply and searches the position after it. If the opponent plays the guessed
+ * reply the search which is already running becomes the search for the move.
+ * Otherwise it is stopped and its entries in the transposition table are
+ * simply never used.
  * @author Kevin Doherty
  */
-public enum CpuPlayer {
-	
-	/** White computer player */
-	WHITE_INSTANCE(Color.WHITE),
-	
-	/** Black computer player */
-	BLACK_INSTANCE(Color.BLACK); 
-	
-	private static final long THREE_DEPTH_THRESHOLD = 60 * 10 * 1000;
-	
-	private static final long TWO_DEPTH_THRESHOLD = 60 * 1000;
+public final class CpuPlayer {
 	
+	/** The default size of the transposition table in MB */
+	public static final int DEFAULT_HASH_MB = 16;
+
+	/** The size of the table of the mate search in MB */
+	private static final int MATE_HASH_MB = 2;
+
+	/**
+	 * The most nodes the mate search may visit. Positions without a mate take
+	 * the whole budget, so it is kept small.
+	 */
+	private static final long MATE_NODE_LIMIT = 20000;
+
+	/**
+	 * The mate search may visit this many nodes per millisecond the move is
+	 * meant to take, which keeps it to about a tenth of the time
+	 */
+	private static final long MATE_NODES_PER_MILLI = 8;
+
+	/** How often a search which took over a ponder search checks its handle */
+	private static final long PONDER_POLL_MILLIS = 10;
+
 	/** The Color which this computer CpuPlayer will make moves for */
-	private Color color;
+	private final Color color;
+
+	/** The packed moves searched at the root */
+	private final int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+
+	/** Looks for forced checkmates before searching */
+	private final ProofNumberSolver mateSolver = new ProofNumberSolver(
+			MATE_HASH_MB);
+
+	/** Results of earlier searches, kept between moves */
+	private TranspositionTable table = new TranspositionTable(DEFAULT_HASH_MB);
+
+	/**
+	 * One Searcher per thread. The first runs on the calling thread and the
+	 * rest are helpers.
+	 */
+	private Searcher[] searchers;
+
+	/** The depth of the last iteration which finished */
+	private int completedDepth;
 
 	/**
-	 * Constructor for CpuPlayer.
+	 * The opponent's reply expected after the move of the last search, or
+	 * PackedMove.NONE if there is no guess
+	 */
+	private int ponderMove = PackedMove.NONE;
+
+	/** Runs the ponder search, or null when not pondering */
+	private Thread ponderThread;
+
+	/** Stops the ponder search */
+	private SearchHandle ponderHandle;
+
+	/** Passes the progress of the ponder search on after a ponder hit */
+	private ForwardingListener ponderListener;
+
+	/** The Zobrist key of the position being pondered */
+	private long ponderKey;
+
+	/** The move found by the ponder search */
+	private volatile Move ponderResult;
+
+	/**
+	 * Constructor for CpuPlayer. The search uses one thread.
 	 * 
 	 * @param color
 	 *            The Color which this computer CpuPlayer will make moves for
 	 */
 	private CpuPlayer(Color color) {
 		this.color = color;
+		searchers = new Searcher[] { new Searcher(color) };
 	}
 	
 	/**
 	 * Factory method for a CpuPlayer
 	 * @param color The Color of the Piece's this player will be controlling
-	 * @return A CpuPlayer which will play moves for the input Color.
+	 * @return A new CpuPlayer which will play moves for the input Color.
 	 */
 	public static CpuPlayer getInstance(Color color) {
-		return color == Color.WHITE ? WHITE_INSTANCE : BLACK_INSTANCE;
+		return new CpuPlayer(color);
 	}
-	
-	private int getMoveDepth(long millisRemaining) {
-		if (millisRemaining > THREE_DEPTH_THRESHOLD) {
-			return 3;
-		} else if (millisRemaining > TWO_DEPTH_THRESHOLD) {
-			return 2;
+
+	/**
+	 * Sets the number of threads which search at the same time. Each thread
+	 * searches its own copy of the Board and they share the transposition
+	 * table.
+	 * 
+	 * @param threads
+	 *            The number of search threads, at least 1
+	 */
+	public void setThreadCount(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(
+					"At least one search thread is needed but was given "
+							+ threads);
+		}
+		stopPondering();
+		Searcher[] resized = new Searcher[threads];
+		for (int i = 0; i < threads; i++) {
+			resized[i] = i < searchers.length ? searchers[i] : new Searcher(
+					color);
 		}
-		return 1;
+		searchers = resized;
+	}
+
+	/**
+	 * Gets the number of threads which search at the same time
+	 * 
+	 * @return The number of search threads
+	 */
+	public int getThreadCount() {
+		return searchers.length;
 	}
 	
-	private int getMateSearchDepth(Board board) {
-		return Evaluate.queenCloseToKing(board, color) ? 3 : 2;
+	/**
+	 * Replaces the transposition table with an empty one of the input size.
+	 * Lower end devices should use a smaller table.
+	 * 
+	 * @param megabytes
+	 *            The most memory the transposition table may use
+	 */
+	public void setHashSize(int megabytes) {
+		stopPondering();
+		table = new TranspositionTable(megabytes);
 	}
 
 	/**
-	 * Determines the "best" move on the input Board. It starts by looking for a
-	 * forced checkmate in the position at a depth varying depending on how
-	 * close our Queen is to the other player's King. If it does not find
-	 * anything, it will try each move on the Board, and then evaluate it at
-	 * a depth based on the remaining time. This assumes that the opponent makes the best
-	 * possible reply to each Move. Whichever Move has the worst best reply is
-	 * chosen.
+	 * Gets the transposition table used by this player, for example to read
+	 * its hit rate
 	 * 
+	 * @return The transposition table of this player
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return table;
+	}
+
+	/**
+	 * Gets the depth of the last iteration completed by the last search
+	 * 
+	 * @return The depth in plies, or 0 if the move was found without searching
+	 */
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Gets how many moves deep to look for a forced checkmate before
+	 * searching. Mates are more likely when our Queen is close to the other
+	 * King.
+	 * 
+	 * @param board
+	 *            The Board to look for a checkmate on
+	 * @param color
+	 *            The Color looking for a checkmate
+	 * @return The number of moves to look for a checkmate in
+	 */
+	static int getMateSearchDepth(Board board, Color color) {
+		return Evaluate.queenCloseToKing(board, color) ? 7 : 5;
+	}
+
+	/**
+	 * Determines the "best" move on the input Board with no increment and no
+	 * time control before the end of the game.
 	 * 
 	 * @param board
 	 *            The Board determine the best move on
@@ -75,79 +193,358 @@ public enum CpuPlayer {
 	 * @return Move What was determined to be the best move
 	 */
 	public Move negaMaxMove(Board board, long millisRemaining) {
-		int mateDepth = getMateSearchDepth(board);
-		List<Move> mateMoves = MateSolver
-				.findMateUpToN(board, color, mateDepth);
-		if (!mateMoves.isEmpty()) {
-			// There is a forced checkmate
-			return mateMoves.get(0);
-		}
-		
-		int depth = getMoveDepth(millisRemaining);
-		int max = Integer.MIN_VALUE;
-		Move bestMove = null;
-		List<Move> availableMoves = board.getMoves(color)
-		for (Move move : availableMoves) {
-			move.make();
-			if (!MateSolver.findMateUpToN(board, color.opp(), 1).isEmpty()) {
-				move.unmake();
-				continue;
+		return negaMaxMove(board, millisRemaining, 0, 0);
+	}
+
+	/**
+	 * Determines the "best" move on the input Board. It starts by looking for a
+	 * forced checkmate in the position at a depth varying depending on how
+	 * close our Queen is to the other player's King. If it does not find
+	 * anything, it searches the moves one ply deeper at a time until the
+	 * time budgeted for this move runs out. This assumes that the opponent
+	 * makes the best possible reply to each Move. The best Move of the last
+	 * depth which was completely searched is chosen.
+	 * 
+	 * @param board
+	 *            The Board determine the best move on
+	 * @param millisRemaining
+	 *            The amount of time remaining on this player's clock
+	 * @param incrementMillis
+	 *            The time added to this player's clock after each move
+	 * @param movesToGo
+	 *            The moves left until the next time control, or 0 if the
+	 *            rest of the game must be played in the remaining time
+	 * @return Move What was determined to be the best move
+	 */
+	public Move negaMaxMove(Board board, long millisRemaining,
+			long incrementMillis, int movesToGo) {
+		return negaMaxMove(board, millisRemaining, incrementMillis, movesToGo,
+				new SearchHandle());
+	}
+
+	/**
+	 * Determines the "best" move on the input Board like
+	 * {@link #negaMaxMove(Board, long, long, int)}, but the search can also be
+	 * stopped, limited and followed through the input SearchHandle.
+	 * 
+	 * @param board
+	 *            The Board determine the best move on
+	 * @param millisRemaining
+	 *            The amount of time remaining on this player's clock
+	 * @param incrementMillis
+	 *            The time added to this player's clock after each move
+	 * @param movesToGo
+	 *            The moves left until the next time control, or 0 if the
+	 *            rest of the game must be played in the remaining time
+	 * @param handle
+	 *            Controls the search from another thread
+	 * @return Move What was determined to be the best move, or the best move
+	 *         found so far if the search was stopped
+	 */
+	public Move negaMaxMove(Board board, long millisRemaining,
+			long incrementMillis, int movesToGo, SearchHandle handle) {
+		TimeManager timeManager = new TimeManager(millisRemaining,
+				incrementMillis, movesToGo, board.getMoveCount());
+		if (ponderThread != null) {
+			if (board.getZobristKey(color) == ponderKey) {
+				return takeOverPonder(timeManager, handle);
 			}
-			int score = -negaMaxWithPruning(board, color.opp(),
-					Integer.MIN_VALUE, Integer.MAX_VALUE, depth);
-			if (score > max) {
-				max = score;
-				bestMove = move;
+			stopPondering();
+		}
+		return search(board, timeManager, handle);
+	}
+
+	/**
+	 * Starts searching on the opponent's time. The opponent is expected to
+	 * reply to this player's last move with the second move of its principal
+	 * variation, and the position after that reply is searched in the
+	 * background until the next call to negaMaxMove or stopPondering.
+	 * 
+	 * @param board
+	 *            The Board after this player's last move, with the opponent
+	 *            to move. It is not changed.
+	 * @return true if pondering started, false if there was no reply to
+	 *         expect
+	 */
+	public boolean ponder(Board board) {
+		stopPondering();
+		if (!isLegal(board, color.opp(), ponderMove)) {
+			return false;
+		}
+		final Board ponderBoard = board.clone();
+		ponderBoard.makeMove(ponderMove);
+		ponderBoard.toggleSideToMove();
+		ponderKey = ponderBoard.getZobristKey(color);
+		ponderResult = null;
+		ponderHandle = new SearchHandle();
+		ponderListener = new ForwardingListener();
+		ponderHandle.setListener(ponderListener);
+		final SearchHandle handle = ponderHandle;
+		ponderThread = new Thread("Ponder") {
+			@Override
+			public void run() {
+				ponderResult = search(ponderBoard, null, handle);
+			}
+		};
+		ponderThread.start();
+		return true;
+	}
+
+	/**
+	 * Gets the opponent's reply expected after the move found by the last
+	 * search. This is the move ponder searches after.
+	 * 
+	 * @param board
+	 *            The Board after this player's last move
+	 * @return The expected reply, or null if there is none
+	 */
+	public Move getPonderMove(Board board) {
+		return isLegal(board, color.opp(), ponderMove) ? board
+				.toMove(ponderMove) : null;
+	}
+
+	/**
+	 * Is a ponder search running?
+	 * 
+	 * @return true if this player is searching on the opponent's time
+	 */
+	public boolean isPondering() {
+		return ponderThread != null;
+	}
+
+	/**
+	 * Stops the ponder search if there is one and waits for it to finish.
+	 * Called when the opponent plays a different move than expected or the
+	 * game is over.
+	 */
+	public void stopPondering() {
+		if (ponderThread == null) {
+			return;
+		}
+		ponderHandle.stop();
+		joinAll(new Thread[] { ponderThread });
+		ponderThread = null;
+		ponderHandle = null;
+		ponderListener = null;
+	}
+
+	/**
+	 * Lets the ponder search, which is searching the position the opponent
+	 * has just reached, go on as the search for this player's move. It keeps
+	 * what it has already searched and stops by the time this move would
+	 * normally take.
+	 * 
+	 * @param timeManager
+	 *            The time budget of this move
+	 * @param handle
+	 *            Controls the search from another thread
+	 * @return The best move found by the ponder search
+	 */
+	private Move takeOverPonder(TimeManager timeManager, SearchHandle handle) {
+		long deadline = System.currentTimeMillis()
+				+ timeManager.getTargetMillis();
+		if (handle.getDeadline() > 0) {
+			deadline = Math.min(deadline, handle.getDeadline());
+		}
+		ponderHandle.setDeadline(deadline);
+		ponderListener.target = handle.getListener();
+
+		boolean interrupted = false;
+		while (ponderThread.isAlive()) {
+			if (handle.isStopped()) {
+				ponderHandle.stop();
+			}
+			try {
+				ponderThread.join(PONDER_POLL_MILLIS);
+			} catch (InterruptedException e) {
+				ponderHandle.stop();
+				interrupted = true;
 			}
-			move.unmake();
 		}
-		
-		if (bestMove == null && !availableMoves.isEmpty()) {
-			bestMove = availableMoves.get(0);
+		if (interrupted) {
+			Thread.currentThread().interrupt();
 		}
+		ponderThread = null;
+		ponderHandle = null;
+		ponderListener = null;
+		return ponderResult;
+	}
 
-		return bestMove;
+	/**
+	 * Searches the input Board with no clock, one ply deeper at a time, until
+	 * the input SearchHandle is stopped or reaches its deadline or node
+	 * limit. This is meant for analysis where the progress is shown to the
+	 * user as the search goes. A ponder search is stopped first since it uses
+	 * the same Searchers.
+	 * 
+	 * @param board
+	 *            The Board to analyze
+	 * @param handle
+	 *            Controls the search from another thread
+	 * @return The best move found, or null if there are no moves
+	 */
+	public Move analyze(Board board, SearchHandle handle) {
+		stopPondering();
+		return search(board, null, handle);
 	}
 
 	/**
-	 * Determines the maximum rating obtained by playing the best move in the
-	 * position
+	 * Finds the best move on the input Board
 	 * 
 	 * @param board
-	 *            The Board to determine the maximum rating of the best move on
-	 * @param color
-	 *            The Color to find the maximum rating for.
-	 * @param alpha
-	 *            Keeps track of the maximum evaluation
-	 * @param beta
-	 *            Keeps track of the minimum evaluation
-	 * @param moveDepth
-	 *            The number of moves to look ahead
-	 * @return The maximum rating obtained by playing the best move in the
-	 *         position.
-	 */
-	private int negaMaxWithPruning(Board board, Color color, int alpha, int beta,
-			int moveDepth) {
-		if (moveDepth == 0) {
-			return Evaluate.evaluate(board, color);
-		}
-
-		int max = Integer.MIN_VALUE;
-
-		for (Move move : MoveSorter.sort(board, board.getMoves(color))) {
-
-			move.make();
-			int score = -negaMaxWithPruning(board, color.opp(), -beta, -alpha,
-					moveDepth - 1);
-			move.unmake();
-
-			max = Math.max(max, score);
-			alpha = Math.max(alpha, score);
-			if (alpha >= beta) {
-				return alpha;
+	 *            The Board determine the best move on
+	 * @param timeManager
+	 *            Decides when the search must stop, or null to search until
+	 *            the handle stops it
+	 * @param handle
+	 *            Controls the search from another thread
+	 * @return The best move found
+	 */
+	private Move search(Board board, TimeManager timeManager,
+			SearchHandle handle) {
+		handle.start();
+		completedDepth = 0;
+		ponderMove = PackedMove.NONE;
+
+		mateSolver.setNodeLimit(timeManager == null ? MATE_NODE_LIMIT : Math
+				.min(MATE_NODE_LIMIT, timeManager.getTargetMillis()
+						* MATE_NODES_PER_MILLI));
+		Move mateMove = mateSolver.findMate(board, color,
+				getMateSearchDepth(board, color));
+		if (mateMove != null) {
+			// There is a forced checkmate
+			return mateMove;
+		}
+
+		int[] moves = rootMoves;
+		int count = MoveGenerator.generateMoves(board, color, moves);
+		if (count == 0) {
+			return null;
+		}
+
+		// Moves which allow a mate in one are never worth searching
+		int safeCount = 0;
+		for (int i = 0; i < count; i++) {
+			board.makeMove(moves[i]);
+			if (MateSolver.findMateUpToN(board, color.opp(), 1).isEmpty()) {
+				moves[safeCount++] = moves[i];
 			}
+			board.unmakeMove();
+		}
+		if (safeCount <= 1) {
+			// Either there is only one move or all moves lose
+			return board.toMove(moves[0]);
 		}
 
-		return max;
+		table.newSearch();
+		// Helpers search their own copy of the Board
+		Thread[] helpers = new Thread[searchers.length - 1];
+		for (int i = 1; i < searchers.length; i++) {
+			searchers[i].prepare(board.clone(), moves, safeCount, 1 + i % 2,
+					table, timeManager, handle, null);
+			helpers[i - 1] = new Thread(searchers[i], "Search helper " + i);
+			helpers[i - 1].start();
+		}
+		Searcher main = searchers[0];
+		main.prepare(board, moves, safeCount, 1, table, timeManager, handle,
+				handle.getListener());
+		main.run();
+		for (int i = 1; i < searchers.length; i++) {
+			searchers[i].stop();
+		}
+		joinAll(helpers);
+
+		// The deepest search is the most reliable
+		Searcher best = main;
+		for (Searcher searcher : searchers) {
+			if (searcher.getCompletedDepth() > best.getCompletedDepth()) {
+				best = searcher;
+			}
+		}
+		completedDepth = best.getCompletedDepth();
+		ponderMove = expectedReply(board, best.getBestMove());
+		return board.toMove(best.getBestMove());
+	}
+
+	/**
+	 * Gets the opponent's best reply to the input move stored in the
+	 * transposition table
+	 * 
+	 * @param board
+	 *            The Board before the move
+	 * @param move
+	 *            The packed move of this player
+	 * @return The packed reply, or PackedMove.NONE if none is stored
+	 */
+	private int expectedReply(Board board, int move) {
+		board.makeMove(move);
+		int reply = PackedMove.NONE;
+		long entry = table.probe(board.getZobristKey(color.opp()));
+		if (entry != TranspositionTable.MISS
+				&& isLegal(board, color.opp(), TranspositionTable
+						.getMove(entry))) {
+			reply = TranspositionTable.getMove(entry);
+		}
+		board.unmakeMove();
+		return reply;
+	}
+
+	/**
+	 * Is the input packed move legal for the input Color on the input Board?
+	 */
+	private static boolean isLegal(Board board, Color color, int move) {
+		if (move == PackedMove.NONE) {
+			return false;
+		}
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generateMoves(board, color, moves);
+		for (int i = 0; i < count; i++) {
+			if (moves[i] == move) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Waits for every helper thread to finish
+	 * 
+	 * @param helpers
+	 *            The helper threads
+	 */
+	private static void joinAll(Thread[] helpers) {
+		boolean interrupted = false;
+		for (Thread helper : helpers) {
+			while (true) {
+				try {
+					helper.join();
+					break;
+				} catch (InterruptedException e) {
+					// The helpers have been stopped and will finish soon
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Passes progress on to a listener which is only known once the ponder
+	 * search becomes the search for a move
+	 */
+	private static final class ForwardingListener implements SearchListener {
+
+		/** The listener to pass progress on to, or null */
+		volatile SearchListener target;
+
+		@Override
+		public void onIteration(SearchInfo info) {
+			SearchListener listener = target;
+			if (listener != null) {
+				listener.onIteration(info);
+			}
+		}
 	}
 }
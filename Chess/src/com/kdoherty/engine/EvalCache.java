@@ -0,0 +1,127 @@
+package com.kdoherty.engine;
+
+import java.util.Arrays;
+
+/**
+ * A small fixed size hash table of evaluations keyed by Zobrist key. The
+ * quiescence search evaluates the same positions over and over, within one
+ * iteration through transpositions and again in every deeper iteration, so a
+ * stored score saves the whole evaluation.
+ * 
+ * Each entry is one long: the upper half of the key above the score. The
+ * lower half of the key picks the entry, so a position is only found again by
+ * a probe with the same key. Every store replaces what was there, so the
+ * cache is lossy, and an entry which happens to be 0 is never found.
+ * 
+ * @author Kevin Doherty
+ */
+public final class EvalCache {
+
+	/** The default number of entries of a cache */
+	public static final int DEFAULT_ENTRIES = 1 << 14;
+
+	/** Returned by probe when the key is not in the cache */
+	public static final int MISS = Integer.MIN_VALUE;
+
+	/** The bits of an entry holding the upper half of its key */
+	private static final long KEY_MASK = 0xFFFFFFFF00000000L;
+
+	/** The upper half of the key above the score of each entry */
+	private final long[] entries;
+
+	/** Used to find the index of a key */
+	private final int mask;
+
+	private long probes;
+
+	private long hits;
+
+	/**
+	 * Constructor for EvalCache.
+	 * 
+	 * @param entries
+	 *            The number of entries, rounded down to a power of two
+	 */
+	public EvalCache(int entries) {
+		int size = TableSize.entries(entries);
+		this.entries = new long[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Looks up the input key
+	 * 
+	 * @param key
+	 *            The Zobrist key of the position
+	 * @return The stored score, or MISS if the key is not stored
+	 */
+	public int probe(long key) {
+		probes++;
+		long entry = entries[(int) key & mask];
+		if (entry != 0 && ((entry ^ key) & KEY_MASK) == 0) {
+			hits++;
+			return (int) entry;
+		}
+		return MISS;
+	}
+
+	/**
+	 * Stores the score of a position, replacing whatever was stored in its
+	 * entry
+	 * 
+	 * @param key
+	 *            The Zobrist key of the position
+	 * @param score
+	 *            The score of the position, anything but MISS
+	 */
+	public void store(long key, int score) {
+		entries[(int) key & mask] = (key & KEY_MASK) | (score & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Removes every entry and resets the counters
+	 */
+	public void clear() {
+		Arrays.fill(entries, 0L);
+		probes = 0;
+		hits = 0;
+	}
+
+	/**
+	 * Gets the number of entries of this cache
+	 * 
+	 * @return The number of entries
+	 */
+	public int getCapacity() {
+		return entries.length;
+	}
+
+	/**
+	 * Gets the number of lookups since the cache was cleared
+	 * 
+	 * @return The number of probes
+	 */
+	public long getProbes() {
+		return probes;
+	}
+
+	/**
+	 * Gets the number of lookups which found their key since the cache was
+	 * cleared
+	 * 
+	 * @return The number of hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of lookups which didn't find their key since the cache
+	 * was cleared
+	 * 
+	 * @return The number of misses
+	 */
+	public long getMisses() {
+		return probes - hits;
+	}
+}
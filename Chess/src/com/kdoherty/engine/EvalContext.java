@@ -0,0 +1,66 @@
+package com.kdoherty.engine;
+
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Color;
+
+/**
+ * The state the evaluation keeps between positions of one search. Evaluate
+ * itself holds no mutable state, so any number of searches can evaluate at
+ * once as long as each has its own context. Whether a side has castled is
+ * read from the position each time, never remembered, so it can't leak from
+ * one line of play into another.
+ * 
+ * A context is not thread safe and neither are the PawnTable and EvalCache
+ * it owns. Each search thread needs its own.
+ * 
+ * @author Kevin Doherty
+ */
+public final class EvalContext {
+
+	/** The pawn structures evaluated in this context */
+	private final PawnTable pawnTable;
+
+	/** The positions evaluated in this context */
+	private final EvalCache evalCache;
+
+	/**
+	 * Constructor for EvalContext with tables of the default sizes
+	 */
+	public EvalContext() {
+		pawnTable = new PawnTable(PawnTable.DEFAULT_ENTRIES);
+		evalCache = new EvalCache(EvalCache.DEFAULT_ENTRIES);
+	}
+
+	/**
+	 * Gets the table the pawn structures of this context are stored in
+	 * 
+	 * @return The PawnTable of this context
+	 */
+	public PawnTable getPawnTable() {
+		return pawnTable;
+	}
+
+	/**
+	 * Gets the cache the evaluations of this context are stored in
+	 * 
+	 * @return The EvalCache of this context
+	 */
+	public EvalCache getEvalCache() {
+		return evalCache;
+	}
+
+	/**
+	 * Evaluates a Board from the input Color's perspective with the tables of
+	 * this context
+	 * 
+	 * @param board
+	 *            The Board to evaluate
+	 * @param color
+	 *            The perspective to evaluate from
+	 * @return A rating of the Board from the input Color's perspective. The
+	 *         higher the rating the better the position is for the input Color.
+	 */
+	public int evaluate(Board board, Color color) {
+		return Evaluate.evaluate(board, color, this);
+	}
+}
@@ -4,54 +4,95 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.kdoherty.chess.Bishop;
+import com.kdoherty.chess.Bitboard;
 import com.kdoherty.chess.Board;
 import com.kdoherty.chess.Color;
 import com.kdoherty.chess.King;
-import com.kdoherty.chess.Knight;
 import com.kdoherty.chess.Piece;
+import com.kdoherty.chess.PieceType;
+import com.kdoherty.chess.Position;
 import com.kdoherty.chess.Queen;
-import com.kdoherty.chess.Rook;
 import com.kdoherty.chess.Square;
 
 /**
  * This class is responsible for evaluating a Board. No thinking ahead is done
- * here.
+ * here. It holds no mutable state of its own: anything kept between positions
+ * lives in the EvalContext of the search, so several searches can evaluate at
+ * the same time.
  * 
  * @author Kevin Doherty
  */
 final class Evaluate {
-	
-	//TODO: Evaluate captures to higher depth than regular moves?
+
+	/**
+	 * The score of checkmating the opponent. No other evaluation comes close
+	 * so the search can tell mates apart from material scores.
+	 */
+	static final int MATE_SCORE = 100000;
+
+	/** The starting value of each kind of Piece indexed by PieceType */
+	static final int[] PIECE_VALUES = { PawnEval.START_VALUE,
+			KnightEval.START_VALUE, BishopEval.START_VALUE,
+			RookEval.START_VALUE, QueenEval.START_VALUE, KingEval.START_VALUE };
+
+	/**
+	 * How much each kind of Piece counts towards the phase of the game indexed
+	 * by PieceType. Pawns and Kings don't count.
+	 */
+	static final int[] PHASE_WEIGHTS = { 0, 1, 1, 2, 4, 0 };
+
+	/**
+	 * The phase of the game with all starting Pieces on the Board. A phase of
+	 * 0 is a pure end game.
+	 */
+	static final int MAX_PHASE = 24;
 
 	/**
 	 * The bonus given if it is the Board's side to move is the same as the
 	 * color we are evaluating the position from
 	 */
-	private static int SIDE_TO_MOVE_BONUS = 10;
+	private static final int SIDE_TO_MOVE_BONUS = 10;
 
 	/** The bonus to give if Color we are evaluating has both of their Bishops */
-	private static int BISHOP_PAIR_BONUS = 15;
+	private static final int BISHOP_PAIR_BONUS = 15;
 
-	/** The bonus given if the Color we are evaluating has castled */
-	private static int CASTLED_BONUS = 45;
+	/**
+	 * The bishop pair bonus in the end game, where the two Bishops can cover
+	 * both colors of an open Board
+	 */
+	private static final int ENDGAME_BISHOP_PAIR_BONUS = 50;
+
+	/**
+	 * The bonus given if the Color we are evaluating has castled. Only given
+	 * in the middle game.
+	 */
+	private static final int CASTLED_BONUS = 45;
 
 	/**
 	 * The bonus given if the Color we are evaluating has a Queen close to the
 	 * opposing Color's King
 	 */
-	private static int QUEEN_CLOSE_TO_KING_BONUS = 25;
+	private static final int QUEEN_CLOSE_TO_KING_BONUS = 25;
 
 	/**
-	 * Cached value for castling, because once white has castled we don't need
-	 * to keep checking
+	 * The Queen close to King bonus in the end game, where there are fewer
+	 * Pieces left to join the attack
 	 */
-	private static boolean whiteCastled = false;
+	private static final int ENDGAME_QUEEN_CLOSE_TO_KING_BONUS = 10;
 
 	/**
-	 * Cached value for castling, because once black has castled we don't need
-	 * to keep checking
+	 * Mixed into the cache key of a position when the Color we are evaluating
+	 * has castled, which the Zobrist key doesn't tell
 	 */
-	private static boolean blackCastled = false;
+	private static final long CASTLED_KEY = 0x5D2B6F4E8A1C3079L;
+
+	/**
+	 * Positions are only cached from this move of the game on. Before it the
+	 * Knight and Queen penalties for moving early depend on how often each
+	 * Piece has moved, which the key doesn't tell.
+	 */
+	private static final int FIRST_CACHED_MOVE = Math.max(
+			KnightEval.TEMPO_MOVES, QueenEval.OUT_EARLY_MOVES);
 
 	/**
 	 * Evaluates a Board from the input Colors perspective.
@@ -60,37 +101,59 @@ final class Evaluate {
 	 *            Board The Board to evaluate.
 	 * @param color
 	 *            Color The perspective to evaluate from.
+	 * @param context
+	 *            EvalContext The state kept by the search between positions
 	 * @return A rating of the Board from the input Color's perspective. The
 	 *         higher the rating the better the position is for the input Color.
 	 */
-	static int evaluate(Board b, Color color) {
+	static int evaluate(Board b, Color color, EvalContext context) {
+		boolean castled = b.findKing(color).hasCastled();
+		int value;
+		if (b.getMoveCount() < FIRST_CACHED_MOVE) {
+			value = evaluatePosition(b, color, castled, context);
+		} else {
+			long key = b.getZobristKey(color) ^ (castled ? CASTLED_KEY : 0);
+			EvalCache cache = context.getEvalCache();
+			value = cache.probe(key);
+			if (value == EvalCache.MISS) {
+				value = evaluatePosition(b, color, castled, context);
+				cache.store(key, value);
+			}
+		}
+		// The Board's side to move is not part of the key
+		if (value != MATE_SCORE && b.getSideToMove() == color) {
+			value += SIDE_TO_MOVE_BONUS;
+		}
+		return value;
+	}
+
+	/**
+	 * Evaluates everything but the side to move bonus of a Board from the
+	 * input Colors perspective
+	 */
+	private static int evaluatePosition(Board b, Color color, boolean castled,
+			EvalContext context) {
 		if (b.isCheckMate(color.opp())) {
-			return Integer.MAX_VALUE;
+			return MATE_SCORE;
 		}
 		int value = 0;
-		if (color == Color.WHITE) {
-			if ((whiteCastled || b.findKing(Color.WHITE).hasCastled())
-					&& !isEndGame(b)) {
-				whiteCastled = true;
-				value += CASTLED_BONUS;
-			}
-		} else if ((blackCastled || b.findKing(Color.BLACK).hasCastled())
-				&& !isEndGame(b)) {
-			blackCastled = true;
-			value += CASTLED_BONUS;
+		int phase = getPhase(b);
+		if (castled) {
+			value += taper(CASTLED_BONUS, 0, phase);
 		}
 		if (queenCloseToKing(b, color)) {
-			value += QUEEN_CLOSE_TO_KING_BONUS;
+			value += taper(QUEEN_CLOSE_TO_KING_BONUS,
+					ENDGAME_QUEEN_CLOSE_TO_KING_BONUS, phase);
 		}
 		if (hasBishopPair(b, color)) {
-			value += BISHOP_PAIR_BONUS;
-		}
-		if (b.getSideToMove() == color) {
-			value += SIDE_TO_MOVE_BONUS;
+			value += taper(BISHOP_PAIR_BONUS, ENDGAME_BISHOP_PAIR_BONUS,
+					phase);
 		}
 
 		//value += (getNumMoves(b, color) - getNumMoves(b, color.opp()));
-		value += getMaterialCount(b, color);
+		PawnTable pawns = context.getPawnTable();
+		pawns.probe(b);
+		value += getMaterialCount(b, color, phase, pawns);
 
 		return value;
 	}
@@ -154,71 +217,35 @@ final class Evaluate {
 	}
 
 	/**
-	 * Are there still queens on the Board?
+	 * Gets the phase of the game on the input Board, from MAX_PHASE with all
+	 * starting Pieces on the Board down to 0 once only Pawns and Kings are
+	 * left. The Board keeps the sum of the phase weights of its Pieces up to
+	 * date, so this is O(1). Promotions can push the sum past MAX_PHASE.
 	 * 
 	 * @param b
-	 *            Board to check if there are still queens on.
-	 * @return Are there still queens on the Board?
-	 */
-	private static boolean stillQueens(Board b) {
-		for (int i = 0; i < Board.NUM_ROWS; i++) {
-			for (int j = 0; j < Board.NUM_COLS; j++) {
-				Piece p = b.getOccupant(i, j);
-				if (p != null && p instanceof Queen)
-					return true;
-			}
-		}
-		return false;
-	}
-
-	/**
-	 * Are there still minor pieces on the Board? Minor pieces are Bishops and
-	 * Knights.
-	 * 
-	 * @param b
-	 *            Board The Board to check if there are still minor pieces on
-	 * @return Are there still minor pieces on the Board.
-	 */
-	private static boolean stillMinorPieces(Board b) {
-		for (int i = 0; i < Board.NUM_ROWS; i++) {
-			for (int j = 0; j < Board.NUM_COLS; j++) {
-				Piece p = b.getOccupant(i, j);
-				if (p != null && (p instanceof Knight || p instanceof Bishop))
-					return true;
-			}
-		}
-		return false;
-	}
-
-	/**
-	 * Are there still rooks on the Board?
-	 * 
-	 * @param b
-	 *            Board to check if there are still rooks on.
-	 * @return Are there still rooks on the Board?
+	 *            Board
+	 * @return The phase of the game between 0 and MAX_PHASE
 	 */
-	private static boolean stillRooks(Board b) {
-		for (int i = 0; i < Board.NUM_ROWS; i++) {
-			for (int j = 0; j < Board.NUM_COLS; j++) {
-				Piece p = b.getOccupant(i, j);
-				if (p != null && p instanceof Rook)
-					return true;
-			}
-		}
-		return false;
+	static int getPhase(Board b) {
+		return Math.min(b.getPhase(), MAX_PHASE);
 	}
 
 	/**
-	 * Is it the end game on the input Board? It is the end game when there are
-	 * either no queens on the Board or there are no minor pieces and no rooks
-	 * on the board
+	 * Blends a middle game and an end game value by the phase of the game, so
+	 * scores change smoothly as Pieces come off the Board instead of jumping
+	 * when the end game starts.
 	 * 
-	 * @param b
-	 *            Board
-	 * @return boolean
+	 * @param middleGame
+	 *            The value with all Pieces on the Board
+	 * @param endGame
+	 *            The value with only Pawns and Kings on the Board
+	 * @param phase
+	 *            The phase of the game between 0 and MAX_PHASE
+	 * @return The blended value
 	 */
-	static boolean isEndGame(Board b) {
-		return !stillQueens(b) || (!stillMinorPieces(b) && !stillRooks(b));
+	static int taper(int middleGame, int endGame, int phase) {
+		return (middleGame * phase + endGame * (MAX_PHASE - phase))
+				/ MAX_PHASE;
 	}
 
 	/**
@@ -259,19 +286,53 @@ final class Evaluate {
 
 	/**
 	 * Gets the total Piece value of all Pieces on the input Board of the input
-	 * Color.
+	 * Color. The starting values and the middle and end game Square bonuses
+	 * are kept up to date by the Board and the pawn structure comes from the
+	 * PawnTable, so only the other parts which depend on the other Pieces are
+	 * found here.
 	 * 
 	 * @param board
 	 *            The Board to get the total Piece value on.
 	 * @param color
 	 *            The Color of the Pieces to add to the total
+	 * @param phase
+	 *            The phase of the game
+	 * @param pawns
+	 *            The PawnTable with the entry of the Board's Pawns current
 	 * @return The total Piece value of all Pieces on the input Board of the
 	 *         input Color.
 	 */
-	private static int getTotalPieceValue(Board board, Color color) {
-		int total = 0;
-		for (Piece p : board.getPieces(color)) {
-			total += p.evaluate(board);
+	private static int getTotalPieceValue(Board board, Color color,
+			int phase, PawnTable pawns) {
+		Position pos = board.getPosition();
+		int us = Position.index(color);
+		int total = board.getMaterial(color)
+				+ taper(board.getMiddleGameValue(color),
+						board.getEndGameValue(color), phase)
+				+ taper(pawns.getMiddleGameScore(us),
+						pawns.getEndGameScore(us), phase);
+		long pieces = pos.getPieces(us)
+				& ~(pos.getPieces(us, PieceType.PAWN) | pos.getPieces(us,
+						PieceType.KING));
+		while (pieces != 0) {
+			int sq = Bitboard.first(pieces);
+			pieces = Bitboard.removeFirst(pieces);
+			Piece piece = board.getOccupant(Bitboard.row(sq), Bitboard.col(sq));
+			switch (pos.getType(sq)) {
+			case PieceType.KNIGHT:
+				total += KnightEval.dynamicValue(board, piece, phase);
+				break;
+			case PieceType.BISHOP:
+				total += BishopEval.dynamicValue(board, piece, phase);
+				break;
+			case PieceType.ROOK:
+				total += RookEval.dynamicValue(board, piece,
+						pawns.getOpenFiles(), pawns.getSemiOpenFiles(us), phase);
+				break;
+			default:
+				total += QueenEval.dynamicValue(board, piece, phase);
+				break;
+			}
 		}
 		return total;
 	}
@@ -284,13 +345,18 @@ final class Evaluate {
 	 *            The Board to get the material count on
 	 * @param color
 	 *            The perspective to view the material count from.
+	 * @param phase
+	 *            The phase of the game
+	 * @param pawns
+	 *            The PawnTable with the entry of the Board's Pawns current
 	 * @return The difference in material count obtained by subtracting the
 	 *         opposite color's material count form the input Color's material
 	 *         count. The higher the returned value, the better the evaluation
 	 *         from the perspective of the input Color.
 	 */
-	private static int getMaterialCount(Board board, Color color) {
-		return getTotalPieceValue(board, color)
-				- getTotalPieceValue(board, color.opp());
+	private static int getMaterialCount(Board board, Color color,
+			int phase, PawnTable pawns) {
+		return getTotalPieceValue(board, color, phase, pawns)
+				- getTotalPieceValue(board, color.opp(), phase, pawns);
 	}
 }
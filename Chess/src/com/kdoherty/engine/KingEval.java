@@ -1,9 +1,8 @@
 package com.kdoherty.engine;
 
 import com.kdoherty.chess.Board;
-import com.kdoherty.chess.Color;
 import com.kdoherty.chess.King;
-import com.kdoherty.chess.Square;
+import com.kdoherty.chess.Position;
 
 /**
  * This class is responsible for evaluating a King. It takes into account its
@@ -70,13 +69,29 @@ public final class KingEval extends PieceEval {
 	 */
 	@Override
 	public int evaluate() {
-		Square s = piece.getSq();
-		int index = color == Color.WHITE ? s.toNum() : 63 - s.toNum();
+		int sq = piece.getSq().toNum();
+		return START_VALUE
+				+ Evaluate.taper(
+						squareValue(Position.index(color), sq, false),
+						squareValue(Position.index(color), sq, true),
+						Evaluate.getPhase(board));
+	}
 
-		int value = START_VALUE;
-		value += Evaluate.isEndGame(board) ? ENDGAME_BOARD_VALUES[index]
+	/**
+	 * Gets the bonus or penalty of a King on the input Square in the middle
+	 * game or the end game
+	 * 
+	 * @param color
+	 *            The Color index of the King
+	 * @param sq
+	 *            The Square of the King
+	 * @param endGame
+	 *            Whether to use the end game board values
+	 * @return The value of the Square from the board values of the phase
+	 */
+	static int squareValue(int color, int sq, boolean endGame) {
+		int index = color == Position.WHITE ? sq : 63 - sq;
+		return endGame ? ENDGAME_BOARD_VALUES[index]
 				: MIDDLEGAME_BOARD_VALUES[index];
-
-		return value;
 	}
 }
@@ -1,9 +1,9 @@
 package com.kdoherty.engine;
 
 import com.kdoherty.chess.Board;
-import com.kdoherty.chess.Color;
 import com.kdoherty.chess.Knight;
-import com.kdoherty.chess.Square;
+import com.kdoherty.chess.Piece;
+import com.kdoherty.chess.Position;
 
 /**
  * This class is responsible for evaluating a Knight. It takes into account its
@@ -19,7 +19,7 @@ public final class KnightEval extends PieceEval {
 
 	/**
 	 * Penalty given because knights get worse in end games because they are bad
-	 * at stopping Pawns
+	 * at stopping Pawns. It grows as the game goes into the end game.
 	 */
 	private static int ENDGAME_PENALTY = -10;
 
@@ -29,6 +29,9 @@ public final class KnightEval extends PieceEval {
 	/** Penalty given for moving too many times early in the game */
 	private static int LOSS_TEMPO_PENALTY = -30;
 
+	/** The number of moves of the game the loss of tempo penalty is given for */
+	static final int TEMPO_MOVES = 10;
+
 	/**
 	 * Bonuses and penalties added to a Knight's value based on its position on
 	 * the Board
@@ -43,6 +46,21 @@ public final class KnightEval extends PieceEval {
 		  -40, -20,   0,   0,   0,   0, -20, -40,
 		  -50, -40, -30, -30, -30, -30, -40, -50 };
 
+	/**
+	 * Bonuses and penalties added to a Knight's value based on its position in
+	 * the end game. A Knight is still best in the center, where it can reach
+	 * both wings.
+	 */
+	private static int[] ENDGAME_BOARD_VALUES = {
+		  -50, -40, -30, -30, -30, -30, -40, -50,
+		  -40, -20, -10,  -5,  -5, -10, -20, -40,
+		  -30, -10,   5,  10,  10,   5, -10, -30,
+		  -30,  -5,  10,  15,  15,  10,  -5, -30,
+		  -30,  -5,  10,  15,  15,  10,  -5, -30,
+		  -30, -10,   5,  10,  10,   5, -10, -30,
+		  -40, -20, -10,  -5,  -5, -10, -20, -40,
+		  -50, -40, -30, -30, -30, -30, -40, -50 };
+
 	/**
 	 * Constructor for KnightEval
 	 * 
@@ -63,23 +81,51 @@ public final class KnightEval extends PieceEval {
 	 */
 	@Override
 	public int evaluate() {
+		int sq = piece.getSq().toNum();
+		int phase = Evaluate.getPhase(board);
+		return START_VALUE
+				+ Evaluate.taper(squareValue(Position.index(color), sq, false),
+						squareValue(Position.index(color), sq, true), phase)
+				+ dynamicValue(board, piece, phase);
+	}
 
-		Square s = piece.getSq();
-		int index = color == Color.WHITE ? s.toNum() : 63 - s.toNum();
-
-		int value = START_VALUE;
-		value += BOARD_VALUES[index];
+	/**
+	 * Gets the bonus or penalty of a Knight on the input Square in the middle
+	 * game or the end game
+	 * 
+	 * @param color
+	 *            The Color index of the Knight
+	 * @param sq
+	 *            The Square of the Knight
+	 * @param endGame
+	 *            Whether to use the end game board values
+	 * @return The value of the Square from the board values of the phase
+	 */
+	static int squareValue(int color, int sq, boolean endGame) {
+		int index = color == Position.WHITE ? sq : 63 - sq;
+		return endGame ? ENDGAME_BOARD_VALUES[index] : BOARD_VALUES[index];
+	}
 
-		if (Evaluate.isEndGame(board)) {
-			value += ENDGAME_PENALTY;
-		}
-		if (isBlockingCenterPawn()) {
+	/**
+	 * Gets the part of a Knight's value which depends on the other Pieces and
+	 * the phase of the game
+	 * 
+	 * @param board
+	 *            The Board the Knight is on
+	 * @param knight
+	 *            The Knight to evaluate
+	 * @param phase
+	 *            The phase of the game
+	 * @return The bonuses and penalties of the Knight
+	 */
+	static int dynamicValue(Board board, Piece knight, int phase) {
+		int value = Evaluate.taper(0, ENDGAME_PENALTY, phase);
+		if (isBlockingCenterPawn(board, knight)) {
 			value += BLOCKING_CNTR_PAWN_PENALTY;
 		}
-		if (piece.getMoveCount() > 1 && board.getMoveCount() < 10) {
+		if (knight.getMoveCount() > 1 && board.getMoveCount() < TEMPO_MOVES) {
 			value += LOSS_TEMPO_PENALTY;
 		}
-
 		return value;
 	}
 
@@ -136,7 +136,8 @@ public final class MateSolver {
 	 *         from the input Color.
 	 */
 	private static Move findMateInOne(Board b, Color color) {
-		List<Move> moves = b.getMoves(color);
+		// Only a Move which gives check can mate
+		List<Move> moves = b.getChecks(color);
 		for (Move move : moves) {
 			move.make();
 			if (b.isCheckMate(color.opp())) {
@@ -0,0 +1,231 @@
+package com.kdoherty.engine;
+
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Color;
+import com.kdoherty.chess.Move;
+import com.kdoherty.chess.MoveGenerator;
+import com.kdoherty.chess.PackedMove;
+import com.kdoherty.chess.PieceType;
+
+/**
+ * Hands out the Moves of one position in the order most likely to cause an
+ * alpha-beta cutoff. The Moves are handed out in stages:
+ * 
+ * 1. The best Move stored in the transposition table
+ * 
+ * 2. Captures and promotions which don't lose material, most valuable victim
+ * and least valuable attacker (MVV-LVA) first
+ * 
+ * 3. The killer Moves of this ply, quiet Moves which caused a cutoff in a
+ * sibling position
+ * 
+ * 4. The other quiet Moves, ordered by how often they caused cutoffs anywhere
+ * in the search (the history heuristic)
+ * 
+ * 5. Captures which lose material according to static exchange evaluation
+ * 
+ * Each Move is given a score in the band of its stage when the position is
+ * generated, and next picks the highest remaining score. Picking one Move at
+ * a time means no time is spent ordering Moves after a cutoff. No Move is
+ * made while ordering and nothing is allocated, so the search keeps one
+ * MovePicker per ply.
+ * 
+ * @author Kevin Doherty
+ */
+final class MovePicker {
+
+	private static final int TABLE_MOVE_SCORE = 1 << 30;
+
+	private static final int GOOD_CAPTURE_SCORE = 1 << 29;
+
+	private static final int KILLER_SCORE = 1 << 28;
+
+	private static final int BAD_CAPTURE_SCORE = -(1 << 29);
+
+	/**
+	 * History scores are halved when one reaches this, which keeps them
+	 * below the killer Moves
+	 */
+	private static final int MAX_HISTORY = 1 << 20;
+
+	private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+	private final int[] scores = new int[MoveGenerator.MAX_MOVES];
+
+	/** The number of Moves generated */
+	private int count;
+
+	/** The index of the next Move to hand out */
+	private int index;
+
+	/** Whether captures which lose material are handed out */
+	private boolean includeBadCaptures;
+
+	/**
+	 * Generates and scores every legal Move of the input Color
+	 * 
+	 * @param board
+	 *            The Board to generate Moves on
+	 * @param color
+	 *            The Color to move
+	 * @param tableMove
+	 *            The best Move stored in the transposition table or
+	 *            PackedMove.NONE
+	 * @param killers
+	 *            The killer Moves of this ply, PackedMove.NONE if empty
+	 * @param history
+	 *            The history scores of the Color to move indexed by from and
+	 *            to Square
+	 */
+	void init(Board board, Color color, int tableMove, int[] killers,
+			int[][] history) {
+		count = MoveGenerator.generateMoves(board, color, moves);
+		index = 0;
+		includeBadCaptures = true;
+		for (int i = 0; i < count; i++) {
+			int move = moves[i];
+			if (move == tableMove) {
+				scores[i] = TABLE_MOVE_SCORE;
+			} else if (PackedMove.isCapture(move)
+					|| PackedMove.isPromotion(move)) {
+				scores[i] = scoreCapture(board, move);
+			} else if (move == killers[0]) {
+				scores[i] = KILLER_SCORE + 1;
+			} else if (move == killers[1]) {
+				scores[i] = KILLER_SCORE;
+			} else {
+				scores[i] = history[PackedMove.from(move)][PackedMove.to(move)];
+			}
+		}
+	}
+
+	/**
+	 * Generates and scores the captures and promotions of the input Color for
+	 * the quiescence search. Captures which lose material are never handed
+	 * out.
+	 * 
+	 * @param board
+	 *            The Board to generate Moves on
+	 * @param color
+	 *            The Color to move
+	 */
+	void initCaptures(Board board, Color color) {
+		count = MoveGenerator.generateCaptures(board, color, moves);
+		index = 0;
+		includeBadCaptures = false;
+		for (int i = 0; i < count; i++) {
+			scores[i] = scoreCapture(board, moves[i]);
+		}
+	}
+
+	/**
+	 * Gets the next Move to search
+	 * 
+	 * @return The packed Move with the highest score not handed out yet, or
+	 *         PackedMove.NONE when there are no Moves left
+	 */
+	int next() {
+		if (index == count) {
+			return PackedMove.NONE;
+		}
+		int best = index;
+		for (int i = index + 1; i < count; i++) {
+			if (scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+		if (!includeBadCaptures && scores[best] < 0) {
+			index = count;
+			return PackedMove.NONE;
+		}
+		int move = moves[best];
+		moves[best] = moves[index];
+		scores[best] = scores[index];
+		index++;
+		return move;
+	}
+
+	/**
+	 * Gets the number of Moves generated, including any which won't be handed
+	 * out
+	 * 
+	 * @return The number of Moves generated
+	 */
+	int getMoveCount() {
+		return count;
+	}
+
+	/**
+	 * Is the input packed Move quiet, meaning it neither captures nor
+	 * promotes? Only quiet Moves are used as killers and in the history.
+	 * 
+	 * @param move
+	 *            The packed Move
+	 * @return true if the Move is quiet
+	 */
+	static boolean isQuiet(int move) {
+		return !PackedMove.isCapture(move) && !PackedMove.isPromotion(move);
+	}
+
+	/**
+	 * Records a quiet Move which caused a cutoff
+	 * 
+	 * @param move
+	 *            The quiet packed Move
+	 * @param depth
+	 *            The depth searched below the Move. Deeper cutoffs are worth
+	 *            more.
+	 * @param killers
+	 *            The killer Moves of the ply of the cutoff
+	 * @param history
+	 *            The history scores of the Color which made the Move
+	 */
+	static void recordCutoff(int move, int depth, int[] killers,
+			int[][] history) {
+		if (move != killers[0]) {
+			killers[1] = killers[0];
+			killers[0] = move;
+		}
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		history[from][to] += depth * depth;
+		if (history[from][to] >= MAX_HISTORY) {
+			ageHistory(history);
+		}
+	}
+
+	/**
+	 * Halves every history score so recent cutoffs count more than old ones
+	 * 
+	 * @param history
+	 *            The history scores of one Color
+	 */
+	static void ageHistory(int[][] history) {
+		for (int[] fromScores : history) {
+			for (int to = 0; to < fromScores.length; to++) {
+				fromScores[to] >>= 1;
+			}
+		}
+	}
+
+	/**
+	 * Scores a capture or promotion by MVV-LVA within the band of good or bad
+	 * captures. The victim is ranked by the material gained, so a promotion
+	 * to a Queen adds a Queen less the Pawn to whatever it takes.
+	 */
+	private static int scoreCapture(Board board, int move) {
+		int captured = PackedMove.captured(move);
+		int gain = captured == PieceType.NONE ? 0
+				: Evaluate.PIECE_VALUES[captured];
+		if (PackedMove.type(move) == Move.Type.PROMOTION_QUEEN) {
+			gain += Evaluate.PIECE_VALUES[PieceType.QUEEN]
+					- Evaluate.PIECE_VALUES[PieceType.PAWN];
+		}
+		int mvvLva = gain * PieceType.COUNT + PieceType.KING
+				- PackedMove.piece(move);
+		if (StaticExchange.evaluate(board, move) < 0) {
+			return BAD_CAPTURE_SCORE + mvvLva;
+		}
+		return GOOD_CAPTURE_SCORE + mvvLva;
+	}
+}
@@ -0,0 +1,441 @@
+package com.kdoherty.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Color;
+import com.kdoherty.chess.Move;
+import com.kdoherty.chess.MoveGenerator;
+
+/**
+ * Searches a position to a fixed depth by splitting the root moves between
+ * worker threads, for batch analysis where a position must be searched to the
+ * same depth every time. Each worker searches its root moves on its own clone
+ * of the Board. Forced checkmates are looked for first, with each worker's
+ * proof-number solver trying a fixed share of the root moves.
+ * 
+ * Normally workers take the next unsearched root move whenever they finish
+ * one, share the transposition table and share the best score found so far
+ * as alpha, so moves searched late still get cut off by what the other
+ * workers found. Because the order the workers finish in changes from run to
+ * run, so can the result when two moves are close.
+ * 
+ * In deterministic mode every worker searches a fixed share of the root moves
+ * in a fixed order with its own transposition table and its own alpha, and the
+ * mate search starts from an empty table. This prunes less but always gives
+ * the same move and score for the same position and depth.
+ * 
+ * @author Kevin Doherty
+ */
+public final class ParallelRootSearch {
+
+	/** Runs the workers */
+	private final ExecutorService executor;
+
+	/** The number of workers */
+	private final int threads;
+
+	/** The size of the transposition table of the search in MB */
+	private final int hashMegabytes;
+
+	/** Shared by all workers unless the search is deterministic */
+	private TranspositionTable sharedTable;
+
+	/**
+	 * Look for forced checkmates before searching, one per worker, each
+	 * trying its own share of the root moves
+	 */
+	private final ProofNumberSolver[] mateSolvers;
+
+	/** One table per worker for deterministic searches */
+	private TranspositionTable[] workerTables;
+
+	private boolean deterministic;
+
+	/** The score of the move returned by the last search */
+	private int score;
+
+	/** The depth the last search completed */
+	private int completedDepth;
+
+	/**
+	 * Constructor for ParallelRootSearch.
+	 * 
+	 * @param threads
+	 *            The number of worker threads, at least 1
+	 * @param hashMegabytes
+	 *            The most memory the transposition tables may use in total
+	 */
+	public ParallelRootSearch(int threads, int hashMegabytes) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(
+					"At least one worker thread is needed but was given "
+							+ threads);
+		}
+		this.threads = threads;
+		this.hashMegabytes = hashMegabytes;
+		sharedTable = new TranspositionTable(hashMegabytes);
+		mateSolvers = new ProofNumberSolver[threads];
+		for (int i = 0; i < threads; i++) {
+			mateSolvers[i] = new ProofNumberSolver(Math.max(1, hashMegabytes
+					/ 8 / threads));
+		}
+		executor = Executors.newFixedThreadPool(threads);
+	}
+
+	/**
+	 * Makes every search give the same result for the same position and
+	 * depth, at the cost of pruning less
+	 * 
+	 * @param deterministic
+	 *            Whether searches must be deterministic
+	 */
+	public void setDeterministic(boolean deterministic) {
+		this.deterministic = deterministic;
+	}
+
+	/**
+	 * Are searches deterministic?
+	 * 
+	 * @return true if every search gives the same result for the same
+	 *         position and depth
+	 */
+	public boolean isDeterministic() {
+		return deterministic;
+	}
+
+	/**
+	 * Searches the input Board to the input depth. Forced checkmates are
+	 * looked for first.
+	 * 
+	 * @param board
+	 *            The Board to search. It is not changed.
+	 * @param color
+	 *            The Color to find a move for
+	 * @param depth
+	 *            The depth to search to in plies, at least 1
+	 * @return The best Move found, or null if the input Color has no moves
+	 */
+	public Move search(Board board, Color color, int depth) {
+		if (depth < 1 || depth >= Searcher.MAX_PLY) {
+			throw new IllegalArgumentException("Can't search to depth "
+					+ depth);
+		}
+		score = 0;
+		completedDepth = 0;
+
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generateMoves(board, color, moves);
+		if (count == 0) {
+			return null;
+		}
+
+		Move mate = findMate(board, color, moves, count);
+		if (mate != null) {
+			return mate;
+		}
+
+		sharedTable.newSearch();
+		Searcher[] searchers = new Searcher[threads];
+		for (int i = 0; i < threads; i++) {
+			searchers[i] = new Searcher(color);
+			searchers[i].prepare(board.clone(), moves, count, 1,
+					getTable(i), null, null, null);
+		}
+
+		int[] scores = new int[count];
+		for (int d = 1; d <= depth; d++) {
+			searchIteration(searchers, moves, scores, count, d);
+			sortByScore(moves, scores, count);
+			score = scores[0];
+			completedDepth = d;
+		}
+		return board.toMove(moves[0]);
+	}
+
+	/**
+	 * Gets the score of the move returned by the last search
+	 * 
+	 * @return The score from the perspective of the Color to move
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Gets the depth completed by the last search
+	 * 
+	 * @return The depth in plies, 0 if the move was found without searching
+	 */
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Stops the worker threads. No search can be made afterwards.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Looks for the shortest forced checkmate with every worker's mate solver
+	 * trying a fixed share of the root moves. Of mates of the same length the
+	 * one of the first worker is taken, so the result doesn't depend on which
+	 * worker finishes first. Sets the score if a mate is found.
+	 * 
+	 * @return The first move of the mate, or null if none was found
+	 */
+	private Move findMate(Board board, Color color, int[] moves, int count) {
+		int n = CpuPlayer.getMateSearchDepth(board, color);
+		List<Future<Move>> results = new ArrayList<Future<Move>>(threads);
+		for (int i = 0; i < threads; i++) {
+			if (deterministic) {
+				// A warm table could find a mate an earlier search gave up on
+				mateSolvers[i].clear();
+			}
+			int[] share = new int[count];
+			int shareCount = 0;
+			for (int j = i; j < count; j += threads) {
+				share[shareCount++] = moves[j];
+			}
+			results.add(executor.submit(new MateWorker(mateSolvers[i], board
+					.clone(), color, n, share, shareCount)));
+		}
+		Move mate = null;
+		int distance = 0;
+		for (int i = 0; i < threads; i++) {
+			Move move = waitFor(results.get(i));
+			if (move != null
+					&& (mate == null || mateSolvers[i].getMateDistance() < distance)) {
+				mate = move;
+				distance = mateSolvers[i].getMateDistance();
+			}
+		}
+		if (mate != null) {
+			// Mating on the nth move is 2n - 1 plies away
+			score = Evaluate.MATE_SCORE - (2 * distance - 1);
+		}
+		return mate;
+	}
+
+	/**
+	 * Gets the transposition table of a worker, clearing it for a
+	 * deterministic search so earlier searches have no effect
+	 */
+	private TranspositionTable getTable(int worker) {
+		if (!deterministic) {
+			return sharedTable;
+		}
+		if (workerTables == null) {
+			workerTables = new TranspositionTable[threads];
+			for (int i = 0; i < threads; i++) {
+				workerTables[i] = new TranspositionTable(Math.max(1,
+						hashMegabytes / threads));
+			}
+		}
+		workerTables[worker].clear();
+		return workerTables[worker];
+	}
+
+	/**
+	 * Searches every root move to the input depth, writing the score of each
+	 * move into the scores array. A move which is no better than the alpha it
+	 * was searched with gets an upper bound, one point below the best score,
+	 * so the best move always sorts first.
+	 */
+	private void searchIteration(Searcher[] searchers, int[] moves,
+			int[] scores, int count, int depth) {
+		AtomicInteger nextMove = new AtomicInteger();
+		AtomicInteger sharedAlpha = new AtomicInteger(-Searcher.INFINITY);
+		List<Future<Void>> results = new ArrayList<Future<Void>>(threads);
+		for (int i = 0; i < threads; i++) {
+			results.add(executor.submit(new Worker(searchers[i], i, moves,
+					scores, count, depth, nextMove, sharedAlpha)));
+		}
+		for (Future<Void> result : results) {
+			waitFor(result);
+		}
+	}
+
+	/**
+	 * Waits for the result of a worker
+	 */
+	private static <T> T waitFor(Future<T> result) {
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while searching", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Sorts the moves by descending score. Insertion sort is stable, so moves
+	 * with the same score keep their order and the result is deterministic.
+	 */
+	private static void sortByScore(int[] moves, int[] scores, int count) {
+		for (int i = 1; i < count; i++) {
+			int move = moves[i];
+			int moveScore = scores[i];
+			int j = i - 1;
+			while (j >= 0 && scores[j] < moveScore) {
+				moves[j + 1] = moves[j];
+				scores[j + 1] = scores[j];
+				j--;
+			}
+			moves[j + 1] = move;
+			scores[j + 1] = moveScore;
+		}
+	}
+
+	/**
+	 * Searches root moves on one thread
+	 */
+	private final class Worker implements Callable<Void> {
+
+		private final Searcher searcher;
+
+		private final int index;
+
+		private final int[] moves;
+
+		private final int[] scores;
+
+		private final int count;
+
+		private final int depth;
+
+		/** The index of the next root move nobody has taken yet */
+		private final AtomicInteger nextMove;
+
+		/** The best score any worker has found */
+		private final AtomicInteger sharedAlpha;
+
+		/**
+		 * Constructor for Worker.
+		 * 
+		 * @param searcher
+		 *            The Searcher only used by this worker
+		 * @param index
+		 *            The index of this worker
+		 * @param moves
+		 *            The root moves
+		 * @param scores
+		 *            Where the score of each root move is written
+		 * @param count
+		 *            The number of root moves
+		 * @param depth
+		 *            The depth to search to
+		 * @param nextMove
+		 *            Hands out root moves when not deterministic
+		 * @param sharedAlpha
+		 *            Alpha shared between workers when not deterministic
+		 */
+		Worker(Searcher searcher, int index, int[] moves, int[] scores,
+				int count, int depth, AtomicInteger nextMove,
+				AtomicInteger sharedAlpha) {
+			this.searcher = searcher;
+			this.index = index;
+			this.moves = moves;
+			this.scores = scores;
+			this.count = count;
+			this.depth = depth;
+			this.nextMove = nextMove;
+			this.sharedAlpha = sharedAlpha;
+		}
+
+		@Override
+		public Void call() {
+			int localAlpha = -Searcher.INFINITY;
+			int i = deterministic ? index : nextMove.getAndIncrement();
+			while (i < count) {
+				int alpha = deterministic ? localAlpha : sharedAlpha.get();
+				int moveScore = searcher.searchRootMove(moves[i], depth,
+						alpha);
+				if (moveScore <= alpha) {
+					// Only a bound, keep it below the move which set alpha
+					moveScore = Math.min(moveScore, alpha - 1);
+				} else if (deterministic) {
+					localAlpha = moveScore;
+				} else {
+					raise(sharedAlpha, moveScore);
+				}
+				scores[i] = moveScore;
+				i = deterministic ? i + threads : nextMove.getAndIncrement();
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Looks for a forced checkmate starting with one of a share of the root
+	 * moves on one thread
+	 */
+	private static final class MateWorker implements Callable<Move> {
+
+		private final ProofNumberSolver solver;
+
+		private final Board board;
+
+		private final Color color;
+
+		private final int n;
+
+		private final int[] moves;
+
+		private final int count;
+
+		/**
+		 * Constructor for MateWorker.
+		 * 
+		 * @param solver
+		 *            The mate solver only used by this worker
+		 * @param board
+		 *            A Board only used by this worker
+		 * @param color
+		 *            The Color looking for a checkmate
+		 * @param n
+		 *            The number of moves to look for a checkmate in or less
+		 * @param moves
+		 *            The packed root moves of this worker
+		 * @param count
+		 *            The number of root moves of this worker
+		 */
+		MateWorker(ProofNumberSolver solver, Board board, Color color, int n,
+				int[] moves, int count) {
+			this.solver = solver;
+			this.board = board;
+			this.color = color;
+			this.n = n;
+			this.moves = moves;
+			this.count = count;
+		}
+
+		@Override
+		public Move call() {
+			return solver.findMate(board, color, n, moves, count);
+		}
+	}
+
+	/**
+	 * Raises the input alpha to the input score if the score is higher
+	 */
+	private static void raise(AtomicInteger alpha, int score) {
+		while (true) {
+			int current = alpha.get();
+			if (score <= current || alpha.compareAndSet(current, score)) {
+				return;
+			}
+		}
+	}
+}
@@ -4,7 +4,7 @@ import com.kdoherty.chess.Piece;
 import com.kdoherty.chess.Board;
 import com.kdoherty.chess.Color;
 import com.kdoherty.chess.Pawn;
-import com.kdoherty.chess.Square;
+import com.kdoherty.chess.Position;
 
 /**
  * This class is responsible for evaluating a Pawn. It takes into account its
@@ -24,6 +24,24 @@ public final class PawnEval extends PieceEval {
 	private static int PROTECTED_PASSED_BONUS = 10;
 	private static int PASSED_BONUS = 10;
 
+	/*
+	 * The same penalties and bonuses in the end game, where a weak Pawn is
+	 * harder to defend and a passed Pawn is much closer to winning
+	 */
+	private static int ENDGAME_DOUBLED_ISOLATED_PENALTY = -40;
+	private static int ENDGAME_SINGLE_ISOLATED_PENALTY = -20;
+	private static int ENDGAME_DOUBLED_PENALTY = -20;
+	private static int ENDGAME_MOBILE_CONNECTED_PASSED_BONUS = 70;
+	private static int ENDGAME_PROTECTED_PASSED_BONUS = 35;
+	private static int ENDGAME_PASSED_BONUS = 25;
+
+	/**
+	 * Added to a passed Pawn's end game bonus by how many rows it has moved
+	 * up from its starting row
+	 */
+	private static int[] ENDGAME_PASSED_ADVANCE_BONUS = { 0, 0, 10, 25, 45,
+			70 };
+
 	/** Represents direction from Whites perspective */
 	private enum Direction {
 		RIGHT, LEFT;
@@ -48,6 +66,22 @@ public final class PawnEval extends PieceEval {
 		0,   0,   0,   0,   0,   0,  0,  0
 	};
 
+	/**
+	 * Bonuses added to a Pawn's value based on its position on the Board in
+	 * the end game, where every Pawn is worth more the closer it is to
+	 * promoting
+	 */
+	private static int[] ENDGAME_BOARD_VALS = {
+		 0,  0,  0,  0,  0,  0,  0,  0,
+		 0,  0,  0,  0,  0,  0,  0,  0,
+		 5,  5,  5,  5,  5,  5,  5,  5,
+		10, 10, 10, 10, 10, 10, 10, 10,
+		20, 20, 20, 20, 20, 20, 20, 20,
+		35, 35, 35, 35, 35, 35, 35, 35,
+		55, 55, 55, 55, 55, 55, 55, 55,
+		 0,  0,  0,  0,  0,  0,  0,  0
+	};
+
 	/**
 	 * Constructor for PawnEval
 	 * 
@@ -68,12 +102,40 @@ public final class PawnEval extends PieceEval {
 	 */
 	@Override
 	public int evaluate() {
-		Square s = piece.getSq();
-		int index = color == Color.WHITE ? s.toNum() : 63 - s.toNum();
-		
-		int value = START_VALUE;
-		value += BOARD_VALS[index];
-		
+		int sq = piece.getSq().toNum();
+		return START_VALUE
+				+ Evaluate.taper(
+						squareValue(Position.index(color), sq, false)
+								+ dynamicValue(),
+						squareValue(Position.index(color), sq, true)
+								+ endGameValue(), Evaluate.getPhase(board));
+	}
+
+	/**
+	 * Gets the bonus or penalty of a Pawn on the input Square in the middle
+	 * game or the end game
+	 * 
+	 * @param color
+	 *            The Color index of the Pawn
+	 * @param sq
+	 *            The Square of the Pawn
+	 * @param endGame
+	 *            Whether to use the end game board values
+	 * @return The value of the Square from the board values of the phase
+	 */
+	static int squareValue(int color, int sq, boolean endGame) {
+		int index = color == Position.WHITE ? sq : 63 - sq;
+		return endGame ? ENDGAME_BOARD_VALS[index] : BOARD_VALS[index];
+	}
+
+	/**
+	 * Gets the part of this PawnEval's Pawn's value which depends on the
+	 * other Pawns in the middle game
+	 * 
+	 * @return The bonus or penalty for the structure of the Pawn
+	 */
+	int dynamicValue() {
+		int value = 0;
 		if (isIsolated() && isDoubled()) {
 			value += DOUBLED_ISOLATED_PENALTY;
 		} else if (isIsolated()) {
@@ -91,6 +153,34 @@ public final class PawnEval extends PieceEval {
 		return value;
 	}
 
+	/**
+	 * Gets the part of this PawnEval's Pawn's value which depends on the
+	 * other Pawns in the end game. Passed Pawns are worth more the further
+	 * they have moved up.
+	 * 
+	 * @return The bonus or penalty for the structure of the Pawn
+	 */
+	int endGameValue() {
+		if (isIsolated() && isDoubled()) {
+			return ENDGAME_DOUBLED_ISOLATED_PENALTY;
+		} else if (isIsolated()) {
+			return ENDGAME_SINGLE_ISOLATED_PENALTY;
+		} else if (isDoubled()) {
+			return ENDGAME_DOUBLED_PENALTY;
+		}
+		// White Pawns start on row 6 and move up to row 0
+		int rowsUp = color == Color.WHITE ? 6 - row : row - 1;
+		int advance = ENDGAME_PASSED_ADVANCE_BONUS[Math.max(0, rowsUp)];
+		if (isMobileConnectedPassed()) {
+			return ENDGAME_MOBILE_CONNECTED_PASSED_BONUS + advance;
+		} else if (isProtectedPassed()) {
+			return ENDGAME_PROTECTED_PASSED_BONUS + advance;
+		} else if (isPassed((Pawn) piece)) {
+			return ENDGAME_PASSED_BONUS + advance;
+		}
+		return 0;
+	}
+
 	/**
 	 * A Pawn is isolated if there are no Pawns of its Color located on its
 	 * adjacent columns.
@@ -230,6 +320,15 @@ public final class PawnEval extends PieceEval {
 		return null;
 	}
 
+	/**
+	 * Is this PawnEval's Pawn passed?
+	 * 
+	 * @return Is this PawnEval's Pawn passed?
+	 */
+	boolean isPassed() {
+		return isPassed((Pawn) piece);
+	}
+
 	/**
 	 * Is the input Pawn passed? A Pawn is passed if there are no opposing
 	 * Pawns, in front of it on the same column and on the two adjacent columns.
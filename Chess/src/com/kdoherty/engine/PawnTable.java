@@ -0,0 +1,231 @@
+package com.kdoherty.engine;
+
+import com.kdoherty.chess.Bitboard;
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Pawn;
+import com.kdoherty.chess.PieceType;
+import com.kdoherty.chess.Position;
+
+/**
+ * A fixed size hash table of pawn structures keyed by the Zobrist key of the
+ * Pawns alone. The Pawns rarely move during a search, so most positions
+ * reached share their Pawns with one already evaluated. Each entry holds the
+ * middle game and end game structure scores of each Color, the sums of every
+ * Pawn's isolated, doubled and passed bonuses and penalties, and masks of the
+ * files which are open, semi-open for each Color or hold a passed Pawn of
+ * each Color. Bit n of a file mask stands for column n.
+ * 
+ * probe makes the entry of a Board's Pawns the current one, evaluating it
+ * first if it is not stored.
+ * 
+ * @author Kevin Doherty
+ */
+public final class PawnTable {
+
+	/** The default number of entries of a table */
+	public static final int DEFAULT_ENTRIES = 1 << 12;
+
+	/** Set in every stored file masks entry so empty entries never match */
+	private static final long STORED = 1L << 63;
+
+	/** Mask of the 8 bits of one file mask */
+	private static final int FILES = 0xFF;
+
+	private static final int SEMI_OPEN_SHIFT = 8;
+
+	private static final int PASSED_SHIFT = 24;
+
+	/** The Pawn keys of the stored entries */
+	private final long[] keys;
+
+	/**
+	 * The structure scores of each entry, white then black, each middle game
+	 * then end game
+	 */
+	private final int[] scores;
+
+	/** The file masks of each entry packed into one long */
+	private final long[] files;
+
+	/** Used to find the index of a key */
+	private final int mask;
+
+	/** The index of the entry found by the last probe */
+	private int current;
+
+	private long probes;
+
+	private long hits;
+
+	/**
+	 * Constructor for PawnTable.
+	 * 
+	 * @param entries
+	 *            The number of entries, rounded down to a power of two
+	 */
+	public PawnTable(int entries) {
+		int size = TableSize.entries(entries);
+		keys = new long[size];
+		scores = new int[4 * size];
+		files = new long[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Makes the entry of the Pawns of the input Board the current one,
+	 * evaluating the Pawns if they are not stored
+	 * 
+	 * @param board
+	 *            The Board whose Pawns to look up
+	 */
+	public void probe(Board board) {
+		long key = board.getPawnKey();
+		current = (int) (key ^ (key >>> 32)) & mask;
+		probes++;
+		if (keys[current] == key && (files[current] & STORED) != 0) {
+			hits++;
+			return;
+		}
+		keys[current] = key;
+		Position pos = board.getPosition();
+		long passed = 0;
+		for (int color = Position.WHITE; color <= Position.BLACK; color++) {
+			int middleGame = 0;
+			int endGame = 0;
+			long pawns = pos.getPieces(color, PieceType.PAWN);
+			while (pawns != 0) {
+				int sq = Bitboard.first(pawns);
+				pawns = Bitboard.removeFirst(pawns);
+				PawnEval eval = new PawnEval(board, (Pawn) board.getOccupant(
+						Bitboard.row(sq), Bitboard.col(sq)));
+				middleGame += eval.dynamicValue();
+				endGame += eval.endGameValue();
+				if (eval.isPassed()) {
+					passed |= 1L << (PASSED_SHIFT + 8 * color + Bitboard
+							.col(sq));
+				}
+			}
+			scores[4 * current + 2 * color] = middleGame;
+			scores[4 * current + 2 * color + 1] = endGame;
+		}
+		long semiOpen = semiOpenFiles(pos, Position.WHITE)
+				| semiOpenFiles(pos, Position.BLACK) << 8;
+		files[current] = STORED | passed | openFiles(pos)
+				| semiOpen << SEMI_OPEN_SHIFT;
+	}
+
+	/**
+	 * Gets the middle game structure score of the Pawns of the input Color in
+	 * the current entry
+	 * 
+	 * @param color
+	 *            The Color index of the Pawns
+	 * @return The sum of the structure bonuses and penalties of the Pawns
+	 */
+	public int getMiddleGameScore(int color) {
+		return scores[4 * current + 2 * color];
+	}
+
+	/**
+	 * Gets the end game structure score of the Pawns of the input Color in
+	 * the current entry
+	 * 
+	 * @param color
+	 *            The Color index of the Pawns
+	 * @return The sum of the structure bonuses and penalties of the Pawns
+	 */
+	public int getEndGameScore(int color) {
+		return scores[4 * current + 2 * color + 1];
+	}
+
+	/**
+	 * Gets the files without Pawns in the current entry
+	 * 
+	 * @return The mask of open files
+	 */
+	public int getOpenFiles() {
+		return (int) files[current] & FILES;
+	}
+
+	/**
+	 * Gets the files without Pawns of the input Color in the current entry
+	 * 
+	 * @param color
+	 *            The Color index
+	 * @return The mask of files semi-open for the input Color
+	 */
+	public int getSemiOpenFiles(int color) {
+		return (int) (files[current] >>> (SEMI_OPEN_SHIFT + 8 * color))
+				& FILES;
+	}
+
+	/**
+	 * Gets the files with a passed Pawn of the input Color in the current
+	 * entry
+	 * 
+	 * @param color
+	 *            The Color index
+	 * @return The mask of files with a passed Pawn of the input Color
+	 */
+	public int getPassedFiles(int color) {
+		return (int) (files[current] >>> (PASSED_SHIFT + 8 * color))
+				& FILES;
+	}
+
+	/**
+	 * Gets how many probes found their entry stored
+	 * 
+	 * @return The number of hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets how many times the table was probed
+	 * 
+	 * @return The number of probes
+	 */
+	public long getProbes() {
+		return probes;
+	}
+
+	/**
+	 * Gets the files without any Pawns
+	 * 
+	 * @param pos
+	 *            The Position to look at
+	 * @return The mask of open files
+	 */
+	static int openFiles(Position pos) {
+		return emptyFiles(pos.getPieces(Position.WHITE, PieceType.PAWN)
+				| pos.getPieces(Position.BLACK, PieceType.PAWN));
+	}
+
+	/**
+	 * Gets the files without Pawns of the input Color. Unlike the usual
+	 * definition, the opposing Color doesn't need a Pawn on the file.
+	 * 
+	 * @param pos
+	 *            The Position to look at
+	 * @param color
+	 *            The Color index
+	 * @return The mask of files semi-open for the input Color
+	 */
+	static int semiOpenFiles(Position pos, int color) {
+		return emptyFiles(pos.getPieces(color, PieceType.PAWN));
+	}
+
+	/**
+	 * Gets the files on which the input bitboard has no bits set
+	 */
+	private static int emptyFiles(long bb) {
+		int empty = 0;
+		for (int col = 0; col < Board.NUM_COLS; col++) {
+			if ((bb & Bitboard.COL_MASKS[col]) == 0) {
+				empty |= 1 << col;
+			}
+		}
+		return empty;
+	}
+}
@@ -65,10 +65,27 @@ abstract class PieceEval {
 	 * @return Is this PieceEval's Piece blocking a center Pawn?
 	 */
 	protected boolean isBlockingCenterPawn() {
+		return isBlockingCenterPawn(board, piece);
+	}
+
+	/**
+	 * Is the input Piece on the Square directly in front of a central Pawn of
+	 * its own Color which is still on its home Square?
+	 * 
+	 * @param board
+	 *            The Board the Piece is on
+	 * @param piece
+	 *            The Piece to check
+	 * @return Is the input Piece blocking a center Pawn?
+	 */
+	static boolean isBlockingCenterPawn(Board board, Piece piece) {
+		Color color = piece.getColor();
 		int blockingRow = color == Color.WHITE ? 5 : 2;
+		if (piece.getRow() != blockingRow) {
+			return false;
+		}
 		int backwards = color == Color.WHITE ? 1 : -1;
-		Piece piece = board.getOccupant(blockingRow + backwards, col);
-		return row == blockingRow && piece instanceof Pawn
-				&& piece.getColor() == color;
+		Piece pawn = board.getOccupant(blockingRow + backwards, piece.getCol());
+		return pawn instanceof Pawn && pawn.getColor() == color;
 	}
 }
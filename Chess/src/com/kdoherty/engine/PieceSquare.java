@@ -0,0 +1,124 @@
+package com.kdoherty.engine;
+
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.PieceType;
+import com.kdoherty.chess.Position;
+
+/**
+ * The part of a Piece's value which only depends on its kind, Color and
+ * Square: its starting value, the bonus or penalty of its Square in the middle
+ * game and in the end game, and how much it counts towards the phase of the
+ * game. A Board keeps the sums of these for each Color up to date whenever a
+ * Piece is set or removed, so the evaluation gets them without looking at a
+ * single Piece.
+ * 
+ * The evaluation blends each Piece's two values by the phase.
+ * 
+ * @author Kevin Doherty
+ */
+public final class PieceSquare {
+
+	/** The number of Squares on a Board */
+	private static final int NUM_SQUARES = Board.NUM_ROWS * Board.NUM_COLS;
+
+	/**
+	 * The middle game Square bonus of each kind of Piece indexed by Color
+	 * index, type and Square
+	 */
+	private static final int[][][] MIDDLE_GAME =
+			new int[2][PieceType.COUNT][NUM_SQUARES];
+
+	/**
+	 * The end game Square bonus of each kind of Piece indexed by Color index,
+	 * type and Square
+	 */
+	private static final int[][][] END_GAME =
+			new int[2][PieceType.COUNT][NUM_SQUARES];
+
+	static {
+		for (int color = Position.WHITE; color <= Position.BLACK; color++) {
+			for (int sq = 0; sq < NUM_SQUARES; sq++) {
+				MIDDLE_GAME[color][PieceType.PAWN][sq] = PawnEval.squareValue(
+						color, sq, false);
+				END_GAME[color][PieceType.PAWN][sq] = PawnEval.squareValue(
+						color, sq, true);
+				MIDDLE_GAME[color][PieceType.KNIGHT][sq] = KnightEval
+						.squareValue(color, sq, false);
+				END_GAME[color][PieceType.KNIGHT][sq] = KnightEval
+						.squareValue(color, sq, true);
+				MIDDLE_GAME[color][PieceType.BISHOP][sq] = BishopEval
+						.squareValue(color, sq, false);
+				END_GAME[color][PieceType.BISHOP][sq] = BishopEval
+						.squareValue(color, sq, true);
+				MIDDLE_GAME[color][PieceType.ROOK][sq] = RookEval.squareValue(
+						color, sq, false);
+				END_GAME[color][PieceType.ROOK][sq] = RookEval.squareValue(
+						color, sq, true);
+				MIDDLE_GAME[color][PieceType.QUEEN][sq] = QueenEval
+						.squareValue(color, sq, false);
+				END_GAME[color][PieceType.QUEEN][sq] = QueenEval
+						.squareValue(color, sq, true);
+				MIDDLE_GAME[color][PieceType.KING][sq] = KingEval.squareValue(
+						color, sq, false);
+				END_GAME[color][PieceType.KING][sq] = KingEval.squareValue(
+						color, sq, true);
+			}
+		}
+	}
+
+	private PieceSquare() {
+		// Hide constructor
+	}
+
+	/**
+	 * Gets the starting value of a kind of Piece
+	 * 
+	 * @param type
+	 *            The PieceType of the Piece
+	 * @return The starting value of the Piece
+	 */
+	public static int material(int type) {
+		return Evaluate.PIECE_VALUES[type];
+	}
+
+	/**
+	 * Gets how much a kind of Piece counts towards the phase of the game
+	 * 
+	 * @param type
+	 *            The PieceType of the Piece
+	 * @return The phase weight of the Piece, 0 for Pawns and Kings
+	 */
+	public static int phase(int type) {
+		return Evaluate.PHASE_WEIGHTS[type];
+	}
+
+	/**
+	 * Gets the middle game bonus or penalty of a Piece on a Square
+	 * 
+	 * @param color
+	 *            The Color index of the Piece
+	 * @param type
+	 *            The PieceType of the Piece
+	 * @param sq
+	 *            The Square of the Piece
+	 * @return The middle game value of the Square for the Piece
+	 */
+	public static int middleGame(int color, int type, int sq) {
+		return MIDDLE_GAME[color][type][sq];
+	}
+
+	/**
+	 * Gets the end game bonus or penalty of a Piece on a Square
+	 * 
+	 * @param color
+	 *            The Color index of the Piece
+	 * @param type
+	 *            The PieceType of the Piece
+	 * @param sq
+	 *            The Square of the Piece
+	 * @return The end game value of the Square for the Piece
+	 */
+	public static int endGame(int color, int type, int sq) {
+		return END_GAME[color][type][sq];
+	}
+}
@@ -0,0 +1,417 @@
+package com.kdoherty.engine;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Color;
+import com.kdoherty.chess.Move;
+import com.kdoherty.chess.MoveGenerator;
+import com.kdoherty.chess.PackedMove;
+import com.kdoherty.chess.Position;
+
+/**
+ * Finds forced checkmates with depth-first proof-number search (df-pn). The
+ * game tree is an AND/OR tree: the attacking side needs one move which mates,
+ * the defending side must be mated after every reply. Each node gets a proof
+ * number, the least number of unsolved positions which would have to be
+ * proven to prove it, and a disproof number, the same for disproving it. The
+ * search always expands the most proving node, so it spends its time on the
+ * forcing lines and never searches a position twice at the same depth.
+ * 
+ * Proof and disproof numbers are kept in a transposition table of bounded
+ * size owned by the solver. The number of moves the attacker has left is part
+ * of the key, so a position reached with a different number of moves left is
+ * a different node and the tree has no cycles. Mates are looked for one move
+ * deeper at a time, so the first mate found is the shortest and the entries
+ * of the shallower searches are reused by the deeper ones.
+ * 
+ * @author Kevin Doherty
+ */
+public final class ProofNumberSolver {
+
+	/** The most moves a mate can be looked for in */
+	public static final int MAX_MOVES = 16;
+
+	/** The deepest ply a search can reach */
+	private static final int MAX_PLY = 2 * MAX_MOVES + 1;
+
+	/** The default most nodes a search may visit before giving up */
+	public static final long DEFAULT_NODE_LIMIT = 200000;
+
+	/**
+	 * Mixed into the key of the root when only some of its moves are tried,
+	 * so its numbers are never mistaken for those of the whole position
+	 */
+	private static final long SHARE_KEY = 0x3A8F1C5E9B7D2064L;
+
+	/** A proof or disproof number which can never be reached */
+	private static final int INFINITY = 1 << 28;
+
+	/** The bytes used by one entry of the table */
+	private static final int ENTRY_BYTES = 16;
+
+	/**
+	 * Mixed into the key of a position, indexed by the Color index of the
+	 * attacker, then whether the attacker is to move, then the number of
+	 * moves the attacker has left
+	 */
+	private static final long[][][] DEPTH_KEYS = new long[2][2][MAX_MOVES + 1];
+
+	static {
+		Random random = new Random(0xDF9L);
+		for (long[][] attackerKeys : DEPTH_KEYS) {
+			for (long[] sideKeys : attackerKeys) {
+				for (int i = 0; i < sideKeys.length; i++) {
+					sideKeys[i] = random.nextLong();
+				}
+			}
+		}
+	}
+
+	/** The keys of the stored nodes */
+	private final long[] keys;
+
+	/** The proof or disproof number of the side to move at each node */
+	private final int[] phis;
+
+	/** The other number of the side to move at each node */
+	private final int[] deltas;
+
+	/** Used to find the index of a key */
+	private final int mask;
+
+	/** The moves of each ply of the current search */
+	private final int[][] moveStack = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+
+	/** The keys of the children of each ply of the current search */
+	private final long[][] childKeys =
+			new long[MAX_PLY][MoveGenerator.MAX_MOVES];
+
+	/**
+	 * Whether each child of each ply is solved by the attacker's last move.
+	 * These are never stored in the table, so they can't push out entries
+	 * which took work to find.
+	 */
+	private final boolean[][] lastMoves =
+			new boolean[MAX_PLY][MoveGenerator.MAX_MOVES];
+
+	/** Whether the attacker's last move mated, for each child in lastMoves */
+	private final boolean[][] mates =
+			new boolean[MAX_PLY][MoveGenerator.MAX_MOVES];
+
+	/** The Board of the current search */
+	private Board board;
+
+	/** The Color looking for a mate in the current search */
+	private Color attacker;
+
+	/** The only root moves to try, or null to try them all */
+	private int[] rootMoves;
+
+	/** The number of root moves to try */
+	private int rootCount;
+
+	private long nodeLimit = DEFAULT_NODE_LIMIT;
+
+	/** The nodes visited by the current search */
+	private long nodes;
+
+	/** Set when the current search ran out of nodes */
+	private boolean aborted;
+
+	/** The number of moves of the last mate found, 0 if none */
+	private int mateDistance;
+
+	/**
+	 * The root move whose child was proven when the root was last stored, or
+	 * PackedMove.NONE if the root is not proven
+	 */
+	private int provingMove;
+
+	/**
+	 * Constructor for ProofNumberSolver.
+	 * 
+	 * @param megabytes
+	 *            The most memory the transposition table may use
+	 */
+	public ProofNumberSolver(int megabytes) {
+		int entries = TableSize.fromMegabytes(megabytes, ENTRY_BYTES, 1 << 30);
+		keys = new long[entries];
+		phis = new int[entries];
+		deltas = new int[entries];
+		mask = entries - 1;
+	}
+
+	/**
+	 * Limits the number of nodes a search may visit. A search which reaches
+	 * the limit finds no mate.
+	 * 
+	 * @param nodeLimit
+	 *            The most nodes to visit per search
+	 */
+	public void setNodeLimit(long nodeLimit) {
+		this.nodeLimit = nodeLimit;
+	}
+
+	/**
+	 * Gets the number of nodes a search may visit
+	 * 
+	 * @return The node limit
+	 */
+	public long getNodeLimit() {
+		return nodeLimit;
+	}
+
+	/**
+	 * Finds the first move of the shortest forced checkmate in the input
+	 * number of moves or less.
+	 * 
+	 * @param b
+	 *            The Board to find a forced checkmate on. It is changed during
+	 *            the search and restored afterwards.
+	 * @param color
+	 *            The Color to look for the forced checkmate from
+	 * @param n
+	 *            The number of moves to look for a checkmate in or less, at
+	 *            most MAX_MOVES
+	 * @return The first move of the shortest forced checkmate, or null if none
+	 *         was found
+	 */
+	public Move findMate(Board b, Color color, int n) {
+		return findMate(b, color, n, null, 0);
+	}
+
+	/**
+	 * Finds the first move of the shortest forced checkmate in the input
+	 * number of moves or less which starts with one of the input moves. Any
+	 * other first moves are not tried, which lets several solvers share the
+	 * root moves of one position between them.
+	 * 
+	 * @param b
+	 *            The Board to find a forced checkmate on. It is changed during
+	 *            the search and restored afterwards.
+	 * @param color
+	 *            The Color to look for the forced checkmate from
+	 * @param n
+	 *            The number of moves to look for a checkmate in or less, at
+	 *            most MAX_MOVES
+	 * @param moves
+	 *            The legal packed first moves to try, or null to try them all
+	 * @param count
+	 *            The number of first moves to try
+	 * @return The first move of the shortest forced checkmate, or null if none
+	 *         was found
+	 */
+	public Move findMate(Board b, Color color, int n, int[] moves, int count) {
+		if (n < 1 || n > MAX_MOVES) {
+			throw new IllegalArgumentException("Can't look for a mate in " + n);
+		}
+		board = b;
+		attacker = color;
+		rootMoves = moves;
+		rootCount = count;
+		nodes = 0;
+		aborted = false;
+		mateDistance = 0;
+		for (int movesLeft = 1; movesLeft <= n && !aborted; movesLeft++) {
+			provingMove = PackedMove.NONE;
+			mid(0, color, movesLeft, INFINITY, INFINITY);
+			if (provingMove != PackedMove.NONE) {
+				// The attacker to move has won
+				mateDistance = movesLeft;
+				return b.toMove(provingMove);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the length of the last checkmate found
+	 * 
+	 * @return The number of moves the attacker needs to mate, or 0 if the last
+	 *         search found no mate
+	 */
+	public int getMateDistance() {
+		return mateDistance;
+	}
+
+	/**
+	 * Gets the number of nodes visited by the last search
+	 * 
+	 * @return The number of nodes
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Empties the transposition table
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0L);
+	}
+
+	/**
+	 * Expands the node of the Color to move until its phi reaches thPhi or
+	 * its delta reaches thDelta. From the view of the side to move, phi is
+	 * the number of positions left to prove a win and delta the number left
+	 * to prove it can't win, so a node's phi is the least delta of its
+	 * children and its delta is the sum of their phis.
+	 * 
+	 * @param ply
+	 *            The distance from the root
+	 * @param toMove
+	 *            The Color to move
+	 * @param movesLeft
+	 *            The moves the attacker has left, counting its move here if
+	 *            it is to move
+	 * @param thPhi
+	 *            Stop when phi reaches this
+	 * @param thDelta
+	 *            Stop when delta reaches this
+	 */
+	private void mid(int ply, Color toMove, int movesLeft, int thPhi,
+			int thDelta) {
+		nodes++;
+		long key = nodeKey(toMove, movesLeft);
+		boolean attacking = toMove == attacker;
+		int[] moves = moveStack[ply];
+		int count;
+		if (ply == 0 && rootMoves != null) {
+			key ^= SHARE_KEY;
+			count = 0;
+			for (int i = 0; i < rootCount; i++) {
+				// Again only a check can mate on the attacker's last move
+				if (movesLeft > 1
+						|| MoveGenerator.givesCheck(board, rootMoves[i])) {
+					moves[count++] = rootMoves[i];
+				}
+			}
+		} else {
+			count = MoveGenerator.generateMoves(board, toMove, moves);
+			if (count != 0 && attacking && movesLeft == 1) {
+				// Only a check can mate on the attacker's last move
+				count = MoveGenerator.generateChecks(board, toMove, moves);
+			}
+		}
+		if (count == 0) {
+			if (attacking || !board.kingInCheck(toMove)) {
+				// The attacker can't move or the defender is stalemated
+				store(key, attacking ? INFINITY : 0, attacking ? 0 : INFINITY);
+			} else {
+				store(key, INFINITY, 0);
+			}
+			return;
+		}
+		if (movesLeft == 0) {
+			// The defender is not mated and the attacker has no moves left
+			store(key, 0, INFINITY);
+			return;
+		}
+
+		Color opp = toMove.opp();
+		int childMovesLeft = attacking ? movesLeft - 1 : movesLeft;
+		long[] children = childKeys[ply];
+		boolean[] last = lastMoves[ply];
+		boolean[] mated = mates[ply];
+		for (int i = 0; i < count; i++) {
+			board.makeMove(moves[i]);
+			children[i] = board.getZobristKey(opp)
+					^ depthKey(opp, childMovesLeft);
+			last[i] = childMovesLeft == 0;
+			if (last[i]) {
+				// The attacker's last move, solved without a visit. Only
+				// checks were generated, so no replies means mate.
+				mated[i] = MoveGenerator.generateMoves(board, opp,
+						moveStack[ply + 1]) == 0;
+			}
+			board.unmakeMove();
+		}
+
+		while (true) {
+			int phi = INFINITY;
+			int delta = 0;
+			int best = 0;
+			int bestPhi = 0;
+			int secondDelta = INFINITY;
+			for (int i = 0; i < count; i++) {
+				int childPhi = 1;
+				int childDelta = 1;
+				if (last[i]) {
+					childPhi = mated[i] ? INFINITY : 0;
+					childDelta = mated[i] ? 0 : INFINITY;
+				} else {
+					int index = index(children[i]);
+					if (keys[index] == children[i]) {
+						childPhi = phis[index];
+						childDelta = deltas[index];
+					}
+				}
+				if (childDelta < phi) {
+					secondDelta = phi;
+					phi = childDelta;
+					best = i;
+					bestPhi = childPhi;
+				} else if (childDelta < secondDelta) {
+					secondDelta = childDelta;
+				}
+				delta = Math.min(INFINITY, delta + childPhi);
+			}
+			if (ply == 0 && phi == 0) {
+				// Remembered here since a later store may push the proven
+				// child out of the table
+				provingMove = moves[best];
+			}
+			if (phi >= thPhi || delta >= thDelta || aborted) {
+				store(key, phi, delta);
+				return;
+			}
+			if (nodes >= nodeLimit) {
+				aborted = true;
+				store(key, phi, delta);
+				return;
+			}
+
+			int childThPhi = (int) Math.min(INFINITY, (long) thDelta - delta
+					+ bestPhi);
+			// The 1 + epsilon trick: switching to the second best child
+			// later saves expanding the same nodes over and over
+			int childThDelta = Math.min(thPhi, secondDelta + secondDelta / 4
+					+ 1);
+			board.makeMove(moves[best]);
+			mid(ply + 1, opp, childMovesLeft, childThPhi, childThDelta);
+			board.unmakeMove();
+		}
+	}
+
+	/**
+	 * Gets the key of the current position as a node of this search
+	 */
+	private long nodeKey(Color toMove, int movesLeft) {
+		return board.getZobristKey(toMove) ^ depthKey(toMove, movesLeft);
+	}
+
+	/**
+	 * Gets the key mixed into a position with the input Color to move and the
+	 * input moves left for the attacker
+	 */
+	private long depthKey(Color toMove, int movesLeft) {
+		int side = toMove == attacker ? 0 : 1;
+		return DEPTH_KEYS[Position.index(attacker)][side][movesLeft];
+	}
+
+	private int index(long key) {
+		return (int) (key ^ (key >>> 32)) & mask;
+	}
+
+	/**
+	 * Stores the numbers of a node, always replacing what was there
+	 */
+	private void store(long key, int phi, int delta) {
+		int index = index(key);
+		keys[index] = key;
+		phis[index] = phi;
+		deltas[index] = delta;
+	}
+}
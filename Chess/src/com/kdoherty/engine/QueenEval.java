@@ -1,9 +1,9 @@
 package com.kdoherty.engine;
 
 import com.kdoherty.chess.Board;
-import com.kdoherty.chess.Color;
+import com.kdoherty.chess.Piece;
+import com.kdoherty.chess.Position;
 import com.kdoherty.chess.Queen;
-import com.kdoherty.chess.Square;
 
 /**
  * This class is responsible for evaluating a Queen. It takes into account its
@@ -19,6 +19,12 @@ public final class QueenEval extends PieceEval {
 	
 	/** Penalty given for moving to early in the game. This can cause loss of tempo if opposing Pieces attack the Queen */
 	private static int QUEEN_OUT_EARLY_PENALTY = -15;
+
+	/** The same penalty if the Pieces have already come off early */
+	private static int ENDGAME_QUEEN_OUT_EARLY_PENALTY = -5;
+
+	/** The number of moves of the game the Queen out early penalty is given for */
+	static final int OUT_EARLY_MOVES = 6;
 	
 	/**
 	 * Bonuses and penalties added to a Rooks value based on its position on the
@@ -35,6 +41,21 @@ public final class QueenEval extends PieceEval {
 		-20, -10, -10, -5, -5, -10, -10, -20
 	};
 
+	/**
+	 * Bonuses and penalties added to a Queen's value based on its position in
+	 * the end game, where she should come to the center
+	 */
+	private static int[] ENDGAME_BOARD_VALUES = {
+		-30, -20, -10, -10, -10, -10, -20, -30,
+		-20, -10,   0,   0,   0,   0, -10, -20,
+		-10,   0,  10,  10,  10,  10,   0, -10,
+		-10,   0,  10,  20,  20,  10,   0, -10,
+		-10,   0,  10,  20,  20,  10,   0, -10,
+		-10,   0,  10,  10,  10,  10,   0, -10,
+		-20, -10,   0,   0,   0,   0, -10, -20,
+		-30, -20, -10, -10, -10, -10, -20, -30
+	};
+
 	/**
 	 * Constructor for QueenEval
 	 * @param board The Board to evaluate the input Queen on
@@ -52,17 +73,48 @@ public final class QueenEval extends PieceEval {
 	 */
 	@Override
 	public int evaluate() {
-		Square s = piece.getSq();
-		int index = piece.getColor() == Color.WHITE ? s.toNum() : 63 - s
-				.toNum();
-		
-		int value = START_VALUE;
-		value += BOARD_VALUES[index];
-		
-		if (piece.getMoveCount() != 0 && board.getMoveCount() < 6) {
-			value += QUEEN_OUT_EARLY_PENALTY;
+		int sq = piece.getSq().toNum();
+		int phase = Evaluate.getPhase(board);
+		return START_VALUE
+				+ Evaluate.taper(squareValue(Position.index(color), sq, false),
+						squareValue(Position.index(color), sq, true), phase)
+				+ dynamicValue(board, piece, phase);
+	}
+
+	/**
+	 * Gets the bonus or penalty of a Queen on the input Square in the middle
+	 * game or the end game
+	 * 
+	 * @param color
+	 *            The Color index of the Queen
+	 * @param sq
+	 *            The Square of the Queen
+	 * @param endGame
+	 *            Whether to use the end game board values
+	 * @return The value of the Square from the board values of the phase
+	 */
+	static int squareValue(int color, int sq, boolean endGame) {
+		int index = color == Position.WHITE ? sq : 63 - sq;
+		return endGame ? ENDGAME_BOARD_VALUES[index] : BOARD_VALUES[index];
+	}
+
+	/**
+	 * Gets the part of a Queen's value which depends on the game so far and
+	 * its phase
+	 * 
+	 * @param board
+	 *            The Board the Queen is on
+	 * @param queen
+	 *            The Queen to evaluate
+	 * @param phase
+	 *            The phase of the game
+	 * @return The bonuses and penalties of the Queen
+	 */
+	static int dynamicValue(Board board, Piece queen, int phase) {
+		if (queen.getMoveCount() != 0 && board.getMoveCount() < OUT_EARLY_MOVES) {
+			return Evaluate.taper(QUEEN_OUT_EARLY_PENALTY,
+					ENDGAME_QUEEN_OUT_EARLY_PENALTY, phase);
 		}
-		
-		return value;
+		return 0;
 	}
 }
@@ -3,10 +3,9 @@ package com.kdoherty.engine;
 import com.kdoherty.chess.Piece;
 import com.kdoherty.chess.Board;
 import com.kdoherty.chess.Color;
-import com.kdoherty.chess.Pawn;
 import com.kdoherty.chess.Queen;
+import com.kdoherty.chess.Position;
 import com.kdoherty.chess.Rook;
-import com.kdoherty.chess.Square;
 
 /**
  * This class is responsible for evaluating a Rook. It takes into account its
@@ -47,6 +46,18 @@ public class RookEval extends PieceEval {
 	/** Bonus added for being on the same column as the opposing Queen */
 	private static int SAME_FILE_AS_OPP_QUEEN_BONUS = 10;
 
+	/*
+	 * The same bonuses in the end game. With fewer Pawns left the files matter
+	 * less, but a Rook on the seventh rank still cuts off the King.
+	 */
+	private static int ENDGAME_OPEN_FILE_BONUS = 10;
+	private static int ENDGAME_SEMI_OPEN_FILE_BONUS = 10;
+	private static int ENDGAME_DOUBLED_SEMI_OPEN_FILE_BONUS = 15;
+	private static int ENDGAME_DOUBLED_OPEN_FILE_BONUS = 20;
+	private static int ENDGAME_SEVENTH_RANK_BONUS = 30;
+	private static int ENDGAME_DOUBLED_SEVENTH_RANK_BONUS = 20;
+	private static int ENDGAME_SAME_FILE_AS_OPP_QUEEN_BONUS = 5;
+
 	/**
 	 * Bonuses and penalties added to a Rooks value based on its position on the
 	 * Board
@@ -62,6 +73,21 @@ public class RookEval extends PieceEval {
 	    0,  0,  0,  0,  0,  0,  0,  0 
 	};
 
+	/**
+	 * Bonuses and penalties added to a Rook's value based on its position in
+	 * the end game, where it is more active in the center
+	 */
+	private static int[] ENDGAME_BOARD_VALS = {
+	    0,  0,  0,  0,  0,  0,  0,  0,
+	   -5,  0,  0,  0,  0,  0,  0, -5,
+	   -5,  0,  0,  0,  0,  0,  0, -5,
+	    0,  0,  5,  5,  5,  5,  0,  0,
+	    0,  0,  5,  5,  5,  5,  0,  0,
+	    0,  0,  5,  5,  5,  5,  0,  0,
+	   10, 10, 10, 10, 10, 10, 10, 10,
+	    5,  5,  5,  5,  5,  5,  5,  5
+	};
+
 	/**
 	 * Constructor for RookEval
 	 * 
@@ -82,86 +108,102 @@ public class RookEval extends PieceEval {
 	 */
 	@Override
 	public int evaluate() {
-		Square s = piece.getSq();
-		int index = piece.getColor() == Color.WHITE ? s.toNum() : 63 - s
-				.toNum();
-
-		int value = START_VALUE;
-		value += BOARD_VALS[index];
-
-		int seventhRank = piece.getColor() == Color.WHITE ? 1 : 6;
-		if (piece.getRow() == seventhRank) {
-			value += SEVENTH_RANK_BONUS;
-		}
-		if (piece.getRow() == seventhRank && isDoubledOnRank()) {
-			value += DOUBLED_SEVENTH_RANK_BONUS;
-		}
-		if (isOnSameFileAsQueen()) {
-			value += SAME_FILE_AS_OPP_QUEEN_BONUS;
-		}
-		if (isOnOpenFile() && isDoubledOnFile()) {
-			value += DOUBLED_OPEN_FILE_BONUS;
-		} else if (isOnSemiOpenFile() && isDoubledOnFile()) {
-			value += DOUBLED_SEMI_OPEN_FILE_BONUS;
-		} else if (isOnOpenFile()) {
-			value += OPEN_FILE_BONUS;
-		} else if (isOnSemiOpenFile()) {
-			value += SEMI_OPEN_FILE_BONUS;
-		}
-
-		return value;
+		int sq = piece.getSq().toNum();
+		int phase = Evaluate.getPhase(board);
+		return START_VALUE
+				+ Evaluate.taper(squareValue(Position.index(color), sq, false),
+						squareValue(Position.index(color), sq, true), phase)
+				+ dynamicValue(board, piece, PawnTable.openFiles(board
+						.getPosition()), PawnTable.semiOpenFiles(
+						board.getPosition(), Position.index(color)), phase);
 	}
 
 	/**
-	 * Is the Rook on an open file? An open file is a column with no Pawns on
-	 * it.
+	 * Gets the bonus or penalty of a Rook on the input Square in the middle
+	 * game or the end game
 	 * 
-	 * @return Is the Rook on an open file?
+	 * @param color
+	 *            The Color index of the Rook
+	 * @param sq
+	 *            The Square of the Rook
+	 * @param endGame
+	 *            Whether to use the end game board values
+	 * @return The value of the Square from the board values of the phase
 	 */
-	private boolean isOnOpenFile() {
-		int col = piece.getCol();
-		for (int i = 0; i < Board.NUM_ROWS; i++) {
-			Piece p = board.getOccupant(i, col);
-			if (p != null && p instanceof Pawn)
-				return false;
-		}
-		return true;
+	static int squareValue(int color, int sq, boolean endGame) {
+		int index = color == Position.WHITE ? sq : 63 - sq;
+		return endGame ? ENDGAME_BOARD_VALS[index] : BOARD_VALS[index];
 	}
 
 	/**
-	 * Is the input Rook on a semi-open file? A semi-open file is one where
-	 * there is no Pawn of the Rook's Color and one Pawn of the opposing Color.
+	 * Gets the part of a Rook's value which depends on the other Pieces and
+	 * the phase of the game
 	 * 
-	 * @return Is the input Rook on a semi-open file?
+	 * @param board
+	 *            The Board the Rook is on
+	 * @param rook
+	 *            The Rook to evaluate
+	 * @param openFiles
+	 *            The mask of files without Pawns, bit n for column n
+	 * @param semiOpenFiles
+	 *            The mask of files without Pawns of the Rook's Color
+	 * @param phase
+	 *            The phase of the game
+	 * @return The bonuses for the files and ranks of the Rook
 	 */
-	private boolean isOnSemiOpenFile() {
-		int col = piece.getCol();
-		for (int i = 0; i < Board.NUM_ROWS; i++) {
-			Piece p = board.getOccupant(i, col);
-			if (p != null && p instanceof Pawn
-					&& p.getColor() == piece.getColor()) {
-				return false;
-			}
+	static int dynamicValue(Board board, Piece rook, int openFiles,
+			int semiOpenFiles, int phase) {
+		int middleGame = 0;
+		int endGame = 0;
+		int col = rook.getCol();
+		int seventhRank = rook.getColor() == Color.WHITE ? 1 : 6;
+		if (rook.getRow() == seventhRank) {
+			middleGame += SEVENTH_RANK_BONUS;
+			endGame += ENDGAME_SEVENTH_RANK_BONUS;
+		}
+		if (rook.getRow() == seventhRank && isDoubledOnRank(board, rook)) {
+			middleGame += DOUBLED_SEVENTH_RANK_BONUS;
+			endGame += ENDGAME_DOUBLED_SEVENTH_RANK_BONUS;
+		}
+		if (isOnSameFileAsQueen(board, rook)) {
+			middleGame += SAME_FILE_AS_OPP_QUEEN_BONUS;
+			endGame += ENDGAME_SAME_FILE_AS_OPP_QUEEN_BONUS;
 		}
-		return true;
+		boolean open = (openFiles & 1 << col) != 0;
+		boolean semiOpen = (semiOpenFiles & 1 << col) != 0;
+		if (open && isDoubledOnFile(board, rook)) {
+			middleGame += DOUBLED_OPEN_FILE_BONUS;
+			endGame += ENDGAME_DOUBLED_OPEN_FILE_BONUS;
+		} else if (semiOpen && isDoubledOnFile(board, rook)) {
+			middleGame += DOUBLED_SEMI_OPEN_FILE_BONUS;
+			endGame += ENDGAME_DOUBLED_SEMI_OPEN_FILE_BONUS;
+		} else if (open) {
+			middleGame += OPEN_FILE_BONUS;
+			endGame += ENDGAME_OPEN_FILE_BONUS;
+		} else if (semiOpen) {
+			middleGame += SEMI_OPEN_FILE_BONUS;
+			endGame += ENDGAME_SEMI_OPEN_FILE_BONUS;
+		}
+
+		return Evaluate.taper(middleGame, endGame, phase);
 	}
 
 	/**
 	 * Is there another rook or queen on the same file as the input Rook?
 	 * 
-	 * @param b
-	 *            Board The Board to check if the input Rook is doubled on
-	 * @param r
-	 *            Rook The Rook to check if it is doubled on its file
+	 * @param board
+	 *            The Board to check if the input Rook is doubled on
+	 * @param rook
+	 *            The Rook to check if it is doubled on its file
 	 * @return Is there another rook or queen on the same column as the input
 	 *         Rook?
 	 */
-	private boolean isDoubledOnFile() {
-		int col = piece.getCol();
+	private static boolean isDoubledOnFile(Board board, Piece rook) {
+		int col = rook.getCol();
 		for (int i = 0; i < Board.NUM_ROWS; i++) {
 			Piece p = board.getOccupant(i, col);
 			if (p != null && (p instanceof Rook || p instanceof Queen)
-					&& p.getColor() == piece.getColor())
+					&& p.getColor() == rook.getColor())
 				return true;
 		}
 		return false;
@@ -170,14 +212,18 @@ public class RookEval extends PieceEval {
 	/**
 	 * Is the input Rook on the same file as the opposite Color's Queen?
 	 * 
+	 * @param board
+	 *            The Board the Rook is on
+	 * @param rook
+	 *            The Rook to check the file of
 	 * @return Is the input Rook on the same file as the opposite Color's Queen?
 	 */
-	private boolean isOnSameFileAsQueen() {
-		int col = piece.getCol();
+	private static boolean isOnSameFileAsQueen(Board board, Piece rook) {
+		int col = rook.getCol();
 		for (int i = 0; i < Board.NUM_ROWS; i++) {
 			Piece p = board.getOccupant(i, col);
 			if (p != null && p instanceof Queen
-					&& p.getColor() != piece.getColor())
+					&& p.getColor() != rook.getColor())
 				return true;
 		}
 		return false;
@@ -186,14 +232,18 @@ public class RookEval extends PieceEval {
 	/**
 	 * Is there another rook or queen on the same rank as the input Rook?
 	 * 
+	 * @param board
+	 *            The Board the Rook is on
+	 * @param rook
+	 *            The Rook to check if it is doubled on its rank
 	 * @return Is there another rook or queen on the same row as the input Rook?
 	 */
-	private boolean isDoubledOnRank() {
-		int row = piece.getRow();
+	private static boolean isDoubledOnRank(Board board, Piece rook) {
+		int row = rook.getRow();
 		for (int i = 0; i < Board.NUM_COLS; i++) {
 			Piece p = board.getOccupant(row, i);
 			if (p != null && (p instanceof Rook || p instanceof Queen)
-					&& p.getColor() == piece.getColor()) {
+					&& p.getColor() == rook.getColor()) {
 				return true;
 			}
 		}
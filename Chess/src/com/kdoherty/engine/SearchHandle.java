@@ -0,0 +1,164 @@
+package com.kdoherty.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Controls a running search from another thread. The search can be stopped at
+ * any time, limited to a deadline or a number of nodes, and reports its
+ * progress to a SearchListener after each finished depth.
+ * 
+ * The search threads poll the handle once every thousand or so nodes, which
+ * is well under a millisecond, rather than at every node, so controlling the
+ * search costs it almost nothing. A handle is meant for one search.
+ * 
+ * @author Kevin Doherty
+ */
+public final class SearchHandle {
+
+	/** Set once the search must stop */
+	private volatile boolean stopped;
+
+	/** The time the search must stop by, or 0 for no deadline */
+	private volatile long deadlineMillis;
+
+	/** The number of nodes to stop after, or 0 for no limit */
+	private volatile long nodeLimit;
+
+	/** Told about each finished depth, or null */
+	private volatile SearchListener listener;
+
+	/** The nodes visited by every search thread, added in batches */
+	private final AtomicLong nodes = new AtomicLong();
+
+	/** The time the search started */
+	private volatile long startMillis = System.currentTimeMillis();
+
+	/**
+	 * Stops the search as soon as possible. The best Move of the last finished
+	 * depth is still returned. Can be called from any thread, including
+	 * before the search starts.
+	 */
+	public void stop() {
+		stopped = true;
+	}
+
+	/**
+	 * Has the search been stopped?
+	 * 
+	 * @return true if stop was called or a limit was reached
+	 */
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	/**
+	 * Sets the time the search must stop by
+	 * 
+	 * @param deadlineMillis
+	 *            The deadline as returned by System.currentTimeMillis, or 0 for
+	 *            no deadline
+	 */
+	public void setDeadline(long deadlineMillis) {
+		this.deadlineMillis = deadlineMillis;
+	}
+
+	/**
+	 * Gets the time the search must stop by
+	 * 
+	 * @return The deadline as returned by System.currentTimeMillis, or 0 if
+	 *         there is none
+	 */
+	public long getDeadline() {
+		return deadlineMillis;
+	}
+
+	/**
+	 * Limits the number of nodes the search may visit, counting every search
+	 * thread. The limit is checked in batches so the search can go slightly
+	 * over it.
+	 * 
+	 * @param nodeLimit
+	 *            The number of nodes to stop after, or 0 for no limit
+	 */
+	public void setNodeLimit(long nodeLimit) {
+		this.nodeLimit = nodeLimit;
+	}
+
+	/**
+	 * Gets the number of nodes the search may visit
+	 * 
+	 * @return The node limit, or 0 if there is none
+	 */
+	public long getNodeLimit() {
+		return nodeLimit;
+	}
+
+	/**
+	 * Sets what is told about each finished depth
+	 * 
+	 * @param listener
+	 *            The SearchListener, or null to report nothing
+	 */
+	public void setListener(SearchListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Gets what is told about each finished depth
+	 * 
+	 * @return The SearchListener, or null if there is none
+	 */
+	public SearchListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Gets the number of nodes visited so far by every search thread
+	 * 
+	 * @return The number of nodes, counted in batches
+	 */
+	public long getNodes() {
+		return nodes.get();
+	}
+
+	/**
+	 * Gets the time since the search started
+	 * 
+	 * @return The elapsed time in milliseconds
+	 */
+	public long getElapsedMillis() {
+		return System.currentTimeMillis() - startMillis;
+	}
+
+	/**
+	 * Restarts the clock and the node count when the search starts. Whether
+	 * the search was stopped is kept, so a search stopped before it started
+	 * returns straight away.
+	 */
+	void start() {
+		startMillis = System.currentTimeMillis();
+		nodes.set(0);
+	}
+
+	/**
+	 * Adds a batch of nodes visited by one search thread and checks whether
+	 * the search must stop
+	 * 
+	 * @param batch
+	 *            The number of nodes visited since the last poll
+	 * @return true if the search must stop
+	 */
+	boolean poll(int batch) {
+		long total = nodes.addAndGet(batch);
+		if (stopped) {
+			return true;
+		}
+		long limit = nodeLimit;
+		long deadline = deadlineMillis;
+		if ((limit > 0 && total >= limit)
+				|| (deadline > 0 && System.currentTimeMillis() >= deadline)) {
+			stopped = true;
+		}
+		return stopped;
+	}
+}
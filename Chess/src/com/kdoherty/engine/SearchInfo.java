@@ -0,0 +1,121 @@
+package com.kdoherty.engine;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.kdoherty.chess.Move;
+
+/**
+ * The result of one finished depth of a search, handed to a SearchListener.
+ * 
+ * @author Kevin Doherty
+ */
+public final class SearchInfo {
+
+	/** The depth which was finished in plies */
+	private final int depth;
+
+	/** The score of the best Move from the perspective of the searching side */
+	private final int score;
+
+	/** The expected line of play starting with the best Move */
+	private final List<Move> principalVariation;
+
+	/** The number of positions visited by every search thread so far */
+	private final long nodes;
+
+	/** The time since the search started in milliseconds */
+	private final long elapsedMillis;
+
+	/**
+	 * Constructor for SearchInfo.
+	 * 
+	 * @param depth
+	 *            The depth which was finished
+	 * @param score
+	 *            The score of the best Move
+	 * @param principalVariation
+	 *            The expected line of play starting with the best Move
+	 * @param nodes
+	 *            The number of positions visited so far
+	 * @param elapsedMillis
+	 *            The time since the search started
+	 */
+	SearchInfo(int depth, int score, List<Move> principalVariation,
+			long nodes, long elapsedMillis) {
+		this.depth = depth;
+		this.score = score;
+		this.principalVariation = Collections
+				.unmodifiableList(principalVariation);
+		this.nodes = nodes;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * Gets the depth which was finished
+	 * 
+	 * @return The depth in plies
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Gets the score of the best Move
+	 * 
+	 * @return The score in centipawns from the perspective of the searching
+	 *         side
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Gets the expected line of play. It is read back from the transposition
+	 * table so it can be shorter than the depth.
+	 * 
+	 * @return The Moves expected to be played starting with the best Move
+	 */
+	public List<Move> getPrincipalVariation() {
+		return principalVariation;
+	}
+
+	/**
+	 * Gets the number of positions visited so far by every search thread
+	 * 
+	 * @return The number of nodes
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Gets the time since the search started
+	 * 
+	 * @return The elapsed time in milliseconds
+	 */
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	/**
+	 * Gets the search speed
+	 * 
+	 * @return The number of nodes visited per second
+	 */
+	public long getNodesPerSecond() {
+		return nodes * 1000 / Math.max(1, elapsedMillis);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("depth ").append(depth).append(" score ").append(score)
+				.append(" nodes ").append(nodes).append(" nps ")
+				.append(getNodesPerSecond()).append(" pv");
+		for (Move move : principalVariation) {
+			sb.append(' ').append(move);
+		}
+		return sb.toString();
+	}
+}
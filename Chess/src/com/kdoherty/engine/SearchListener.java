@@ -0,0 +1,19 @@
+package com.kdoherty.engine;
+
+/**
+ * Receives the progress of a search. It is called on the searching thread, so
+ * an implementation which updates a user interface must pass the information
+ * on to the user interface thread.
+ * 
+ * @author Kevin Doherty
+ */
+public interface SearchListener {
+
+	/**
+	 * Called each time the search finishes a depth
+	 * 
+	 * @param info
+	 *            The result of the depth which was just finished
+	 */
+	void onIteration(SearchInfo info);
+}
@@ -0,0 +1,777 @@
+package com.kdoherty.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Color;
+import com.kdoherty.chess.Move;
+import com.kdoherty.chess.MoveGenerator;
+import com.kdoherty.chess.PackedMove;
+import com.kdoherty.chess.PieceType;
+import com.kdoherty.chess.Position;
+
+/**
+ * One thread of the CpuPlayer's search. Each Searcher has its own Board, move
+ * pickers, killer moves and history, so several can search the same root at
+ * once. Searchers only share the transposition table, whose entries are
+ * checked against their key so a write from another thread can never be read
+ * half done. What one thread stores is immediately used by the others, and
+ * because threads search in slightly different orders they fill in different
+ * parts of the tree for each other (Lazy SMP).
+ * 
+ * @author Kevin Doherty
+ */
+final class Searcher implements Runnable {
+
+	/** The deepest ply the search can reach */
+	static final int MAX_PLY = 64;
+
+	/** Higher than any score the search can return */
+	static final int INFINITY = Evaluate.MATE_SCORE + 1;
+
+	/**
+	 * Scores beyond this are forced mates. The distance of a score from
+	 * MATE_SCORE is the number of plies to the mate.
+	 */
+	private static final int MATE_BOUND = Evaluate.MATE_SCORE - MAX_PLY;
+
+	/** The half width of the first aspiration window around the last score */
+	private static final int ASPIRATION_WINDOW = 50;
+
+	/** Shallower iterations are searched with a full window */
+	private static final int ASPIRATION_DEPTH = 4;
+
+	/** Null moves are only tried with at least this much depth left */
+	private static final int NULL_MOVE_DEPTH = 3;
+
+	/** Deeper than this the null move search is reduced by one more ply */
+	private static final int NULL_MOVE_DEEP = 6;
+
+	/** Late move reductions only start with at least this much depth left */
+	private static final int LMR_DEPTH = 3;
+
+	/** This many moves are searched at full depth before reducing */
+	private static final int LMR_FULL_MOVES = 3;
+
+	/**
+	 * A capture is skipped by the quiescence search if winning the captured
+	 * Piece plus this margin still can't raise the score above alpha
+	 */
+	private static final int DELTA_MARGIN = 200;
+
+	/**
+	 * The clock and the search handle are checked once every this many nodes,
+	 * must be 2^n - 1
+	 */
+	private static final int TIME_CHECK_MASK = 1023;
+
+	/** The Color to find a move for */
+	private final Color color;
+
+	/** The packed moves searched at the root */
+	private final int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+
+	/**
+	 * One preallocated move picker per ply so the search does not allocate
+	 * while generating moves
+	 */
+	private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+
+	/** The two most recent quiet moves to cause a cutoff at each ply */
+	private final int[][] killers = new int[MAX_PLY][2];
+
+	/**
+	 * How often each quiet move caused a cutoff, indexed by the Color index of
+	 * the side moving then the from and to Squares
+	 */
+	private final int[][][] history = new int[2][64][64];
+
+	/** The evaluation state of this Searcher's searches */
+	private final EvalContext evalContext = new EvalContext();
+
+	/** The Board searched, owned by this Searcher while it runs */
+	private Board board;
+
+	/** The number of root moves */
+	private int rootCount;
+
+	/** The depth of the first iteration */
+	private int startDepth;
+
+	/** Shared by every Searcher of the CpuPlayer */
+	private TranspositionTable table;
+
+	/** Decides when the current search must stop */
+	private TimeManager timeManager;
+
+	/** Lets other threads stop the current search and limits its nodes */
+	private SearchHandle handle;
+
+	/** Told about each finished iteration, or null */
+	private SearchListener listener;
+
+	/**
+	 * Set when the current search ran out of time or was stopped by another
+	 * thread and is unwinding
+	 */
+	private volatile boolean stopped;
+
+	/** The number of nodes visited by the current search */
+	private long nodes;
+
+	/** The depth of the last iteration which finished */
+	private int completedDepth;
+
+	/** The best move of the last iteration which finished */
+	private int bestMove;
+
+	/** The score of the last iteration which finished */
+	private int bestScore;
+
+	/**
+	 * Constructor for Searcher.
+	 * 
+	 * @param color
+	 *            The Color to find moves for
+	 */
+	Searcher(Color color) {
+		this.color = color;
+		for (int ply = 0; ply < MAX_PLY; ply++) {
+			pickers[ply] = new MovePicker();
+		}
+	}
+
+	/**
+	 * Sets up the next search. Killer moves and cached evaluations are
+	 * cleared and the history of earlier searches is kept at half weight.
+	 * 
+	 * @param board
+	 *            The Board to search, which must not be used by any other
+	 *            thread until the search is over
+	 * @param moves
+	 *            The root moves to search
+	 * @param count
+	 *            The number of root moves
+	 * @param startDepth
+	 *            The depth of the first iteration. Helper threads start at
+	 *            different depths so they don't all search the same thing.
+	 * @param table
+	 *            The transposition table shared by all Searchers
+	 * @param timeManager
+	 *            Decides when the search must stop, or null to search until
+	 *            stopped
+	 * @param handle
+	 *            Can stop the search from another thread, or null
+	 * @param listener
+	 *            Told about each finished iteration, or null
+	 */
+	void prepare(Board board, int[] moves, int count, int startDepth,
+			TranspositionTable table, TimeManager timeManager,
+			SearchHandle handle, SearchListener listener) {
+		this.board = board;
+		System.arraycopy(moves, 0, rootMoves, 0, count);
+		this.rootCount = count;
+		this.startDepth = startDepth;
+		this.table = table;
+		this.timeManager = timeManager;
+		this.handle = handle;
+		this.listener = listener;
+		stopped = false;
+		nodes = 0;
+		completedDepth = 0;
+		bestMove = moves[0];
+		bestScore = 0;
+		for (int[] plyKillers : killers) {
+			Arrays.fill(plyKillers, PackedMove.NONE);
+		}
+		// The evaluations depend on how many moves the game has had
+		evalContext.getEvalCache().clear();
+		for (int[][] colorHistory : history) {
+			MovePicker.ageHistory(colorHistory);
+		}
+	}
+
+	/**
+	 * Searches one ply deeper at a time until the time runs out or the search
+	 * is stopped
+	 */
+	@Override
+	public void run() {
+		int score = 0;
+		for (int depth = startDepth; depth < MAX_PLY; depth++) {
+			if (depth > startDepth && timeManager != null
+					&& !timeManager.canStartIteration()) {
+				break;
+			}
+			int iterationScore = aspirationSearch(board, rootMoves, rootCount,
+					depth, score);
+			if (stopped) {
+				break;
+			}
+			score = iterationScore;
+			bestMove = rootMoves[0];
+			bestScore = score;
+			completedDepth = depth;
+			if (listener != null) {
+				listener.onIteration(new SearchInfo(depth, score,
+						principalVariation(depth), handle.getNodes()
+								+ (nodes & TIME_CHECK_MASK),
+						handle.getElapsedMillis()));
+			}
+		}
+	}
+
+	/**
+	 * Reads the expected line of play back from the transposition table,
+	 * starting with the best move. Each move is checked to be legal since
+	 * another position may have overwritten the entry.
+	 * 
+	 * @param depth
+	 *            The most moves to read
+	 * @return The principal variation
+	 */
+	private List<Move> principalVariation(int depth) {
+		List<Move> pv = new ArrayList<Move>(depth);
+		int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+		Color toMove = color;
+		int move = bestMove;
+		while (pv.size() < depth && isLegal(move, toMove, legalMoves)) {
+			pv.add(board.toMove(move));
+			board.makeMove(move);
+			toMove = toMove.opp();
+			long entry = table.probe(board.getZobristKey(toMove));
+			move = entry == TranspositionTable.MISS ? PackedMove.NONE
+					: TranspositionTable.getMove(entry);
+		}
+		for (int i = 0; i < pv.size(); i++) {
+			board.unmakeMove();
+		}
+		return pv;
+	}
+
+	/**
+	 * Is the input packed move legal for the input Color on the Board?
+	 */
+	private boolean isLegal(int move, Color toMove, int[] legalMoves) {
+		if (move == PackedMove.NONE) {
+			return false;
+		}
+		int count = MoveGenerator.generateMoves(board, toMove, legalMoves);
+		for (int i = 0; i < count; i++) {
+			if (legalMoves[i] == move) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Searches a single root move with the input window. This is used when
+	 * the root moves are split between threads instead of each thread
+	 * searching all of them.
+	 * 
+	 * @param move
+	 *            The packed root move
+	 * @param depth
+	 *            The depth to search to, including the root move
+	 * @param alpha
+	 *            The best score already found for another root move, or
+	 *            -INFINITY to search with the full window
+	 * @return The score of the move. At most alpha if the move is no better
+	 *         than alpha. Not to be used if the search was stopped.
+	 */
+	int searchRootMove(int move, int depth, int alpha) {
+		board.makeMove(move);
+		int score = searchChild(board, color.opp(), alpha, INFINITY,
+				depth - 1, 1, alpha == -INFINITY);
+		board.unmakeMove();
+		return score;
+	}
+
+	/**
+	 * Stops the search as soon as possible. Can be called from any thread.
+	 */
+	void stop() {
+		stopped = true;
+	}
+
+	/**
+	 * Gets the depth of the last iteration completed by the last search
+	 * 
+	 * @return The depth in plies, 0 if no iteration finished
+	 */
+	int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Gets the best move of the last iteration completed by the last search
+	 * 
+	 * @return The packed move, the first root move if no iteration finished
+	 */
+	int getBestMove() {
+		return bestMove;
+	}
+
+	/**
+	 * Gets the score of the last iteration completed by the last search
+	 * 
+	 * @return The score from the perspective of the Color to move
+	 */
+	int getBestScore() {
+		return bestScore;
+	}
+
+	/**
+	 * Gets the number of nodes visited by the last search
+	 * 
+	 * @return The number of nodes
+	 */
+	long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Searches the root moves inside a narrow window around the score of the
+	 * last iteration. Most iterations score close to the last one, and the
+	 * narrow window causes more cutoffs. If the score falls outside the window
+	 * the window is widened on that side and the depth is searched again.
+	 * 
+	 * @param board
+	 *            The Board to search
+	 * @param moves
+	 *            The root moves to search
+	 * @param count
+	 *            The number of root moves
+	 * @param depth
+	 *            The depth to search to, including the root move
+	 * @param previousScore
+	 *            The score of the last iteration
+	 * @return The score of the best root move, which is moved to the front of
+	 *         the array. Not to be used if the search was stopped.
+	 */
+	private int aspirationSearch(Board board, int[] moves, int count,
+			int depth, int previousScore) {
+		int delta = ASPIRATION_WINDOW;
+		int alpha = -INFINITY;
+		int beta = INFINITY;
+		if (depth >= ASPIRATION_DEPTH && Math.abs(previousScore) < MATE_BOUND) {
+			alpha = Math.max(previousScore - delta, -INFINITY);
+			beta = Math.min(previousScore + delta, INFINITY);
+		}
+		while (true) {
+			int score = searchRoot(board, moves, count, depth, alpha, beta);
+			if (stopped) {
+				return score;
+			}
+			if (score <= alpha && alpha > -INFINITY) {
+				alpha = Math.max(score - delta, -INFINITY);
+			} else if (score >= beta && beta < INFINITY) {
+				beta = Math.min(score + delta, INFINITY);
+			} else {
+				return score;
+			}
+			delta *= 2;
+		}
+	}
+
+	/**
+	 * Searches each root move to the input depth, sharing alpha between them.
+	 * The best move is moved to the front of the array so it is searched first
+	 * in the next iteration.
+	 * 
+	 * @param board
+	 *            The Board to search
+	 * @param moves
+	 *            The root moves to search
+	 * @param count
+	 *            The number of root moves
+	 * @param depth
+	 *            The depth to search to, including the root move
+	 * @param alpha
+	 *            The lower bound of the window
+	 * @param beta
+	 *            The upper bound of the window
+	 * @return The score of the best root move. Not to be used if the search
+	 *         was stopped.
+	 */
+	private int searchRoot(Board board, int[] moves, int count, int depth,
+			int alpha, int beta) {
+		int bestScore = -INFINITY;
+		int bestIndex = 0;
+		for (int i = 0; i < count; i++) {
+			board.makeMove(moves[i]);
+			int score = searchChild(board, color.opp(), alpha, beta, depth - 1,
+					1, i == 0);
+			board.unmakeMove();
+			if (stopped) {
+				return bestScore;
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				bestIndex = i;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+
+		int bestMove = moves[bestIndex];
+		System.arraycopy(moves, 0, moves, 1, bestIndex);
+		moves[0] = bestMove;
+		return bestScore;
+	}
+
+	/**
+	 * Searches the position after a move using principal variation search.
+	 * The first move of a node is expected to be the best, so it is searched
+	 * with the full window. Every later move is searched with a zero width
+	 * window, which only proves the move is no better than alpha. This is much
+	 * cheaper than a full search, and the move is only searched again with
+	 * the full window if it turns out to be better.
+	 * 
+	 * @param board
+	 *            The Board after the move was made
+	 * @param color
+	 *            The Color to move after the move
+	 * @param alpha
+	 *            The lower bound of the window of the parent
+	 * @param beta
+	 *            The upper bound of the window of the parent
+	 * @param moveDepth
+	 *            The number of moves to look ahead from the child
+	 * @param ply
+	 *            The distance of the child from the root
+	 * @param firstMove
+	 *            Is this the first move searched at the parent?
+	 * @return The score of the move from the perspective of the parent
+	 */
+	private int searchChild(Board board, Color color, int alpha, int beta,
+			int moveDepth, int ply, boolean firstMove) {
+		if (firstMove) {
+			return -negaMaxWithPruning(board, color, -beta, -alpha, moveDepth,
+					ply, true);
+		}
+		int score = -negaMaxWithPruning(board, color, -alpha - 1, -alpha,
+				moveDepth, ply, true);
+		if (score > alpha && score < beta && !stopped) {
+			score = -negaMaxWithPruning(board, color, -beta, -alpha,
+					moveDepth, ply, true);
+		}
+		return score;
+	}
+
+	/**
+	 * Determines the maximum rating obtained by playing the best move in the
+	 * position. Scores are fail soft, so a score outside the window is a
+	 * bound on the real score rather than the window edge.
+	 * 
+	 * @param board
+	 *            The Board to determine the maximum rating of the best move on
+	 * @param color
+	 *            The Color to find the maximum rating for.
+	 * @param alpha
+	 *            Keeps track of the maximum evaluation
+	 * @param beta
+	 *            Keeps track of the minimum evaluation
+	 * @param moveDepth
+	 *            The number of moves to look ahead
+	 * @param ply
+	 *            The number of moves made since the root, used to pick the
+	 *            preallocated move list for this node
+	 * @param allowNull
+	 *            May a null move be tried? False right after a null move so
+	 *            two are never made in a row.
+	 * @return The maximum rating obtained by playing the best move in the
+	 *         position. Being checkmated scores -MATE_SCORE plus the
+	 *         distance from the root so faster mates are preferred.
+	 */
+	private int negaMaxWithPruning(Board board, Color color, int alpha, int beta,
+			int moveDepth, int ply, boolean allowNull) {
+		if (shouldStop()) {
+			return 0;
+		}
+		if (moveDepth == 0) {
+			return quiesce(board, color, alpha, beta, ply);
+		}
+
+		// No line from here can beat a mate found closer to the root
+		alpha = Math.max(alpha, -Evaluate.MATE_SCORE + ply);
+		beta = Math.min(beta, Evaluate.MATE_SCORE - ply - 1);
+		if (alpha >= beta) {
+			return alpha;
+		}
+
+		long key = board.getZobristKey(color);
+		long entry = table.probe(key);
+		int tableMove = PackedMove.NONE;
+		if (entry != TranspositionTable.MISS) {
+			tableMove = TranspositionTable.getMove(entry);
+			if (TranspositionTable.getDepth(entry) >= moveDepth) {
+				int score = scoreFromTable(TranspositionTable.getScore(entry),
+						ply);
+				switch (TranspositionTable.getBound(entry)) {
+				case TranspositionTable.BOUND_EXACT:
+					return score;
+				case TranspositionTable.BOUND_LOWER:
+					if (score >= beta) {
+						return score;
+					}
+					break;
+				case TranspositionTable.BOUND_UPPER:
+					if (score <= alpha) {
+						return score;
+					}
+					break;
+				}
+			}
+		}
+
+		boolean inCheck = board.kingInCheck(color);
+		boolean zeroWindow = beta - alpha == 1;
+		if (allowNull && zeroWindow && !inCheck
+				&& moveDepth >= NULL_MOVE_DEPTH && beta < MATE_BOUND
+				&& hasPieces(board, color)) {
+			// If passing still fails high, a real move almost surely would
+			int reduction = moveDepth > NULL_MOVE_DEEP ? 3 : 2;
+			board.makeNullMove();
+			int score = -negaMaxWithPruning(board, color.opp(), -beta,
+					-beta + 1, moveDepth - 1 - reduction, ply + 1, false);
+			board.unmakeNullMove();
+			if (stopped) {
+				return 0;
+			}
+			if (score >= beta) {
+				// Don't trust a mate found by passing
+				return score >= MATE_BOUND ? beta : score;
+			}
+		}
+
+		int alphaAtStart = alpha;
+		int bestScore = -INFINITY;
+		int bestMove = PackedMove.NONE;
+		int[] plyKillers = killers[ply];
+		int[][] colorHistory = history[Position.index(color)];
+		MovePicker picker = pickers[ply];
+		picker.init(board, color, tableMove, plyKillers, colorHistory);
+		if (picker.getMoveCount() == 0) {
+			// Checkmate or stalemate
+			return inCheck ? -Evaluate.MATE_SCORE + ply : 0;
+		}
+
+		int move;
+		int movesSearched = 0;
+		while ((move = picker.next()) != PackedMove.NONE) {
+			boolean lateQuiet = !inCheck && moveDepth >= LMR_DEPTH
+					&& movesSearched >= LMR_FULL_MOVES
+					&& MovePicker.isQuiet(move) && move != plyKillers[0]
+					&& move != plyKillers[1];
+
+			board.makeMove(move);
+			int score;
+			if (lateQuiet && !board.kingInCheck(color.opp())) {
+				// Late quiet moves rarely matter, so first search them less
+				// deep and only search again at full depth if they beat alpha
+				int reduction = movesSearched >= 2 * LMR_FULL_MOVES
+						&& moveDepth > NULL_MOVE_DEEP ? 2 : 1;
+				score = -negaMaxWithPruning(board, color.opp(), -alpha - 1,
+						-alpha, moveDepth - 1 - reduction, ply + 1, true);
+				if (score > alpha && !stopped) {
+					score = searchChild(board, color.opp(), alpha, beta,
+							moveDepth - 1, ply + 1, false);
+				}
+			} else {
+				score = searchChild(board, color.opp(), alpha, beta,
+						moveDepth - 1, ply + 1, movesSearched == 0);
+			}
+			board.unmakeMove();
+			if (stopped) {
+				return 0;
+			}
+			movesSearched++;
+
+			if (score > bestScore) {
+				bestScore = score;
+				bestMove = move;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						if (MovePicker.isQuiet(move)) {
+							MovePicker.recordCutoff(move, moveDepth,
+									plyKillers, colorHistory);
+						}
+						table.store(key, moveDepth,
+								TranspositionTable.BOUND_LOWER,
+								scoreToTable(bestScore, ply), bestMove);
+						return bestScore;
+					}
+				}
+			}
+		}
+
+		int bound = bestScore <= alphaAtStart ? TranspositionTable.BOUND_UPPER
+				: TranspositionTable.BOUND_EXACT;
+		table.store(key, moveDepth, bound, scoreToTable(bestScore, ply),
+				bestMove);
+		return bestScore;
+	}
+
+	/**
+	 * Does the input Color have any Pieces besides Pawns and its King? In
+	 * endgames with only Pawns every move can make the position worse
+	 * (zugzwang), so passing is not a fair test.
+	 * 
+	 * @param board
+	 *            The Board to check
+	 * @param color
+	 *            The Color to check
+	 * @return true if the Color has a Knight, Bishop, Rook or Queen
+	 */
+	private static boolean hasPieces(Board board, Color color) {
+		Position pos = board.getPosition();
+		int us = Position.index(color);
+		return pos.getPieces(us)
+				!= (pos.getPieces(us, PieceType.PAWN) | pos.getPieces(us,
+						PieceType.KING));
+	}
+
+	/**
+	 * Counts a node and checks the clock and the search handle every few
+	 * nodes
+	 * 
+	 * @return true if the search must unwind
+	 */
+	private boolean shouldStop() {
+		if ((++nodes & TIME_CHECK_MASK) == 0) {
+			if ((timeManager != null && timeManager.isTimeUp())
+					|| (handle != null && handle.poll(TIME_CHECK_MASK + 1))) {
+				stopped = true;
+			}
+		}
+		return stopped;
+	}
+
+	/**
+	 * Converts a score to be stored in the transposition table. Mate scores
+	 * count plies from the root, but the same position can be reached at a
+	 * different ply, so they are stored counting plies from this position.
+	 * 
+	 * @param score
+	 *            The score found at the input ply
+	 * @param ply
+	 *            The distance from the root
+	 * @return The score to store
+	 */
+	private static int scoreToTable(int score, int ply) {
+		if (score > MATE_BOUND) {
+			return score + ply;
+		} else if (score < -MATE_BOUND) {
+			return score - ply;
+		}
+		return score;
+	}
+
+	/**
+	 * Converts a score read from the transposition table back to counting
+	 * mate distances from the root
+	 * 
+	 * @param score
+	 *            The stored score
+	 * @param ply
+	 *            The distance from the root
+	 * @return The score at the input ply
+	 */
+	private static int scoreFromTable(int score, int ply) {
+		if (score > MATE_BOUND) {
+			return score - ply;
+		} else if (score < -MATE_BOUND) {
+			return score + ply;
+		}
+		return score;
+	}
+
+	/**
+	 * Searches only captures and promotions until the position is quiet so
+	 * the evaluation is never taken in the middle of an exchange. The side to
+	 * move can "stand pat" and accept the static evaluation instead of
+	 * capturing, so the evaluation is a lower bound on the score. The move
+	 * picker skips captures which lose material according to static exchange
+	 * evaluation. When in check there is no standing pat and every evasion is
+	 * searched.
+	 * 
+	 * @param board
+	 *            The Board to search
+	 * @param color
+	 *            The Color to move
+	 * @param alpha
+	 *            The lowest score the side to move is already assured of
+	 * @param beta
+	 *            The highest score the opponent will allow
+	 * @param ply
+	 *            The distance from the root of the search
+	 * @return The score of the position from the perspective of the input
+	 *         Color
+	 */
+	private int quiesce(Board board, Color color, int alpha, int beta, int ply) {
+		if (shouldStop()) {
+			return 0;
+		}
+		if (ply >= MAX_PLY) {
+			return Evaluate.evaluate(board, color, evalContext);
+		}
+
+		MovePicker picker = pickers[ply];
+		boolean inCheck = board.kingInCheck(color);
+		int standPat = -INFINITY;
+		if (inCheck) {
+			picker.init(board, color, PackedMove.NONE, killers[ply],
+					history[Position.index(color)]);
+			if (picker.getMoveCount() == 0) {
+				// Checkmated
+				return -Evaluate.MATE_SCORE + ply;
+			}
+		} else {
+			standPat = Evaluate.evaluate(board, color, evalContext);
+			if (standPat >= beta) {
+				return standPat;
+			}
+			alpha = Math.max(alpha, standPat);
+			picker.initCaptures(board, color);
+		}
+
+		int max = standPat;
+		int move;
+		while ((move = picker.next()) != PackedMove.NONE) {
+			if (!inCheck
+					&& !PackedMove.isPromotion(move)
+					&& standPat + Evaluate.PIECE_VALUES[PackedMove.captured(move)]
+							+ DELTA_MARGIN <= alpha) {
+				// Delta pruning: even winning this Piece for free is not enough
+				continue;
+			}
+
+			board.makeMove(move);
+			int score = -quiesce(board, color.opp(), -beta, -alpha, ply + 1);
+			board.unmakeMove();
+			if (stopped) {
+				return 0;
+			}
+
+			if (score > max) {
+				max = score;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		return max;
+	}
+}
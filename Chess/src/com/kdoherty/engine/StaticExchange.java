@@ -0,0 +1,146 @@
+package com.kdoherty.engine;
+
+import com.kdoherty.chess.Bitboard;
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Move;
+import com.kdoherty.chess.PackedMove;
+import com.kdoherty.chess.PieceType;
+import com.kdoherty.chess.Position;
+
+/**
+ * Static exchange evaluation (SEE) works out the material won or lost by a
+ * sequence of captures on one Square without making any Moves. Both sides
+ * keep recapturing with their least valuable attacker, and either side may
+ * stop capturing when continuing would lose material.
+ * 
+ * Only the bitboards of the Position are read. Captured Pieces are removed
+ * from a local occupancy, so a slider lined up behind another attacker (an
+ * x-ray) joins the exchange once the Piece in front of it has captured. Pins
+ * are ignored. Nothing is allocated so this can be called at every node of
+ * the search.
+ * 
+ * @author Kevin Doherty
+ */
+public final class StaticExchange {
+
+	private StaticExchange() {
+		// Hide constructor
+	}
+
+	/**
+	 * Evaluates the exchange started by the input Move
+	 * 
+	 * @param board
+	 *            The Board the Move is about to be made on
+	 * @param move
+	 *            The packed Move which starts the exchange
+	 * @return The material gained by the side making the Move if both sides
+	 *         capture back for as long as it pays off. Negative if the Move
+	 *         loses material and 0 for Moves which capture nothing and can't
+	 *         be taken.
+	 */
+	public static int evaluate(Board board, int move) {
+		Move.Type type = PackedMove.type(move);
+		if (type.isCastling()) {
+			return 0;
+		}
+		Position pos = board.getPosition();
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		int us = pos.getColor(from);
+
+		int gain = 0;
+		long occupied = pos.getOccupied() ^ Bitboard.bit(from);
+		if (type == Move.Type.EN_POISSANT) {
+			int capturedSq = us == Position.WHITE ? to + Board.NUM_COLS : to
+					- Board.NUM_COLS;
+			occupied ^= Bitboard.bit(capturedSq);
+			gain = Evaluate.PIECE_VALUES[PieceType.PAWN];
+		} else if (PackedMove.isCapture(move)) {
+			gain = Evaluate.PIECE_VALUES[PackedMove.captured(move)];
+		}
+
+		int moverValue = Evaluate.PIECE_VALUES[PackedMove.piece(move)];
+		if (type == Move.Type.PROMOTION_QUEEN
+				|| type == Move.Type.PROMOTION_KNIGHT) {
+			int promoted = type == Move.Type.PROMOTION_QUEEN ? PieceType.QUEEN
+					: PieceType.KNIGHT;
+			moverValue = Evaluate.PIECE_VALUES[promoted];
+			gain += moverValue - Evaluate.PIECE_VALUES[PieceType.PAWN];
+		}
+
+		return gain - exchange(pos, to, us ^ 1, occupied, moverValue);
+	}
+
+	/**
+	 * Does the input Move win at least the input amount of material?
+	 * 
+	 * @param board
+	 *            The Board the Move is about to be made on
+	 * @param move
+	 *            The packed Move which starts the exchange
+	 * @param threshold
+	 *            The least material the Move must win
+	 * @return true if the static exchange value of the Move is at least the
+	 *         threshold
+	 */
+	public static boolean isAtLeast(Board board, int move, int threshold) {
+		return evaluate(board, move) >= threshold;
+	}
+
+	/**
+	 * Finds what the input side wins by capturing on the input Square, if
+	 * capturing pays off at all
+	 * 
+	 * @param pos
+	 *            The Position being evaluated
+	 * @param sq
+	 *            The Square of the exchange
+	 * @param side
+	 *            The Color index of the side to capture next
+	 * @param occupied
+	 *            The Squares still occupied after the captures so far
+	 * @param victimValue
+	 *            The value of the Piece now standing on the Square
+	 * @return The material the side wins by capturing, never negative since
+	 *         the side can choose not to capture
+	 */
+	private static int exchange(Position pos, int sq, int side, long occupied,
+			int victimValue) {
+		long attackers = pos.attackersTo(sq, side, occupied) & occupied;
+		if (attackers == 0) {
+			return 0;
+		}
+		int attackerType = PieceType.PAWN;
+		long attacker = attackers & pos.getPieces(side, attackerType);
+		while (attacker == 0) {
+			attackerType++;
+			attacker = attackers & pos.getPieces(side, attackerType);
+		}
+		int from = Bitboard.first(attacker);
+		occupied ^= Bitboard.bit(from);
+		if (attackerType == PieceType.KING
+				&& (pos.attackersTo(sq, side ^ 1, occupied) & occupied) != 0) {
+			// The King can't capture a defended Piece
+			return 0;
+		}
+
+		int attackerValue = Evaluate.PIECE_VALUES[attackerType];
+		if (attackerType == PieceType.PAWN && isLastRow(sq)) {
+			// Recapturing Pawns promote to a Queen
+			attackerValue = Evaluate.PIECE_VALUES[PieceType.QUEEN];
+			victimValue += attackerValue
+					- Evaluate.PIECE_VALUES[PieceType.PAWN];
+		}
+		return Math.max(0, victimValue
+				- exchange(pos, sq, side ^ 1, occupied, attackerValue));
+	}
+
+	/**
+	 * Is the input Square on the first or last row of the Board?
+	 */
+	private static boolean isLastRow(int sq) {
+		int row = Bitboard.row(sq);
+		return row == 0 || row == Board.NUM_ROWS - 1;
+	}
+}
@@ -0,0 +1,55 @@
+package com.kdoherty.engine;
+
+/**
+ * Sizes the hash tables of the engine. Every table has a power of two number
+ * of entries, so the index of a key is found by masking off its low bits.
+ * 
+ * @author Kevin Doherty
+ */
+public final class TableSize {
+
+	private TableSize() {
+		// Hide constructor
+	}
+
+	/**
+	 * Rounds a number of entries down to a power of two
+	 * 
+	 * @param entries
+	 *            The most entries the table may have
+	 * @return The number of entries of the table
+	 * @throws IllegalArgumentException
+	 *             If there is not at least 1 entry
+	 */
+	public static int entries(int entries) {
+		if (entries < 1) {
+			throw new IllegalArgumentException(
+					"A table needs at least 1 entry but was given " + entries);
+		}
+		return Integer.highestOneBit(entries);
+	}
+
+	/**
+	 * Gets how many entries of the input size fit in the input memory,
+	 * rounded down to a power of two
+	 * 
+	 * @param megabytes
+	 *            The most memory the table may use
+	 * @param entryBytes
+	 *            The size of an entry in bytes
+	 * @param maxEntries
+	 *            The most entries the table may have
+	 * @return The number of entries of the table, at least 1
+	 * @throws IllegalArgumentException
+	 *             If there is not at least 1 MB
+	 */
+	public static int fromMegabytes(int megabytes, int entryBytes,
+			int maxEntries) {
+		if (megabytes < 1) {
+			throw new IllegalArgumentException(
+					"A table needs at least 1 MB but was given " + megabytes);
+		}
+		long fit = ((long) megabytes << 20) / entryBytes;
+		return entries((int) Math.max(1, Math.min(fit, maxEntries)));
+	}
+}
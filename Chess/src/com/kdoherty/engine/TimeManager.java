@@ -0,0 +1,135 @@
+package com.kdoherty.engine;
+
+/**
+ * Decides how long the CpuPlayer should think about one move. The time left
+ * on the clock is split evenly between the moves expected before the next
+ * time control, or an estimate of the moves left in the game, and most of the
+ * increment is added on top.
+ * 
+ * Iterative deepening uses two limits. A new iteration is only started before
+ * the soft limit, because each iteration usually takes several times longer
+ * than the one before it. The search is stopped outright at the hard limit.
+ * 
+ * @author Kevin Doherty
+ */
+public final class TimeManager {
+
+	/** Kept in reserve for the time it takes to play the move */
+	static final long SAFETY_MARGIN_MILLIS = 50;
+
+	/** The least time ever given to a move */
+	static final long MIN_MOVE_MILLIS = 10;
+
+	/** The fewest moves ever assumed to be left in the game */
+	static final int MIN_MOVES_TO_GO = 20;
+
+	/** The number of moves assumed to be left at the start of the game */
+	static final int START_MOVES_TO_GO = 50;
+
+	/** When the search was started */
+	private final long startMillis;
+
+	/** The time to aim for */
+	private final long targetMillis;
+
+	/** No new iteration is started after this much time */
+	private final long softLimitMillis;
+
+	/** The search is stopped after this much time */
+	private final long hardLimitMillis;
+
+	/**
+	 * Constructor for TimeManager. The clock starts when this is created.
+	 * 
+	 * @param millisRemaining
+	 *            The time left on the player's clock
+	 * @param incrementMillis
+	 *            The time added to the player's clock after each move
+	 * @param movesToGo
+	 *            The moves left until the next time control, or 0 if the
+	 *            rest of the game must be played in the remaining time
+	 * @param pliesPlayed
+	 *            The number of moves already made by both players, used to
+	 *            estimate how many are left when movesToGo is 0
+	 */
+	public TimeManager(long millisRemaining, long incrementMillis,
+			int movesToGo, int pliesPlayed) {
+		startMillis = System.currentTimeMillis();
+		long usable = Math.max(MIN_MOVE_MILLIS, millisRemaining
+				- SAFETY_MARGIN_MILLIS);
+		if (movesToGo <= 0) {
+			movesToGo = estimateMovesToGo(pliesPlayed);
+		}
+		long target = millisRemaining / movesToGo + incrementMillis * 3 / 4;
+		targetMillis = Math.max(MIN_MOVE_MILLIS,
+				Math.min(target, usable * 3 / 4));
+		softLimitMillis = targetMillis / 2;
+		hardLimitMillis = Math.max(targetMillis,
+				Math.min(targetMillis * 2, usable * 3 / 4));
+	}
+
+	/**
+	 * Estimates the number of moves left for one player in the game
+	 * 
+	 * @param pliesPlayed
+	 *            The number of moves already made by both players
+	 * @return The estimated number of moves left
+	 */
+	static int estimateMovesToGo(int pliesPlayed) {
+		return Math.max(MIN_MOVES_TO_GO, START_MOVES_TO_GO - pliesPlayed / 2);
+	}
+
+	/**
+	 * Is there enough time left to start another iteration?
+	 * 
+	 * @return true if the soft limit has not been reached
+	 */
+	public boolean canStartIteration() {
+		return getElapsedMillis() < softLimitMillis;
+	}
+
+	/**
+	 * Must the search stop now?
+	 * 
+	 * @return true if the hard limit has been reached
+	 */
+	public boolean isTimeUp() {
+		return getElapsedMillis() >= hardLimitMillis;
+	}
+
+	/**
+	 * Gets the time since this TimeManager was created
+	 * 
+	 * @return The elapsed time in milliseconds
+	 */
+	public long getElapsedMillis() {
+		return System.currentTimeMillis() - startMillis;
+	}
+
+	/**
+	 * Gets the time this move should take
+	 * 
+	 * @return The target time in milliseconds
+	 */
+	public long getTargetMillis() {
+		return targetMillis;
+	}
+
+	/**
+	 * Gets the time after which no new iteration is started
+	 * 
+	 * @return The soft limit in milliseconds
+	 */
+	public long getSoftLimitMillis() {
+		return softLimitMillis;
+	}
+
+	/**
+	 * Gets the time after which the search is stopped
+	 * 
+	 * @return The hard limit in milliseconds
+	 */
+	public long getHardLimitMillis() {
+		return hardLimitMillis;
+	}
+}
@@ -0,0 +1,300 @@
+package com.kdoherty.engine;
+
+import java.util.Arrays;
+
+import com.kdoherty.chess.PackedMove;
+
+/**
+ * A fixed size hash table of search results keyed by Zobrist key. When the
+ * search reaches a position it has already searched deep enough, possibly
+ * through a different order of moves, the stored score can be used instead of
+ * searching again. Even when the stored depth is not enough the stored best
+ * move is a good first move to try.
+ * 
+ * The table is made of buckets of two entries. The first entry of a bucket is
+ * only replaced by results searched at least as deep, so expensive results
+ * survive, unless it was stored by an earlier search. The second entry is
+ * always replaced so recent results are kept as well. A table kept for a
+ * whole game would otherwise fill up with deep results of positions which
+ * can no longer be reached, so newSearch must be called before each search.
+ * 
+ * Each entry is two longs stored in one array: the key XORed with the data,
+ * then the data. The data packs the best move, depth, age, bound type and
+ * score.
+ * Storing the key XORed with the data means an entry torn by a concurrent
+ * write fails the key check instead of returning mismatched data, so the
+ * table can be shared by several search threads without locking. The probe,
+ * hit and store counters are not synchronized and are only approximate when
+ * the table is shared.
+ * 
+ * @author Kevin Doherty
+ */
+public final class TranspositionTable {
+
+	/** The entry is empty */
+	public static final int BOUND_NONE = 0;
+
+	/** The stored score is exact */
+	public static final int BOUND_EXACT = 1;
+
+	/** The real score is at least the stored score */
+	public static final int BOUND_LOWER = 2;
+
+	/** The real score is at most the stored score */
+	public static final int BOUND_UPPER = 3;
+
+	/** Returned by probe when the key is not in the table */
+	public static final long MISS = 0L;
+
+	/** Number of bytes used by one entry */
+	private static final int ENTRY_BYTES = 16;
+
+	/** Number of entries in one bucket */
+	private static final int BUCKET_SIZE = 2;
+
+	private static final int MOVE_MASK = 0x3FFFFF;
+
+	private static final int DEPTH_SHIFT = 22;
+
+	private static final int DEPTH_MASK = 0x3F;
+
+	private static final int AGE_SHIFT = 28;
+
+	private static final int AGE_MASK = 0x3;
+
+	private static final int BOUND_SHIFT = 30;
+
+	private static final int BOUND_MASK = 0x3;
+
+	private static final int SCORE_SHIFT = 32;
+
+	/** Two longs per entry, see the class comment */
+	private final long[] entries;
+
+	/** Used to find the bucket of a key */
+	private final int bucketMask;
+
+	private final int megabytes;
+
+	/**
+	 * The age of the current search, counting searches modulo 4. It is only
+	 * changed before a search starts its threads.
+	 */
+	private int age;
+
+	private long probes;
+
+	private long hits;
+
+	private long stores;
+
+	/**
+	 * Constructor for TranspositionTable.
+	 * 
+	 * @param megabytes
+	 *            The most memory the table may use. The number of buckets is
+	 *            rounded down to a power of two.
+	 */
+	public TranspositionTable(int megabytes) {
+		int buckets = TableSize.fromMegabytes(megabytes, ENTRY_BYTES
+				* BUCKET_SIZE, 1 << 26);
+		this.megabytes = megabytes;
+		bucketMask = buckets - 1;
+		entries = new long[buckets * BUCKET_SIZE * 2];
+	}
+
+	/**
+	 * Looks up the input key
+	 * 
+	 * @param key
+	 *            The Zobrist key of the position
+	 * @return The packed data of the entry, to be read with getMove, getDepth,
+	 *         getBound and getScore, or MISS if the key is not stored
+	 */
+	public long probe(long key) {
+		probes++;
+		int index = indexOf(key);
+		for (int i = 0; i < BUCKET_SIZE; i++, index += 2) {
+			long data = entries[index + 1];
+			if ((entries[index] ^ data) == key && data != MISS) {
+				hits++;
+				return data;
+			}
+		}
+		return MISS;
+	}
+
+	/**
+	 * Stores a search result
+	 * 
+	 * @param key
+	 *            The Zobrist key of the position
+	 * @param depth
+	 *            The depth the position was searched to
+	 * @param bound
+	 *            One of BOUND_EXACT, BOUND_LOWER or BOUND_UPPER
+	 * @param score
+	 *            The score found by the search
+	 * @param move
+	 *            The best packed move found or PackedMove.NONE
+	 */
+	public void store(long key, int depth, int bound, int score, int move) {
+		stores++;
+		int index = indexOf(key);
+		long deepData = entries[index + 1];
+		boolean sameKey = (entries[index] ^ deepData) == key;
+		if (!sameKey && depth < getDepth(deepData)
+				&& getAge(deepData) == age) {
+			// Keep the deeper result and use the always replace entry
+			index += 2;
+			sameKey = (entries[index] ^ entries[index + 1]) == key;
+		}
+		if (move == PackedMove.NONE && sameKey) {
+			move = getMove(entries[index + 1]);
+		}
+		long data = (move & MOVE_MASK)
+				| ((long) Math.min(depth, DEPTH_MASK) << DEPTH_SHIFT)
+				| ((long) age << AGE_SHIFT) | ((long) bound << BOUND_SHIFT)
+				| ((long) score << SCORE_SHIFT);
+		entries[index] = key ^ data;
+		entries[index + 1] = data;
+	}
+
+	/**
+	 * Starts a new search. Entries stored by earlier searches are kept for
+	 * probing but no longer protected from being replaced.
+	 */
+	public void newSearch() {
+		age = (age + 1) & AGE_MASK;
+	}
+
+	/**
+	 * Removes every entry and resets the counters
+	 */
+	public void clear() {
+		Arrays.fill(entries, 0L);
+		resetStats();
+	}
+
+	/**
+	 * Resets the probe, hit and store counters
+	 */
+	public void resetStats() {
+		probes = 0;
+		hits = 0;
+		stores = 0;
+	}
+
+	/**
+	 * Gets the best move of an entry
+	 * 
+	 * @param data
+	 *            The data returned by probe
+	 * @return The packed move or PackedMove.NONE
+	 */
+	public static int getMove(long data) {
+		return (int) data & MOVE_MASK;
+	}
+
+	/**
+	 * Gets the depth of an entry
+	 * 
+	 * @param data
+	 *            The data returned by probe
+	 * @return The depth the position was searched to
+	 */
+	public static int getDepth(long data) {
+		return (int) (data >>> DEPTH_SHIFT) & DEPTH_MASK;
+	}
+
+	/**
+	 * Gets the age of the search which stored an entry
+	 */
+	private static int getAge(long data) {
+		return (int) (data >>> AGE_SHIFT) & AGE_MASK;
+	}
+
+	/**
+	 * Gets the bound type of an entry
+	 * 
+	 * @param data
+	 *            The data returned by probe
+	 * @return One of the BOUND constants
+	 */
+	public static int getBound(long data) {
+		return (int) (data >>> BOUND_SHIFT) & BOUND_MASK;
+	}
+
+	/**
+	 * Gets the score of an entry
+	 * 
+	 * @param data
+	 *            The data returned by probe
+	 * @return The score found by the search
+	 */
+	public static int getScore(long data) {
+		return (int) (data >> SCORE_SHIFT);
+	}
+
+	/**
+	 * Gets the number of entries this table can hold
+	 * 
+	 * @return The number of entries
+	 */
+	public int getCapacity() {
+		return entries.length / 2;
+	}
+
+	/**
+	 * Gets the size this table was created with
+	 * 
+	 * @return The maximum size of the table in MB
+	 */
+	public int getMegabytes() {
+		return megabytes;
+	}
+
+	/**
+	 * Gets the number of lookups since the counters were reset
+	 * 
+	 * @return The number of probes
+	 */
+	public long getProbes() {
+		return probes;
+	}
+
+	/**
+	 * Gets the number of lookups which found their key since the counters
+	 * were reset
+	 * 
+	 * @return The number of hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of results stored since the counters were reset
+	 * 
+	 * @return The number of stores
+	 */
+	public long getStores() {
+		return stores;
+	}
+
+	/**
+	 * Gets the fraction of lookups which found their key
+	 * 
+	 * @return The hit rate between 0 and 1
+	 */
+	public double getHitRate() {
+		return probes == 0 ? 0 : (double) hits / probes;
+	}
+
+	/**
+	 * Gets the index of the first long of the bucket of the input key
+	 */
+	private int indexOf(long key) {
+		return ((int) key & bucketMask) * BUCKET_SIZE * 2;
+	}
+}
@@ -0,0 +1,83 @@
+package com.kdoherty.androidchess.test;
+
+import java.util.Random;
+
+import com.kdoherty.chess.Attacks;
+import com.kdoherty.chess.Bitboard;
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Position;
+import com.kdoherty.chess.Square;
+
+public class AttacksTest extends BaseTest {
+
+	private static final int[][] ROOK_DIRECTIONS = { { -1, 0 }, { 1, 0 },
+			{ 0, -1 }, { 0, 1 } };
+
+	private static final int[][] BISHOP_DIRECTIONS = { { -1, -1 }, { -1, 1 },
+			{ 1, -1 }, { 1, 1 } };
+
+	private static long slide(int sq, long occupied, int[][] directions) {
+		long attacks = 0;
+		for (int[] dir : directions) {
+			int r = Bitboard.row(sq) + dir[0];
+			int c = Bitboard.col(sq) + dir[1];
+			while (Board.isInbounds(r, c)) {
+				long bit = Bitboard.bit(Square.toNum(r, c));
+				attacks |= bit;
+				if ((occupied & bit) != 0) {
+					break;
+				}
+				r += dir[0];
+				c += dir[1];
+			}
+		}
+		return attacks;
+	}
+
+	public void testSlidingAttacksMatchRayWalk() {
+		Random random = new Random(2014);
+		for (int i = 0; i < 20000; i++) {
+			int sq = random.nextInt(64);
+			long occupied = random.nextLong() & random.nextLong();
+			assertEquals(slide(sq, occupied, ROOK_DIRECTIONS),
+					Attacks.rook(sq, occupied));
+			assertEquals(slide(sq, occupied, BISHOP_DIRECTIONS),
+					Attacks.bishop(sq, occupied));
+		}
+	}
+
+	public void testKnightAttacks() {
+		int b1 = new Square('b', 1).toNum();
+		long expected = Bitboard.bit(new Square('a', 3).toNum())
+				| Bitboard.bit(new Square('c', 3).toNum())
+				| Bitboard.bit(new Square('d', 2).toNum());
+		assertEquals(expected, Attacks.knight(b1));
+	}
+
+	public void testPawnAttacks() {
+		int e4 = new Square('e', 4).toNum();
+		assertEquals(Bitboard.bit(new Square('d', 5).toNum())
+				| Bitboard.bit(new Square('f', 5).toNum()),
+				Attacks.pawn(Position.WHITE, e4));
+		assertEquals(Bitboard.bit(new Square('d', 3).toNum())
+				| Bitboard.bit(new Square('f', 3).toNum()),
+				Attacks.pawn(Position.BLACK, e4));
+	}
+
+	public void testBetweenMatchesGetBtwnSqs() {
+		Square[][] pairs = { { new Square('a', 1), new Square('a', 8) },
+				{ new Square('a', 1), new Square('h', 8) },
+				{ new Square('a', 8), new Square('h', 1) },
+				{ new Square('c', 4), new Square('g', 4) } };
+		for (Square[] pair : pairs) {
+			long expected = 0;
+			for (Square s : Board.getBtwnSqs(pair[0], pair[1])) {
+				expected |= Bitboard.bit(s.toNum());
+			}
+			assertEquals(expected,
+					Attacks.between(pair[0].toNum(), pair[1].toNum()));
+		}
+		assertEquals(0, Attacks.between(new Square('a', 1).toNum(),
+				new Square('b', 3).toNum()));
+	}
+}
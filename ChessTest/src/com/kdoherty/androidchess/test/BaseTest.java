@@ -1,5 +1,7 @@
 package com.kdoherty.androidchess.test;
 
+import java.util.Random;
+
 import junit.framework.TestCase;
 
 import com.kdoherty.chess.Bishop;
@@ -7,6 +9,8 @@ import com.kdoherty.chess.Board;
 import com.kdoherty.chess.Color;
 import com.kdoherty.chess.King;
 import com.kdoherty.chess.Knight;
+import com.kdoherty.chess.Move;
+import com.kdoherty.chess.MoveGenerator;
 import com.kdoherty.chess.Pawn;
 import com.kdoherty.chess.Piece;
 import com.kdoherty.chess.Queen;
@@ -52,6 +56,22 @@ public class BaseTest extends TestCase {
 	private King k1 = new King(Color.WHITE);
 	private King k2 = new King(Color.BLACK);
 
+	/** Checks a position reached by playOut */
+	protected interface PositionCheck {
+
+		/**
+		 * @param board
+		 *            The Board reached, to be left as it was found
+		 * @param color
+		 *            The Color to move
+		 * @param moves
+		 *            The packed legal moves of the Color to move
+		 * @param count
+		 *            The number of legal moves
+		 */
+		void check(Board board, Color color, int[] moves, int count);
+	}
+
 	/** Directions are from the Colors POV */
 	protected enum Direction {
 		RIGHT, LEFT;
@@ -413,4 +433,67 @@ public class BaseTest extends TestCase {
 		return board;
 	}
 
+	/**
+	 * Plays random legal moves from the starting position, running the input
+	 * check on every position reached. A game ends early when the side to
+	 * move has no moves. The same seed always plays the same games.
+	 * 
+	 * @param seed
+	 *            The seed of the random moves
+	 * @param games
+	 *            The number of games to play
+	 * @param plies
+	 *            The most moves of each game
+	 * @param check
+	 *            Run on each position before its move is played
+	 */
+	protected static void playOut(long seed, int games, int plies,
+			PositionCheck check) {
+		playOut(seed, games, plies, false, check);
+	}
+
+	/**
+	 * Plays random legal moves from the starting position like playOut, but
+	 * can play them the way a game does. Those moves are made as Move
+	 * objects, pass the turn and are added to the Board's moves, so the move
+	 * count grows as it would in a game.
+	 * 
+	 * @param seed
+	 *            The seed of the random moves
+	 * @param games
+	 *            The number of games to play
+	 * @param plies
+	 *            The most moves of each game
+	 * @param asGame
+	 *            Whether to play the moves the way a game does rather than as
+	 *            packed moves
+	 * @param check
+	 *            Run on each position before its move is played
+	 */
+	protected static void playOut(long seed, int games, int plies,
+			boolean asGame, PositionCheck check) {
+		Random random = new Random(seed);
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		for (int game = 0; game < games; game++) {
+			Board board = Board.defaultBoard();
+			Color color = Color.WHITE;
+			for (int ply = 0; ply < plies; ply++) {
+				int count = MoveGenerator.generateMoves(board, color, moves);
+				check.check(board, color, moves, count);
+				if (count == 0) {
+					break;
+				}
+				int move = moves[random.nextInt(count)];
+				if (asGame) {
+					Move played = board.toMove(move);
+					played.make();
+					board.toggleSideToMove();
+					board.addMove(played);
+				} else {
+					board.makeMove(move);
+				}
+				color = color.opp();
+			}
+		}
+	}
 }
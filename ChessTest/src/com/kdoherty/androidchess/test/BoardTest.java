@@ -1,13 +1,23 @@
 package com.kdoherty.androidchess.test;
 
+import java.util.List;
+import java.util.Random;
+
+import com.kdoherty.chess.Bitboard;
 import com.kdoherty.chess.Board;
 import com.kdoherty.chess.Color;
 import com.kdoherty.chess.King;
+import com.kdoherty.chess.Move;
+import com.kdoherty.chess.MoveGenerator;
+import com.kdoherty.chess.PackedMove;
 import com.kdoherty.chess.Pawn;
 import com.kdoherty.chess.Piece;
+import com.kdoherty.chess.PieceType;
+import com.kdoherty.chess.Position;
 import com.kdoherty.chess.Queen;
 import com.kdoherty.chess.Rook;
 import com.kdoherty.chess.Square;
+import com.kdoherty.engine.PieceSquare;
 
 public class BoardTest extends BaseTest {
 
@@ -159,7 +169,7 @@ public class BoardTest extends BaseTest {
 		Board board = Board.defaultBoard();
 		assertEquals(
 				board.getMoves(Color.WHITE).toString(),
-				"[nc3, na3, nh3, nf3, pa3, pa4, pb3, pb4, pc3, pc4, pd3, pd4, pe3, pe4, pf3, pf4, pg3, pg4, ph3, ph4]");
+				"[pa3, pa4, pb3, pb4, pc3, pc4, pd3, pd4, pe3, pe4, pf3, pf4, pg3, pg4, ph3, ph4, na3, nc3, nf3, nh3]");
 	}
 
 	public void testIsAttacked() {
@@ -169,6 +179,27 @@ public class BoardTest extends BaseTest {
 		assertFalse(board.isAttacked(3, 2, Color.WHITE));
 	}
 
+	public void testPositionInSync() {
+		Board board = Board.defaultBoard();
+		Position position = board.getPosition();
+		assertEquals(32, Bitboard.count(position.getOccupied()));
+		assertEquals(8, Bitboard.count(position.getPieces(Position.WHITE,
+				PieceType.PAWN)));
+		assertEquals(PieceType.QUEEN, position.getType(new Square('d', 8).toNum()));
+		assertEquals(Position.BLACK, position.getColor(new Square('d', 8).toNum()));
+
+		board.movePiece(6, 4, 4, 4); // pe4
+		assertEquals(PieceType.NONE, position.getType(new Square('e', 2).toNum()));
+		assertEquals(PieceType.PAWN, position.getType(new Square('e', 4).toNum()));
+
+		board.remove(0, 3);
+		assertEquals(0, position.getPieces(Position.BLACK, PieceType.QUEEN));
+		assertEquals(31, Bitboard.count(position.getOccupied()));
+
+		board.clearBoard();
+		assertEquals(0, position.getOccupied());
+	}
+
 	public void testFindKing() {
 		Board board = Board.defaultBoard();
 		King whiteKing = board.findKing(Color.WHITE);
@@ -206,6 +237,31 @@ public class BoardTest extends BaseTest {
 		board = Board.defaultBoard();
 		assertFalse(board.isDraw(Color.BLACK));
 	}
+
+	public void testGetStatus() {
+		assertEquals(Board.Status.CHECKMATE,
+				checkmateBoard().getStatus(Color.BLACK));
+		assertEquals(Board.Status.STALEMATE, drawBoard().getStatus(Color.BLACK));
+		assertEquals(Board.Status.CHECK,
+				kingInCheckBoard().getStatus(Color.BLACK));
+		assertEquals(Board.Status.NORMAL,
+				Board.defaultBoard().getStatus(Color.WHITE));
+	}
+
+	public void testGetStatusFollowsMoves() {
+		// Qh5xf7 mates, but only once it has been made
+		Board board = Board.fromFen("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/"
+				+ "PPPP1PPP/RNB1K1NR w KQkq - 4 4");
+		assertEquals(Board.Status.NORMAL, board.getStatus(Color.BLACK));
+		board.makeMove(PackedMove.encode(Square.toNum(3, 7),
+				Square.toNum(1, 5), Move.Type.NORMAL, PieceType.QUEEN,
+				PieceType.PAWN));
+		assertEquals(Board.Status.CHECKMATE, board.getStatus(Color.BLACK));
+		assertTrue(board.isGameOver());
+		board.unmakeMove();
+		assertEquals(Board.Status.NORMAL, board.getStatus(Color.BLACK));
+		assertFalse(board.isGameOver());
+	}
 	
 	public void testClone() {
 		Board castleBoard = castlingReadyBoard();
@@ -219,4 +275,201 @@ public class BoardTest extends BaseTest {
 		assertFalse(kingInCheckBoard == kingInCheckBoard.clone());
 		System.out.println(Board.defaultBoard());
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Makes every packed move on the input Board and checks it matches making
+	 * the same Move object on a copy, and that unmaking restores the Board
+	 */
+	private void assertPackedMovesMatch(Board board, Color color) {
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generateMoves(board, color, moves);
+		Board before = board.clone();
+		for (int i = 0; i < count; i++) {
+			Board expected = board.clone();
+			expected.toMove(moves[i]).make();
+			board.makeMove(moves[i]);
+			assertEquals(expected, board);
+			assertEquals(expected.getEnPoissantSq(), board.getEnPoissantSq());
+			board.unmakeMove();
+			assertEquals(before, board);
+			assertEquals(before.getEnPoissantSq(), board.getEnPoissantSq());
+		}
+	}
+
+	public void testMakeUnmakePackedMove() {
+		assertPackedMovesMatch(castlingReadyBoard(), Color.WHITE);
+		assertPackedMovesMatch(castlingReadyBoard(), Color.BLACK);
+		assertPackedMovesMatch(pawnPromotionReadyBoard(Color.WHITE), Color.WHITE);
+		assertPackedMovesMatch(pawnPromotionReadyBoard(Color.BLACK), Color.BLACK);
+
+		playOut(11, 1, 80, new PositionCheck() {
+			@Override
+			public void check(Board board, Color color, int[] moves, int count) {
+				assertPackedMovesMatch(board, color);
+			}
+		});
+	}
+
+	public void testZobristKeyTranspositions() {
+		Board board = Board.defaultBoard();
+		long startKey = board.getZobristKey();
+		assertEquals(startKey, Board.fromFen(
+				"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1")
+				.getZobristKey());
+
+		board.movePiece(7, 6, 5, 5); // Nf3
+		board.movePiece(0, 6, 2, 5); // Nf6
+		assertFalse(startKey == board.getZobristKey());
+		board.movePiece(5, 5, 7, 6); // Ng1
+		board.movePiece(2, 5, 0, 6); // Ng8
+		assertEquals(startKey, board.getZobristKey());
+
+		board.toggleSideToMove();
+		assertFalse(startKey == board.getZobristKey());
+		assertEquals(startKey, board.getZobristKey(Color.WHITE));
+	}
+
+	public void testZobristKeyCastlingRights() {
+		Board board = castlingReadyBoard();
+		long key = board.getZobristKey();
+		board.getOccupant(7, 7).incrementMoveCount();
+		assertFalse(key == board.getZobristKey());
+		board.getOccupant(7, 7).decrementMoveCount();
+		assertEquals(key, board.getZobristKey());
+	}
+
+	public void testZobristKeyIncrementalMatchesFresh() {
+		Random random = new Random(5);
+		Board board = Board.defaultBoard();
+		Color color = Color.WHITE;
+		for (int ply = 0; ply < 100; ply++) {
+			List<Move> moves = board.getMoves(color);
+			if (moves.isEmpty()) {
+				break;
+			}
+			long before = board.getZobristKey();
+			for (Move move : moves) {
+				move.make();
+				assertEquals(board.clone().getZobristKey(), board.getZobristKey());
+				move.unmake();
+				assertEquals(before, board.getZobristKey());
+			}
+			int[] packed = new int[MoveGenerator.MAX_MOVES];
+			int count = MoveGenerator.generateMoves(board, color, packed);
+			for (int i = 0; i < count; i++) {
+				board.makeMove(packed[i]);
+				assertEquals(board.clone().getZobristKey(), board.getZobristKey());
+				board.unmakeMove();
+				assertEquals(before, board.getZobristKey());
+			}
+			moves.get(random.nextInt(moves.size())).make();
+			color = color.opp();
+		}
+	}
+
+	private static void assertValuesMatchPieces(Board board) {
+		int phase = 0;
+		for (Color color : Color.values()) {
+			int material = 0;
+			int middleGame = 0;
+			int endGame = 0;
+			for (Piece piece : board.getPieces(color)) {
+				int sq = Square.toNum(piece.getRow(), piece.getCol());
+				material += PieceSquare.material(piece.getType());
+				middleGame += PieceSquare.middleGame(Position.index(color),
+						piece.getType(), sq);
+				endGame += PieceSquare.endGame(Position.index(color),
+						piece.getType(), sq);
+				phase += PieceSquare.phase(piece.getType());
+			}
+			assertEquals(material, board.getMaterial(color));
+			assertEquals(middleGame, board.getMiddleGameValue(color));
+			assertEquals(endGame, board.getEndGameValue(color));
+		}
+		assertEquals(phase, board.getPhase());
+	}
+
+	public void testMaterialAndPieceSquareIncremental() {
+		playOut(21, 1, 150, new PositionCheck() {
+			@Override
+			public void check(Board board, Color color, int[] moves, int count) {
+				assertValuesMatchPieces(board);
+				int material = board.getMaterial(color);
+				int middleGame = board.getMiddleGameValue(color);
+				int phase = board.getPhase();
+				for (int i = 0; i < count; i++) {
+					board.makeMove(moves[i]);
+					assertValuesMatchPieces(board);
+					board.unmakeMove();
+					assertEquals(material, board.getMaterial(color));
+					assertEquals(middleGame, board.getMiddleGameValue(color));
+					assertEquals(phase, board.getPhase());
+				}
+			}
+		});
+	}
+
+	public void testPhase() {
+		assertEquals(24, Board.defaultBoard().getPhase());
+		assertEquals(0, Board.fromFen("4k3/pppp4/8/8/8/8/4PPPP/4K3 w - - 0 1")
+				.getPhase());
+		assertEquals(7, Board.fromFen("4k3/8/8/8/8/8/8/RN2K1Q1 w - - 0 1")
+				.getPhase());
+	}
+
+	public void testEveryPieceHasEndGameSquares() {
+		for (int type = PieceType.PAWN; type <= PieceType.KING; type++) {
+			boolean differs = false;
+			for (int sq = 0; sq < Board.NUM_ROWS * Board.NUM_COLS; sq++) {
+				differs |= PieceSquare.middleGame(Position.WHITE, type, sq)
+						!= PieceSquare.endGame(Position.WHITE, type, sq);
+			}
+			assertTrue("Type " + type, differs);
+		}
+	}
+
+	public void testPawnKey() {
+		playOut(22, 1, 150, new PositionCheck() {
+			@Override
+			public void check(Board board, Color color, int[] moves, int count) {
+				long before = board.getPawnKey();
+				for (int i = 0; i < count; i++) {
+					board.makeMove(moves[i]);
+					assertEquals(board.clone().getPawnKey(), board.getPawnKey());
+					if (PackedMove.piece(moves[i]) != PieceType.PAWN
+							&& PackedMove.captured(moves[i]) != PieceType.PAWN) {
+						assertEquals(before, board.getPawnKey());
+					} else {
+						assertFalse(before == board.getPawnKey());
+					}
+					board.unmakeMove();
+					assertEquals(before, board.getPawnKey());
+				}
+			}
+		});
+	}
+
+	public void testNullMove() {
+		Board board = Board.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1");
+		long key = board.getZobristKey();
+		board.makeNullMove();
+		assertNull(board.getEnPoissantSq());
+		assertFalse(key == board.getZobristKey());
+		board.unmakeNullMove();
+		assertEquals(new Square(2, 3), board.getEnPoissantSq());
+		assertEquals(key, board.getZobristKey());
+	}
+
+	public void testUnmakeNullMoveAfterRealMove() {
+		Board board = Board.defaultBoard();
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		MoveGenerator.generateMoves(board, Color.WHITE, moves);
+		board.makeMove(moves[0]);
+		try {
+			board.unmakeNullMove();
+			fail("Only a null move can be unmade by unmakeNullMove");
+		} catch (IllegalStateException e) {
+			// Test does not fail
+		}
+	}
+}
@@ -2,56 +2,155 @@ package com.kdoherty.androidchess.test;
 
 import com.kdoherty.chess.Board;
 import com.kdoherty.chess.Color;
+import com.kdoherty.chess.Move;
 import com.kdoherty.engine.CpuPlayer;
+import com.kdoherty.engine.SearchHandle;
 
 public class CpuMoveTest extends BaseTest {
 	
+	private static final long MILLIS_REMAINING = 10 * 1000;
+
 	CpuPlayer blackPlayer = CpuPlayer.getInstance(Color.BLACK);
 	
 	public void testMateSenerioOne() {
 		Board board = fillWithTestMate(0);
-		System.out.println(blackPlayer.negaMaxMove(board));
+		System.out.println(blackPlayer.negaMaxMove(board, MILLIS_REMAINING));
 	}
 	
 	public void testMateSenerioTwo() {
 		Board board = fillWithTestMate(1);
-		System.out.println(blackPlayer.negaMaxMove(board));
+		System.out.println(blackPlayer.negaMaxMove(board, MILLIS_REMAINING));
 	}
 	
 	public void testMateSenerioThree() {
 		Board board = fillWithTestMate(2);
-		System.out.println(blackPlayer.negaMaxMove(board));
+		System.out.println(blackPlayer.negaMaxMove(board, MILLIS_REMAINING));
 	}
 	
 	public void testMateSenerioFour() {
 		Board board = fillWithTestMate(3);
-		System.out.println(blackPlayer.negaMaxMove(board));
+		System.out.println(blackPlayer.negaMaxMove(board, MILLIS_REMAINING));
 	}
 	
 	public void testMateSenerioFive() {
 		Board board = fillWithTestMate(4);
-		System.out.println(blackPlayer.negaMaxMove(board));
+		System.out.println(blackPlayer.negaMaxMove(board, MILLIS_REMAINING));
 	}
 	
 	public void testMateSenerioSix() {
 		Board board = fillWithTestMate(5);
-		System.out.println(blackPlayer.negaMaxMove(board));
+		System.out.println(blackPlayer.negaMaxMove(board, MILLIS_REMAINING));
 	}
 	
 	public void testMateSenerioSeven() {
 		Board board = fillWithTestMate(6);
-		System.out.println(blackPlayer.negaMaxMove(board));
+		System.out.println(blackPlayer.negaMaxMove(board, MILLIS_REMAINING));
 	}
 	
 	public void testMateSenerioEight() {
 		Board board = fillWithTestMate(7);
-		System.out.println(blackPlayer.negaMaxMove(board));
+		System.out.println(blackPlayer.negaMaxMove(board, MILLIS_REMAINING));
 	}
 		
 	public void testMateSenerioNine() {
 		Board board = fillWithTestMate(8);
-		System.out.println(blackPlayer.negaMaxMove(board));
+		System.out.println(blackPlayer.negaMaxMove(board, MILLIS_REMAINING));
 		
 	}
 
+
+	public void testParallelSearch() {
+		Board board = Board.defaultBoard();
+		CpuPlayer player = CpuPlayer.getInstance(Color.WHITE);
+		player.setThreadCount(4);
+		assertEquals(4, player.getThreadCount());
+		Move move = player.negaMaxMove(board, MILLIS_REMAINING);
+		assertTrue(board.getMoves(Color.WHITE).contains(move));
+		assertTrue(player.getCompletedDepth() >= 1);
+	}
+
+	public void testThreadCountMustBePositive() {
+		try {
+			CpuPlayer.getInstance(Color.WHITE).setThreadCount(0);
+			fail("A search needs at least one thread");
+		} catch (IllegalArgumentException e) {
+			// Test does not fail
+		}
+	}
+
+	public void testPlayersAreIndependent() {
+		assertNotSame(CpuPlayer.getInstance(Color.WHITE),
+				CpuPlayer.getInstance(Color.WHITE));
+	}
+
+	private static void play(Board board, Move move) {
+		move.make(board);
+		board.toggleSideToMove();
+		board.addMove(move);
+	}
+
+	public void testPonderHit() throws InterruptedException {
+		Board board = Board.defaultBoard();
+		CpuPlayer player = CpuPlayer.getInstance(Color.WHITE);
+		play(board, player.negaMaxMove(board.clone(), MILLIS_REMAINING));
+
+		Move expected = player.getPonderMove(board);
+		assertNotNull(expected);
+		assertTrue(player.ponder(board));
+		assertTrue(player.isPondering());
+		Thread.sleep(500);
+
+		play(board, expected);
+		Move move = player.negaMaxMove(board.clone(), MILLIS_REMAINING);
+		assertFalse(player.isPondering());
+		assertTrue(board.getMoves(Color.WHITE).contains(move));
+		assertTrue(player.getCompletedDepth() >= 1);
+	}
+
+	public void testPonderMiss() {
+		Board board = Board.defaultBoard();
+		CpuPlayer player = CpuPlayer.getInstance(Color.WHITE);
+		play(board, player.negaMaxMove(board.clone(), MILLIS_REMAINING));
+
+		Move expected = player.getPonderMove(board);
+		assertTrue(player.ponder(board));
+		for (Move reply : board.getMoves(Color.BLACK)) {
+			if (!reply.equals(expected)) {
+				play(board, reply);
+				break;
+			}
+		}
+		Move move = player.negaMaxMove(board.clone(), MILLIS_REMAINING);
+		assertFalse(player.isPondering());
+		assertTrue(board.getMoves(Color.WHITE).contains(move));
+	}
+
+	public void testStopPondering() {
+		Board board = Board.defaultBoard();
+		CpuPlayer player = CpuPlayer.getInstance(Color.WHITE);
+		play(board, player.negaMaxMove(board.clone(), MILLIS_REMAINING));
+		assertTrue(player.ponder(board));
+		player.stopPondering();
+		assertFalse(player.isPondering());
+	}
+
+	public void testAnalyzeWhilePondering() {
+		Board board = Board.defaultBoard();
+		CpuPlayer player = CpuPlayer.getInstance(Color.WHITE);
+		play(board, player.negaMaxMove(board.clone(), MILLIS_REMAINING));
+		assertTrue(player.ponder(board));
+
+		SearchHandle handle = new SearchHandle();
+		handle.setNodeLimit(20000);
+		Move move = player.analyze(Board.defaultBoard(), handle);
+		assertFalse(player.isPondering());
+		assertTrue(Board.defaultBoard().getMoves(Color.WHITE).contains(move));
+		assertTrue(handle.getNodes() < 30000);
+	}
+
+	public void testNoPonderWithoutSearch() {
+		CpuPlayer player = CpuPlayer.getInstance(Color.BLACK);
+		assertFalse(player.ponder(Board.defaultBoard()));
+		assertFalse(player.isPondering());
+	}
 }
@@ -0,0 +1,99 @@
+package com.kdoherty.androidchess.test;
+
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Color;
+import com.kdoherty.chess.MoveGenerator;
+import com.kdoherty.engine.EvalCache;
+import com.kdoherty.engine.EvalContext;
+
+public class EvalCacheTest extends BaseTest {
+
+	/**
+	 * Evaluates the input Board with the input context, checking the score
+	 * against the score with a new context whose cache is empty
+	 */
+	private static void assertSameAsUncached(Board board, Color color,
+			EvalContext context) {
+		assertEquals(new EvalContext().evaluate(board, color),
+				context.evaluate(board, color));
+	}
+
+	/**
+	 * Makes the packed move of the input Color shown as the input String
+	 */
+	private static void makeMove(Board board, Color color, String shown) {
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generateMoves(board, color, moves);
+		for (int i = 0; i < count; i++) {
+			if (board.toMove(moves[i]).toString().equalsIgnoreCase(shown)) {
+				board.makeMove(moves[i]);
+				return;
+			}
+		}
+		fail(shown + " is not a legal move");
+	}
+
+	public void testTempoIsNotTakenFromTheCache() {
+		EvalContext context = new EvalContext();
+		Board board = Board.fromFen(
+				"rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2");
+		makeMove(board, Color.WHITE, "nf3");
+		assertSameAsUncached(board, Color.WHITE, context);
+
+		// The same position, but the Knight has used three moves to get there
+		makeMove(board, Color.BLACK, "be7");
+		makeMove(board, Color.WHITE, "ng1");
+		makeMove(board, Color.BLACK, "bf8");
+		makeMove(board, Color.WHITE, "nf3");
+		assertSameAsUncached(board, Color.WHITE, context);
+	}
+
+	public void testCachedMatchesUncachedInRandomGame() {
+		final EvalContext context = new EvalContext();
+		playOut(25, 1, 60, true, new PositionCheck() {
+			@Override
+			public void check(Board board, Color color, int[] moves, int count) {
+				for (int i = 0; i < count; i++) {
+					board.makeMove(moves[i]);
+					assertSameAsUncached(board, color, context);
+					assertSameAsUncached(board, color.opp(), context);
+					board.unmakeMove();
+				}
+			}
+		});
+		EvalCache cache = context.getEvalCache();
+		assertTrue(cache.getHits() > 0);
+		assertTrue(cache.getMisses() > 0);
+	}
+
+	public void testStoreAndProbe() {
+		EvalCache cache = new EvalCache(16);
+		long key = 0x123456789ABCDEFL;
+		assertEquals(EvalCache.MISS, cache.probe(key));
+		cache.store(key, -250);
+		assertEquals(-250, cache.probe(key));
+		cache.store(key, 100000);
+		assertEquals(100000, cache.probe(key));
+		cache.clear();
+		assertEquals(EvalCache.MISS, cache.probe(key));
+	}
+
+	public void testSameEntryOtherKeyMisses() {
+		EvalCache cache = new EvalCache(16);
+		long key = 0x123456789ABCDEFL;
+		long other = key ^ (1L << 40);
+		cache.store(key, 30);
+		assertEquals(EvalCache.MISS, cache.probe(other));
+
+		// The newest position replaces the older one
+		cache.store(other, 40);
+		assertEquals(EvalCache.MISS, cache.probe(key));
+		assertEquals(40, cache.probe(other));
+	}
+
+	public void testEmptyEntryNeverMatches() {
+		EvalCache cache = new EvalCache(16);
+		assertEquals(EvalCache.MISS, cache.probe(0L));
+		assertEquals(EvalCache.MISS, cache.probe(5L));
+	}
+}
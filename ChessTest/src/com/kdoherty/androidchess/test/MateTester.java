@@ -11,7 +11,8 @@ public class MateTester extends BaseTest {
 	
 	public void testMateSenerioOne() {
 		Board board = fillWithTestMate(0);
-		assertEquals(MateSolver.findMateUpToN(board, Color.WHITE, 5).toString(), "[rc7, rd8]");
+		List<Move> mateMoves = MateSolver.findMateUpToN(board, Color.WHITE, 5);
+		assertTrue(mateMoves.toString().equals("[rc7, rd8]") || mateMoves.toString().equals("[rd7, rc8]"));
 	}
 	
 	public void testMateSenerioTwo() {
@@ -33,7 +34,8 @@ public class MateTester extends BaseTest {
 	public void testMateSenerioFive() {
 		Board board = fillWithTestMate(4);
 		List<Move> mateMoves = MateSolver.findMateUpToN(board, Color.WHITE, 5);
-		assertTrue(mateMoves.toString().equals("[bb3, qd6]") || mateMoves.toString().equals("[bb3, re7]"));
+		assertTrue(mateMoves.toString().equals("[bb3, qd6]") || mateMoves.toString().equals("[bb3, re7]")
+				|| mateMoves.toString().equals("[bb3, qf7]"));
 	}
 	
 	public void testMateSenerioSix() {
@@ -54,6 +56,7 @@ public class MateTester extends BaseTest {
 		
 	public void testMateSenerioNine() {
 		Board board = fillWithTestMate(8);
-		assertEquals(MateSolver.findMateUpToN(board, Color.WHITE, 5).toString(), "[ba4, pb3, bb5, rg4, ne3]");
+		List<Move> mateMoves = MateSolver.findMateUpToN(board, Color.WHITE, 5);
+		assertTrue(mateMoves.toString().equals("[ba4, pb3, bb5, rg4, ne3]") || mateMoves.toString().equals("[ba4, pb3, bb5, rg4, rf4]"));
 	}
 }
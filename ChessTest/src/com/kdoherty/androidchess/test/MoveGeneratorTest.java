@@ -0,0 +1,211 @@
+package com.kdoherty.androidchess.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.kdoherty.chess.Bishop;
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Color;
+import com.kdoherty.chess.King;
+import com.kdoherty.chess.Knight;
+import com.kdoherty.chess.Move;
+import com.kdoherty.chess.MoveGenerator;
+import com.kdoherty.chess.PackedMove;
+import com.kdoherty.chess.Pawn;
+import com.kdoherty.chess.Piece;
+import com.kdoherty.chess.Queen;
+import com.kdoherty.chess.Rook;
+
+public class MoveGeneratorTest extends BaseTest {
+
+	private static List<String> keys(List<Move> moves) {
+		List<String> keys = new ArrayList<String>();
+		for (Move move : moves) {
+			keys.add(move.getStartingRow() + "" + move.getStartingCol()
+					+ move.getRow() + move.getCol() + move.getType());
+		}
+		Collections.sort(keys);
+		return keys;
+	}
+
+	private static List<Move> legacyMoves(Board board, Color color) {
+		List<Move> moves = new ArrayList<Move>();
+		for (Piece piece : board.getPieces(color)) {
+			moves.addAll(piece.getMoves(board));
+		}
+		return moves;
+	}
+
+	public void testMatchesPieceMovesInRandomGames() {
+		Random random = new Random(7);
+		for (int game = 0; game < 20; game++) {
+			Board board = Board.defaultBoard();
+			Color color = Color.WHITE;
+			for (int ply = 0; ply < 120; ply++) {
+				List<Move> moves = MoveGenerator.getLegalMoves(board, color);
+				assertEquals(keys(legacyMoves(board, color)), keys(moves));
+				if (moves.isEmpty()) {
+					break;
+				}
+				moves.get(random.nextInt(moves.size())).make();
+				color = color.opp();
+			}
+		}
+	}
+
+	public void testPinnedPieceStaysOnLine() {
+		Board board = new Board();
+		board.setPiece(7, 4, new King(Color.WHITE));
+		board.setPiece(5, 4, new Rook(Color.WHITE));
+		board.setPiece(6, 3, new Knight(Color.WHITE));
+		board.setPiece(0, 4, new Rook(Color.BLACK));
+		board.setPiece(3, 0, new Bishop(Color.BLACK));
+		board.setPiece(0, 0, new King(Color.BLACK));
+		for (Move move : MoveGenerator.getLegalMoves(board, Color.WHITE)) {
+			Piece piece = move.getPiece();
+			if (piece instanceof Rook) {
+				assertEquals(4, move.getCol());
+			}
+			assertFalse(piece instanceof Knight);
+		}
+	}
+
+	public void testDoubleCheckOnlyKingMoves() {
+		Board board = new Board();
+		board.setPiece(7, 4, new King(Color.WHITE));
+		board.setPiece(7, 0, new Queen(Color.WHITE));
+		board.setPiece(0, 4, new Rook(Color.BLACK));
+		board.setPiece(5, 3, new Knight(Color.BLACK));
+		board.setPiece(0, 0, new King(Color.BLACK));
+		List<Move> moves = MoveGenerator.getLegalMoves(board, Color.WHITE);
+		assertFalse(moves.isEmpty());
+		for (Move move : moves) {
+			assertTrue(move.getPiece() instanceof King);
+		}
+	}
+
+	public void testEnPoissantDiscoveredCheck() {
+		Board board = new Board();
+		board.setPiece(3, 0, new King(Color.WHITE));
+		board.setPiece(3, 1, new Pawn(Color.WHITE));
+		board.setPiece(1, 2, new Pawn(Color.BLACK));
+		board.setPiece(3, 7, new Rook(Color.BLACK));
+		board.setPiece(0, 7, new King(Color.BLACK));
+		new Move(board, board.getOccupant(1, 2), 3, 2).make(); // pc5
+		for (Move move : MoveGenerator.getLegalMoves(board, Color.WHITE)) {
+			assertFalse(move.getType() == Move.Type.EN_POISSANT);
+		}
+	}
+
+	public void testCapturesAreCapturingLegalMoves() {
+		final int[] captures = new int[MoveGenerator.MAX_MOVES];
+		playOut(11, 20, 120, new PositionCheck() {
+			@Override
+			public void check(Board board, Color color, int[] moves, int count) {
+				List<Integer> expected = new ArrayList<Integer>();
+				for (int i = 0; i < count; i++) {
+					if (PackedMove.isCapture(moves[i])
+							|| PackedMove.isPromotion(moves[i])) {
+						expected.add(moves[i]);
+					}
+				}
+				int captureCount = MoveGenerator.generateCaptures(board,
+						color, captures);
+				List<Integer> actual = new ArrayList<Integer>();
+				for (int i = 0; i < captureCount; i++) {
+					actual.add(captures[i]);
+				}
+				Collections.sort(expected);
+				Collections.sort(actual);
+				assertEquals(expected, actual);
+			}
+		});
+	}
+
+	public void testHasLegalMoveMatchesGeneration() {
+		playOut(20, 40, 200, new PositionCheck() {
+			@Override
+			public void check(Board board, Color color, int[] moves, int count) {
+				assertEquals(count != 0,
+						MoveGenerator.hasLegalMove(board, color));
+			}
+		});
+	}
+
+	public void testHasLegalMoveOnlyEnPoissant() {
+		// The black Pawn just moved two, taking it is White's only move
+		Board board = Board.fromFen("8/8/4n3/3pP3/8/1p6/2k5/K7 w - d6 0 1");
+		assertEquals(1, MoveGenerator.getLegalMoves(board, Color.WHITE).size());
+		assertTrue(MoveGenerator.hasLegalMove(board, Color.WHITE));
+		board.setEnPoissantSq(null);
+		assertFalse(MoveGenerator.hasLegalMove(board, Color.WHITE));
+	}
+
+	private static void assertChecksMatch(Board board, Color color) {
+		int[] all = new int[MoveGenerator.MAX_MOVES];
+		int[] checks = new int[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generateMoves(board, color, all);
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < count; i++) {
+			board.makeMove(all[i]);
+			if (board.kingInCheck(color.opp())) {
+				expected.add(all[i]);
+			}
+			board.unmakeMove();
+		}
+		int checkCount = MoveGenerator.generateChecks(board, color, checks);
+		List<Integer> actual = new ArrayList<Integer>();
+		for (int i = 0; i < checkCount; i++) {
+			actual.add(checks[i]);
+			assertTrue(MoveGenerator.givesCheck(board, checks[i]));
+		}
+		Collections.sort(expected);
+		Collections.sort(actual);
+		assertEquals(expected, actual);
+	}
+
+	public void testChecksAreCheckingLegalMoves() {
+		playOut(19, 20, 120, new PositionCheck() {
+			@Override
+			public void check(Board board, Color color, int[] moves, int count) {
+				assertChecksMatch(board, color);
+			}
+		});
+	}
+
+	public void testDiscoveredChecks() {
+		Board board = Board.fromFen("4k3/8/8/8/4N3/8/8/4R2K w - - 0 1");
+		assertEquals(8, board.getChecks(Color.WHITE).size());
+		assertChecksMatch(board, Color.WHITE);
+	}
+
+	public void testCastlingCheck() {
+		Board board = Board.fromFen("5k2/8/8/8/8/8/8/4K2R w K - 0 1");
+		assertChecksMatch(board, Color.WHITE);
+		boolean castles = false;
+		for (Move move : board.getChecks(Color.WHITE)) {
+			castles |= move.getType() == Move.Type.WHITE_SHORT;
+		}
+		assertTrue(castles);
+	}
+
+	public void testEnPoissantGivesDiscoveredCheck() {
+		Board board = Board.fromFen("8/8/8/k1pP3R/8/8/8/4K3 w - c6 0 1");
+		assertChecksMatch(board, Color.WHITE);
+		boolean enPoissant = false;
+		for (Move move : board.getChecks(Color.WHITE)) {
+			enPoissant |= move.getType() == Move.Type.EN_POISSANT;
+		}
+		assertTrue(enPoissant);
+	}
+
+	public void testPromotionChecks() {
+		Board board = Board.fromFen("3k4/P7/8/8/8/8/8/4K3 w - - 0 1");
+		List<Move> checks = board.getChecks(Color.WHITE);
+		assertEquals(1, checks.size());
+		assertEquals(Move.Type.PROMOTION_QUEEN, checks.get(0).getType());
+		assertChecksMatch(board, Color.WHITE);
+	}
+}
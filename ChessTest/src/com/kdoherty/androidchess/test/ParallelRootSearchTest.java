@@ -0,0 +1,101 @@
+package com.kdoherty.androidchess.test;
+
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Color;
+import com.kdoherty.chess.Move;
+import com.kdoherty.engine.ParallelRootSearch;
+
+public class ParallelRootSearchTest extends BaseTest {
+
+	private static final String ITALIAN = "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+
+	public void testDeterministicSearchRepeats() {
+		ParallelRootSearch search = new ParallelRootSearch(3, 4);
+		search.setDeterministic(true);
+		try {
+			Move first = search.search(Board.fromFen(ITALIAN), Color.WHITE, 5);
+			int firstScore = search.getScore();
+			Move second = search.search(Board.fromFen(ITALIAN), Color.WHITE, 5);
+			assertEquals(first.toString(), second.toString());
+			assertEquals(firstScore, search.getScore());
+			assertEquals(5, search.getCompletedDepth());
+		} finally {
+			search.shutdown();
+		}
+	}
+
+	public void testSharedSearchFindsLegalMove() {
+		ParallelRootSearch search = new ParallelRootSearch(3, 4);
+		try {
+			Board board = Board.fromFen(ITALIAN);
+			Move move = search.search(board, Color.WHITE, 4);
+			assertTrue(board.getMoves(Color.WHITE).contains(move));
+		} finally {
+			search.shutdown();
+		}
+	}
+
+	public void testFindsBackRankMate() {
+		ParallelRootSearch search = new ParallelRootSearch(2, 4);
+		try {
+			Board board = Board.fromFen("6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1");
+			assertEquals("rd8", search.search(board, Color.WHITE, 3).toString());
+			assertEquals(0, search.getCompletedDepth());
+		} finally {
+			search.shutdown();
+		}
+	}
+
+	public void testConcurrentSearchesDontInterfere() throws Exception {
+		final String[] fens = { ITALIAN,
+				"r3k2r/ppp2ppp/2n5/3q4/3P4/2P5/P4PPP/R2QK2R b KQkq - 0 1" };
+		final String[] alone = new String[fens.length];
+		for (int i = 0; i < fens.length; i++) {
+			alone[i] = searchDeterministic(fens[i]);
+		}
+		final String[] together = new String[fens.length];
+		Thread[] threads = new Thread[fens.length];
+		for (int i = 0; i < fens.length; i++) {
+			final int index = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					together[index] = searchDeterministic(fens[index]);
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		for (int i = 0; i < fens.length; i++) {
+			assertEquals(alone[i], together[i]);
+		}
+	}
+
+	/**
+	 * Searches the input position to depth 4 in deterministic mode
+	 * 
+	 * @return The move found and its score
+	 */
+	private static String searchDeterministic(String fen) {
+		ParallelRootSearch search = new ParallelRootSearch(2, 4);
+		search.setDeterministic(true);
+		try {
+			Board board = Board.fromFen(fen);
+			Move move = search.search(board, board.getSideToMove(), 4);
+			return move + " " + search.getScore();
+		} finally {
+			search.shutdown();
+		}
+	}
+
+	public void testThreadCountMustBePositive() {
+		try {
+			new ParallelRootSearch(0, 4);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Test does not fail
+		}
+	}
+}
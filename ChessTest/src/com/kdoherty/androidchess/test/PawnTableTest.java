@@ -0,0 +1,180 @@
+package com.kdoherty.androidchess.test;
+
+import java.lang.reflect.Method;
+
+import com.kdoherty.chess.Bitboard;
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Color;
+import com.kdoherty.chess.Pawn;
+import com.kdoherty.chess.Piece;
+import com.kdoherty.chess.PieceType;
+import com.kdoherty.chess.Position;
+import com.kdoherty.chess.Square;
+import com.kdoherty.engine.PawnEval;
+import com.kdoherty.engine.PawnTable;
+
+public class PawnTableTest extends BaseTest {
+
+	private Method pawnValue;
+
+	private Method pawnEndGameValue;
+
+	/**
+	 * Using reflection to get at the parts of the Pawn evaluation which the
+	 * table replaces
+	 */
+	@Override
+	public void setUp() throws NoSuchMethodException {
+		pawnValue = PawnEval.class.getDeclaredMethod("dynamicValue");
+		pawnValue.setAccessible(true);
+		pawnEndGameValue = PawnEval.class.getDeclaredMethod("endGameValue");
+		pawnEndGameValue.setAccessible(true);
+	}
+
+	/**
+	 * Gets the files on which the input bitboard has no bits set
+	 */
+	private static int emptyFiles(long bb) {
+		int empty = 0;
+		for (int col = 0; col < Board.NUM_COLS; col++) {
+			if ((bb & Bitboard.COL_MASKS[col]) == 0) {
+				empty |= 1 << col;
+			}
+		}
+		return empty;
+	}
+
+	/**
+	 * Gets the files of the passed Pawns of the input Color index by looking
+	 * for opposing Pawns ahead on the same and adjacent files
+	 */
+	private static int passedFiles(Position pos, int color) {
+		long opposing = pos.getPieces(1 - color, PieceType.PAWN);
+		int passed = 0;
+		long pawns = pos.getPieces(color, PieceType.PAWN);
+		while (pawns != 0) {
+			int sq = Bitboard.first(pawns);
+			pawns = Bitboard.removeFirst(pawns);
+			int row = Bitboard.row(sq);
+			int col = Bitboard.col(sq);
+			boolean blocked = false;
+			for (int r = 0; r < Board.NUM_ROWS; r++) {
+				boolean ahead = color == Position.WHITE ? r < row : r > row;
+				for (int c = col - 1; ahead && c <= col + 1; c++) {
+					if (Board.isInbounds(r, c) && (opposing & Bitboard
+							.bit(Square.toNum(r, c))) != 0) {
+						blocked = true;
+					}
+				}
+			}
+			if (!blocked) {
+				passed |= 1 << col;
+			}
+		}
+		return passed;
+	}
+
+	/**
+	 * Checks the current entry of the input table against a scan of the
+	 * Board's Pawns
+	 */
+	private void assertEntryMatches(PawnTable table, Board board)
+			throws Exception {
+		Position pos = board.getPosition();
+		long white = pos.getPieces(Position.WHITE, PieceType.PAWN);
+		long black = pos.getPieces(Position.BLACK, PieceType.PAWN);
+		assertEquals(emptyFiles(white | black), table.getOpenFiles());
+		assertEquals(emptyFiles(white),
+				table.getSemiOpenFiles(Position.WHITE));
+		assertEquals(emptyFiles(black),
+				table.getSemiOpenFiles(Position.BLACK));
+		for (Color color : Color.values()) {
+			int us = Position.index(color);
+			assertEquals(passedFiles(pos, us), table.getPassedFiles(us));
+			int middleGame = 0;
+			int endGame = 0;
+			for (Piece piece : board.getPieces(color)) {
+				if (piece instanceof Pawn) {
+					PawnEval eval = new PawnEval(board, (Pawn) piece);
+					middleGame += (Integer) pawnValue.invoke(eval);
+					endGame += (Integer) pawnEndGameValue.invoke(eval);
+				}
+			}
+			assertEquals(middleGame, table.getMiddleGameScore(us));
+			assertEquals(endGame, table.getEndGameScore(us));
+		}
+	}
+
+	private void assertMatchesScan(final PawnTable table) {
+		playOut(23, 10, 120, new PositionCheck() {
+			@Override
+			public void check(Board board, Color color, int[] moves, int count) {
+				table.probe(board);
+				try {
+					assertEntryMatches(table, board);
+				} catch (Exception e) {
+					throw new AssertionError(e);
+				}
+			}
+		});
+	}
+
+	public void testMatchesScanInRandomGames() {
+		assertMatchesScan(new PawnTable(PawnTable.DEFAULT_ENTRIES));
+	}
+
+	public void testMatchesScanWhenEntriesAreReplaced() {
+		assertMatchesScan(new PawnTable(2));
+	}
+
+	public void testOpenFilesForRook() throws Exception {
+		// The a-file is open, the d-file semi-open for White, the h-file closed
+		Board board = Board.fromFen("4k3/7p/8/3p4/8/8/7P/R2RK2R w - - 0 1");
+		PawnTable table = new PawnTable(16);
+		table.probe(board);
+		assertEquals(0x77, table.getOpenFiles());
+		assertEquals(0x7F, table.getSemiOpenFiles(Position.WHITE));
+		assertEntryMatches(table, board);
+	}
+
+	public void testPassedPawnGainsInEndGame() {
+		PawnTable table = new PawnTable(16);
+		table.probe(Board.fromFen("4k3/8/8/8/8/8/3PP3/4K3 w - - 0 1"));
+		int middleGame = table.getMiddleGameScore(Position.WHITE);
+		int endGame = table.getEndGameScore(Position.WHITE);
+		assertTrue(endGame > middleGame);
+
+		// Further up the passed Pawns are only worth more in the end game
+		table.probe(Board.fromFen("4k3/8/3PP3/8/8/8/8/4K3 w - - 0 1"));
+		assertEquals(middleGame, table.getMiddleGameScore(Position.WHITE));
+		int advanced = table.getEndGameScore(Position.WHITE);
+		assertTrue(advanced > endGame);
+
+		// The same for Black moving down the Board
+		table.probe(Board.fromFen("4k3/8/8/8/8/3pp3/8/4K3 w - - 0 1"));
+		assertEquals(advanced, table.getEndGameScore(Position.BLACK));
+	}
+
+	public void testHits() {
+		PawnTable table = new PawnTable(PawnTable.DEFAULT_ENTRIES);
+		Board board = Board.defaultBoard();
+		table.probe(board);
+		assertEquals(1, table.getProbes());
+		assertEquals(0, table.getHits());
+
+		// Only the Knights move, so the Pawns are found again
+		board.movePiece(7, 6, 5, 5); // Nf3
+		table.probe(board);
+		assertEquals(1, table.getHits());
+		board.movePiece(0, 6, 2, 5); // Nf6
+		table.probe(board);
+		assertEquals(2, table.getHits());
+
+		board.movePiece(6, 4, 4, 4); // Pe4
+		table.probe(board);
+		assertEquals(2, table.getHits());
+		assertEquals(4, table.getProbes());
+		table.probe(Board.defaultBoard());
+		assertEquals(3, table.getHits());
+	}
+}
@@ -0,0 +1,60 @@
+package com.kdoherty.androidchess.test;
+
+import java.util.Map;
+
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Color;
+import com.kdoherty.chess.Perft;
+
+public class PerftTest extends BaseTest {
+
+	public void testFromFenStartingPosition() {
+		assertEquals(Board.defaultBoard(), Board.fromFen(Perft.START_FEN));
+	}
+
+	public void testFromFenSideToMoveAndEnPoissant() {
+		Board board = Board
+				.fromFen("rnbqkbnr/pppp1ppp/8/4p3/8/8/PPPPPPPP/RNBQKBNR w KQkq e6 0 2");
+		assertEquals(Color.WHITE, board.getSideToMove());
+		assertEquals("e6", board.getEnPoissantSq().toString());
+		board = Board.fromFen("8/8/8/8/8/8/8/K6k b - -");
+		assertEquals(Color.BLACK, board.getSideToMove());
+		assertNull(board.getEnPoissantSq());
+	}
+
+	public void testBulkReferenceCounts() {
+		for (int i = 0; i < Perft.REFERENCE_FENS.length; i++) {
+			long[] counts = Perft.REFERENCE_COUNTS[i];
+			for (int depth = 1; depth <= counts.length; depth++) {
+				Board board = Board.fromFen(Perft.REFERENCE_FENS[i]);
+				assertEquals(counts[depth - 1],
+						Perft.perftBulk(board, board.getSideToMove(), depth));
+				assertEquals(Board.fromFen(Perft.REFERENCE_FENS[i]), board);
+			}
+		}
+	}
+
+	public void testMoveObjectReferenceCounts() {
+		for (int i = 0; i < Perft.REFERENCE_FENS.length; i++) {
+			long[] counts = Perft.REFERENCE_COUNTS[i];
+			int maxDepth = Math.min(3, counts.length);
+			for (int depth = 1; depth <= maxDepth; depth++) {
+				Board board = Board.fromFen(Perft.REFERENCE_FENS[i]);
+				assertEquals(counts[depth - 1],
+						Perft.perft(board, board.getSideToMove(), depth));
+			}
+		}
+	}
+
+	public void testDivideSumsToPerft() {
+		Board board = Board.fromFen(Perft.REFERENCE_FENS[1]);
+		Map<String, Long> divide = Perft.divide(board, Color.WHITE, 3);
+		assertEquals(48, divide.size());
+		long total = 0;
+		for (long count : divide.values()) {
+			total += count;
+		}
+		assertEquals(97862, total);
+		assertEquals(Long.valueOf(2059), divide.get("e1g1"));
+	}
+}
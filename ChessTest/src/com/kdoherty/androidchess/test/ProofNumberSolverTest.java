@@ -0,0 +1,108 @@
+package com.kdoherty.androidchess.test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Color;
+import com.kdoherty.chess.Move;
+import com.kdoherty.chess.MoveGenerator;
+import com.kdoherty.engine.ProofNumberSolver;
+
+public class ProofNumberSolverTest extends BaseTest {
+
+	private final ProofNumberSolver solver = new ProofNumberSolver(1);
+
+	private void assertMate(int scenario, int distance, String... firstMoves) {
+		Board board = fillWithTestMate(scenario);
+		String before = board.toString();
+		Move move = solver.findMate(board, Color.WHITE, 7);
+		assertNotNull(move);
+		List<String> expected = Arrays.asList(firstMoves);
+		assertTrue(move + " is not in " + expected,
+				expected.contains(move.toString()));
+		assertEquals(distance, solver.getMateDistance());
+		assertEquals(before, board.toString());
+	}
+
+	public void testMateInOne() {
+		assertMate(1, 1, "rh3");
+	}
+
+	public void testMatesInTwo() {
+		assertMate(0, 2, "rc7", "rd7");
+		assertMate(2, 2, "qh7", "qf6");
+		assertMate(3, 2, "rh6");
+		assertMate(4, 2, "bb3");
+	}
+
+	public void testMatesInThree() {
+		assertMate(5, 3, "qg7");
+		assertMate(6, 3, "qf6");
+	}
+
+	public void testMateInFour() {
+		assertMate(7, 4, "nf5");
+	}
+
+	public void testMateInFive() {
+		assertMate(8, 5, "ba4");
+	}
+
+	public void testMateTooDeep() {
+		Board board = fillWithTestMate(8);
+		assertNull(solver.findMate(board, Color.WHITE, 4));
+		assertEquals(0, solver.getMateDistance());
+	}
+
+	public void testOnlyTriesTheGivenRootMoves() {
+		Board board = fillWithTestMate(1);
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generateMoves(board, Color.WHITE, moves);
+		int[] mating = new int[1];
+		int[] others = new int[count];
+		int otherCount = 0;
+		for (int i = 0; i < count; i++) {
+			if (board.toMove(moves[i]).toString().equals("rh3")) {
+				mating[0] = moves[i];
+			} else {
+				others[otherCount++] = moves[i];
+			}
+		}
+		assertNull(solver.findMate(board, Color.WHITE, 1, others, otherCount));
+		assertEquals("rh3", solver.findMate(board, Color.WHITE, 1, mating, 1)
+				.toString());
+		assertEquals(1, solver.getMateDistance());
+
+		// The restricted search doesn't leave answers for the full one
+		assertEquals("rh3", solver.findMate(board, Color.WHITE, 1).toString());
+	}
+
+	public void testNoMovesIsNotMate() {
+		// Black is stalemated so can't mate either
+		Board board = Board.fromFen("k7/8/1Q6/8/8/8/8/7K b - - 0 1");
+		assertNull(solver.findMate(board, Color.BLACK, 3));
+	}
+
+	public void testNodeLimit() {
+		solver.setNodeLimit(1000);
+		assertNull(solver.findMate(Board.defaultBoard(), Color.WHITE, 7));
+		assertTrue(solver.getNodes() <= 1000);
+	}
+
+	public void testMateDepthMustBeInRange() {
+		try {
+			solver.findMate(Board.defaultBoard(), Color.WHITE, 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Test does not fail
+		}
+		try {
+			solver.findMate(Board.defaultBoard(), Color.WHITE,
+					ProofNumberSolver.MAX_MOVES + 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Test does not fail
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.kdoherty.androidchess.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Color;
+import com.kdoherty.chess.Move;
+import com.kdoherty.engine.CpuPlayer;
+import com.kdoherty.engine.SearchHandle;
+import com.kdoherty.engine.SearchInfo;
+import com.kdoherty.engine.SearchListener;
+
+public class SearchHandleTest extends BaseTest {
+
+	private static final long MILLIS_REMAINING = 60 * 1000;
+
+	public void testStoppedBeforeSearch() {
+		Board board = Board.defaultBoard();
+		SearchHandle handle = new SearchHandle();
+		handle.stop();
+		long start = System.currentTimeMillis();
+		Move move = CpuPlayer.getInstance(Color.WHITE).negaMaxMove(board,
+				MILLIS_REMAINING, 0, 0, handle);
+		assertTrue(System.currentTimeMillis() - start < 1000);
+		assertTrue(board.getMoves(Color.WHITE).contains(move));
+	}
+
+	public void testStopFromAnotherThread() throws InterruptedException {
+		final SearchHandle handle = new SearchHandle();
+		Thread stopper = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+					return;
+				}
+				handle.stop();
+			}
+		};
+		long start = System.currentTimeMillis();
+		stopper.start();
+		Board board = Board.defaultBoard();
+		Move move = CpuPlayer.getInstance(Color.WHITE).analyze(board, handle);
+		stopper.join();
+		assertTrue(System.currentTimeMillis() - start < 2000);
+		assertTrue(handle.isStopped());
+		assertTrue(board.getMoves(Color.WHITE).contains(move));
+	}
+
+	public void testNodeLimit() {
+		SearchHandle handle = new SearchHandle();
+		handle.setNodeLimit(50000);
+		CpuPlayer.getInstance(Color.WHITE).analyze(Board.defaultBoard(),
+				handle);
+		assertTrue(handle.isStopped());
+		assertTrue(handle.getNodes() >= 50000);
+		assertTrue(handle.getNodes() < 60000);
+	}
+
+	public void testDeadline() {
+		SearchHandle handle = new SearchHandle();
+		long start = System.currentTimeMillis();
+		handle.setDeadline(start + 300);
+		CpuPlayer.getInstance(Color.WHITE).analyze(Board.defaultBoard(),
+				handle);
+		assertTrue(System.currentTimeMillis() - start < 2000);
+		assertTrue(handle.isStopped());
+	}
+
+	public void testProgressIsReported() {
+		final List<SearchInfo> infos = new ArrayList<SearchInfo>();
+		SearchHandle handle = new SearchHandle();
+		handle.setNodeLimit(200000);
+		handle.setListener(new SearchListener() {
+			@Override
+			public void onIteration(SearchInfo info) {
+				infos.add(info);
+			}
+		});
+		CpuPlayer player = CpuPlayer.getInstance(Color.WHITE);
+		Move move = player.analyze(Board.defaultBoard(), handle);
+
+		assertFalse(infos.isEmpty());
+		for (int i = 0; i < infos.size(); i++) {
+			SearchInfo info = infos.get(i);
+			assertEquals(i + 1, info.getDepth());
+			assertFalse(info.getPrincipalVariation().isEmpty());
+			assertTrue(info.getPrincipalVariation().size() <= info.getDepth());
+		}
+		SearchInfo last = infos.get(infos.size() - 1);
+		assertEquals(player.getCompletedDepth(), last.getDepth());
+		assertEquals(move, last.getPrincipalVariation().get(0));
+	}
+}
@@ -0,0 +1,60 @@
+package com.kdoherty.androidchess.test;
+
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.MoveGenerator;
+import com.kdoherty.chess.PackedMove;
+import com.kdoherty.engine.StaticExchange;
+
+public class StaticExchangeTest extends BaseTest {
+
+	private static int findMove(Board board, String name) {
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int count = MoveGenerator.generateMoves(board, board.getSideToMove(),
+				moves);
+		for (int i = 0; i < count; i++) {
+			if (PackedMove.toString(moves[i]).equals(name)) {
+				return moves[i];
+			}
+		}
+		fail(name + " is not a legal move");
+		return PackedMove.NONE;
+	}
+
+	private static int see(String fen, String move) {
+		Board board = Board.fromFen(fen);
+		return StaticExchange.evaluate(board, findMove(board, move));
+	}
+
+	public void testUndefendedCapture() {
+		assertEquals(100, see("4k3/8/8/4p3/8/8/4R3/6K1 w - - 0 1", "e2e5"));
+	}
+
+	public void testDefendedCapture() {
+		assertEquals(-400, see("4k3/4r3/8/4p3/8/8/4R3/6K1 w - - 0 1", "e2e5"));
+	}
+
+	public void testXRayAttacker() {
+		assertEquals(100, see("4k3/4r3/8/4p3/8/8/4R3/4R1K1 w - - 0 1", "e2e5"));
+	}
+
+	public void testDefenderStopsWhenRecaptureLoses() {
+		// Taking the Knight back with the Queen would lose the Queen
+		assertEquals(325, see("3qk3/8/8/3n4/8/8/3R4/3RK3 w - - 0 1", "d2d5"));
+	}
+
+	public void testQuietMoveToAttackedSquare() {
+		assertEquals(-1000, see("4k3/8/2p5/8/8/8/8/3QK3 w - - 0 1", "d1d5"));
+	}
+
+	public void testQuietMoveToSafeSquare() {
+		assertEquals(0, see("4k3/8/8/8/8/8/8/3QK3 w - - 0 1", "d1d5"));
+	}
+
+	public void testEnPoissant() {
+		assertEquals(100, see("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5d6"));
+	}
+
+	public void testPromotion() {
+		assertEquals(900, see("7k/P7/8/8/8/8/8/K7 w - - 0 1", "a7a8q"));
+	}
+}
@@ -0,0 +1,37 @@
+package com.kdoherty.androidchess.test;
+
+import com.kdoherty.engine.TableSize;
+
+public class TableSizeTest extends BaseTest {
+
+	public void testRoundsDownToPowerOfTwo() {
+		assertEquals(1, TableSize.entries(1));
+		assertEquals(8, TableSize.entries(12));
+		assertEquals(16, TableSize.entries(16));
+	}
+
+	public void testNeedsAnEntry() {
+		try {
+			TableSize.entries(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Test does not fail
+		}
+	}
+
+	public void testFromMegabytes() {
+		assertEquals(1 << 16, TableSize.fromMegabytes(1, 16, 1 << 30));
+		assertEquals(1 << 16, TableSize.fromMegabytes(3, 32, 1 << 30));
+		assertEquals(1 << 10, TableSize.fromMegabytes(1, 16, 1 << 10));
+		assertEquals(1, TableSize.fromMegabytes(1, 1 << 21, 1 << 30));
+	}
+
+	public void testNeedsAMegabyte() {
+		try {
+			TableSize.fromMegabytes(0, 16, 1 << 30);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Test does not fail
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.kdoherty.androidchess.test;
+
+import com.kdoherty.chess.Board;
+import com.kdoherty.chess.Color;
+import com.kdoherty.chess.Move;
+import com.kdoherty.engine.CpuPlayer;
+import com.kdoherty.engine.TimeManager;
+
+public class TimeManagerTest extends BaseTest {
+
+	public void testSplitsTimeBetweenMovesToGo() {
+		TimeManager tm = new TimeManager(60 * 1000, 0, 30, 0);
+		assertEquals(2000, tm.getTargetMillis());
+	}
+
+	public void testIncrementAddsTime() {
+		TimeManager noInc = new TimeManager(60 * 1000, 0, 30, 0);
+		TimeManager inc = new TimeManager(60 * 1000, 2000, 30, 0);
+		assertEquals(noInc.getTargetMillis() + 1500, inc.getTargetMillis());
+	}
+
+	public void testEstimatesMovesToGo() {
+		TimeManager opening = new TimeManager(60 * 1000, 0, 0, 0);
+		TimeManager endgame = new TimeManager(60 * 1000, 0, 0, 120);
+		assertTrue(endgame.getTargetMillis() > opening.getTargetMillis());
+		assertEquals(60 * 1000 / 20, endgame.getTargetMillis());
+	}
+
+	public void testLimitsAreOrdered() {
+		long[] remaining = { 0, 30, 500, 10 * 1000, 60 * 60 * 1000 };
+		for (long millis : remaining) {
+			TimeManager tm = new TimeManager(millis, 0, 0, 0);
+			assertTrue(tm.getSoftLimitMillis() <= tm.getTargetMillis());
+			assertTrue(tm.getTargetMillis() <= tm.getHardLimitMillis());
+			assertTrue(tm.getTargetMillis() > 0);
+		}
+	}
+
+	public void testNeverUsesWholeClock() {
+		TimeManager tm = new TimeManager(1000, 5000, 1, 0);
+		assertTrue(tm.getHardLimitMillis() < 1000);
+	}
+
+	public void testSearchMeetsBudget() {
+		Board board = Board.defaultBoard();
+		CpuPlayer player = CpuPlayer.getInstance(Color.WHITE);
+		long millisRemaining = 20 * 1000;
+		long hardLimit = new TimeManager(millisRemaining, 0, 0, 0)
+				.getHardLimitMillis();
+		long start = System.currentTimeMillis();
+		Move move = player.negaMaxMove(board, millisRemaining);
+		long elapsed = System.currentTimeMillis() - start;
+		assertNotNull(move);
+		assertTrue(player.getCompletedDepth() >= 1);
+		// Allow for the mate check before the search starts
+		assertTrue(elapsed < hardLimit + 250);
+	}
+}
@@ -0,0 +1,100 @@
+package com.kdoherty.androidchess.test;
+
+import com.kdoherty.chess.Move;
+import com.kdoherty.chess.PackedMove;
+import com.kdoherty.chess.PieceType;
+import com.kdoherty.engine.TranspositionTable;
+
+public class TranspositionTableTest extends BaseTest {
+
+	private static final int MOVE = PackedMove.encode(52, 36, Move.Type.NORMAL,
+			PieceType.PAWN, PieceType.NONE);
+
+	public void testStoreAndProbe() {
+		TranspositionTable table = new TranspositionTable(1);
+		long key = 0x123456789ABCDEFL;
+		assertEquals(TranspositionTable.MISS, table.probe(key));
+		table.store(key, 4, TranspositionTable.BOUND_LOWER, -250, MOVE);
+		long entry = table.probe(key);
+		assertEquals(MOVE, TranspositionTable.getMove(entry));
+		assertEquals(4, TranspositionTable.getDepth(entry));
+		assertEquals(TranspositionTable.BOUND_LOWER,
+				TranspositionTable.getBound(entry));
+		assertEquals(-250, TranspositionTable.getScore(entry));
+	}
+
+	public void testExtremeScores() {
+		TranspositionTable table = new TranspositionTable(1);
+		table.store(1L, 1, TranspositionTable.BOUND_EXACT, Integer.MIN_VALUE,
+				MOVE);
+		assertEquals(Integer.MIN_VALUE,
+				TranspositionTable.getScore(table.probe(1L)));
+		table.store(1L, 1, TranspositionTable.BOUND_EXACT, Integer.MAX_VALUE,
+				MOVE);
+		assertEquals(Integer.MAX_VALUE,
+				TranspositionTable.getScore(table.probe(1L)));
+	}
+
+	public void testPowerOfTwoCapacity() {
+		TranspositionTable table = new TranspositionTable(3);
+		int capacity = table.getCapacity();
+		assertEquals(Integer.bitCount(capacity), 1);
+		assertTrue(capacity * 16L <= 3L << 20);
+		assertEquals(2 << 20, new TranspositionTable(32).getCapacity());
+	}
+
+	public void testDepthPreferredReplacement() {
+		TranspositionTable table = new TranspositionTable(1);
+		long bucketStride = table.getCapacity() / 2;
+		long deep = 5L;
+		long shallow = deep + bucketStride;
+		long newest = deep + 2 * bucketStride;
+		table.store(deep, 8, TranspositionTable.BOUND_EXACT, 10, MOVE);
+		table.store(shallow, 2, TranspositionTable.BOUND_EXACT, 20, MOVE);
+		table.store(newest, 1, TranspositionTable.BOUND_EXACT, 30, MOVE);
+
+		// The deep entry survives and the always replace entry is the newest
+		assertEquals(10, TranspositionTable.getScore(table.probe(deep)));
+		assertEquals(TranspositionTable.MISS, table.probe(shallow));
+		assertEquals(30, TranspositionTable.getScore(table.probe(newest)));
+
+		table.store(shallow, 9, TranspositionTable.BOUND_EXACT, 40, MOVE);
+		assertEquals(40, TranspositionTable.getScore(table.probe(shallow)));
+		assertEquals(TranspositionTable.MISS, table.probe(deep));
+	}
+
+	public void testEarlierSearchesAreReplaced() {
+		TranspositionTable table = new TranspositionTable(1);
+		long bucketStride = table.getCapacity() / 2;
+		long deep = 5L;
+		long shallow = deep + bucketStride;
+		table.store(deep, 8, TranspositionTable.BOUND_EXACT, 10, MOVE);
+
+		// A deep result of the last search no longer holds its entry
+		table.newSearch();
+		table.store(shallow, 2, TranspositionTable.BOUND_EXACT, 20, MOVE);
+		assertEquals(20, TranspositionTable.getScore(table.probe(shallow)));
+		assertEquals(TranspositionTable.MISS, table.probe(deep));
+	}
+
+	public void testKeepsMoveWhenStoringWithoutOne() {
+		TranspositionTable table = new TranspositionTable(1);
+		table.store(7L, 3, TranspositionTable.BOUND_LOWER, 5, MOVE);
+		table.store(7L, 4, TranspositionTable.BOUND_UPPER, 1, PackedMove.NONE);
+		assertEquals(MOVE, TranspositionTable.getMove(table.probe(7L)));
+	}
+
+	public void testHitCounters() {
+		TranspositionTable table = new TranspositionTable(1);
+		table.store(9L, 1, TranspositionTable.BOUND_EXACT, 0, MOVE);
+		table.probe(9L);
+		table.probe(10L);
+		assertEquals(2, table.getProbes());
+		assertEquals(1, table.getHits());
+		assertEquals(1, table.getStores());
+		assertEquals(0.5, table.getHitRate(), 1e-9);
+		table.clear();
+		assertEquals(0, table.getProbes());
+		assertEquals(TranspositionTable.MISS, table.probe(9L));
+	}
+}